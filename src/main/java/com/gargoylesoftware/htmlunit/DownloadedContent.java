@@ -15,15 +15,22 @@
 package com.gargoylesoftware.htmlunit;
 
 import java.io.ByteArrayInputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.Arrays;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.ConnectionClosedException;
+import org.apache.http.conn.ConnectionReleaseTrigger;
 
 /**
  * Wrapper for content downloaded from a remote server.
@@ -102,6 +109,205 @@ public interface DownloadedContent extends Serializable {
             return false;
         }
 
+        @Override
+        public long length() {
+            if (file_ == null) {
+                return 0;
+            }
+            return file_.length();
+        }
+    }
+
+    /**
+     * Implementation reading the content from the source stream on demand, while it is consumed.
+     * The bytes already read are kept in memory, therefore every {@link #getInputStream()} starts
+     * from the beginning and the complete content is available once the source is exhausted.
+     */
+    class Streaming implements DownloadedContent {
+        private static final Log LOG = LogFactory.getLog(Streaming.class);
+
+        private transient volatile InputStream source_;
+        private byte[] bytes_ = new byte[8192];
+        private int count_;
+
+        /**
+         * @param source the stream to read the content from; closed when exhausted or on cleanUp()
+         */
+        Streaming(final InputStream source) {
+            source_ = source;
+        }
+
+        /**
+         * Reads from the source until the byte at the specified position is available or
+         * the source is exhausted.
+         * @param position the position
+         * @return whether the byte at the specified position is available
+         * @throws IOException in case of read issues
+         */
+        synchronized boolean ensureAvailable(final int position) throws IOException {
+            while (position >= count_) {
+                final InputStream source = source_;
+                if (source == null) {
+                    return false;
+                }
+                if (count_ == bytes_.length) {
+                    final int newLength = bytes_.length << 1;
+                    if (newLength < 0) {
+                        throw new IOException("Content too large");
+                    }
+                    bytes_ = Arrays.copyOf(bytes_, newLength);
+                }
+
+                int nbRead;
+                try {
+                    nbRead = source.read(bytes_, count_, bytes_.length - count_);
+                }
+                catch (final ConnectionClosedException e) {
+                    LOG.warn("Connection was closed while reading from stream.", e);
+                    nbRead = -1;
+                }
+                catch (final EOFException e) {
+                    // this might happen with broken gzip content
+                    LOG.warn("EOFException while reading from stream.", e);
+                    nbRead = -1;
+                }
+                catch (final IOException e) {
+                    if (source_ == null) {
+                        // closed by cleanUp()
+                        return false;
+                    }
+                    cleanUp();
+                    throw e;
+                }
+
+                if (nbRead == -1) {
+                    source_ = null;
+                    close(source);
+                }
+                else {
+                    count_ += nbRead;
+                }
+            }
+            return true;
+        }
+
+        synchronized int read(final int position, final byte[] b, final int off, final int len)
+            throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!ensureAvailable(position)) {
+                return -1;
+            }
+            final int nb = Math.min(len, count_ - position);
+            System.arraycopy(bytes_, position, b, off, nb);
+            return nb;
+        }
+
+        synchronized int available(final int position) {
+            return Math.max(0, count_ - position);
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new InputStream() {
+                private int position_;
+                private int mark_;
+
+                @Override
+                public int read() throws IOException {
+                    final byte[] b = new byte[1];
+                    if (Streaming.this.read(position_, b, 0, 1) == -1) {
+                        return -1;
+                    }
+                    position_++;
+                    return b[0] & 0xff;
+                }
+
+                @Override
+                public int read(final byte[] b, final int off, final int len) throws IOException {
+                    final int nb = Streaming.this.read(position_, b, off, len);
+                    if (nb > 0) {
+                        position_ += nb;
+                    }
+                    return nb;
+                }
+
+                @Override
+                public long skip(final long n) throws IOException {
+                    if (n <= 0) {
+                        return 0;
+                    }
+                    final int target = (int) Math.min(Integer.MAX_VALUE, position_ + n);
+                    ensureAvailable(target - 1);
+                    final int skipped = Math.min(target, position_ + Streaming.this.available(position_)) - position_;
+                    position_ += skipped;
+                    return skipped;
+                }
+
+                @Override
+                public int available() {
+                    return Streaming.this.available(position_);
+                }
+
+                @Override
+                public boolean markSupported() {
+                    return true;
+                }
+
+                @Override
+                public void mark(final int readlimit) {
+                    mark_ = position_;
+                }
+
+                @Override
+                public void reset() {
+                    position_ = mark_;
+                }
+            };
+        }
+
+        /**
+         * Stops reading from the source; the content read so far remains available.
+         */
+        @Override
+        public void cleanUp() {
+            final InputStream source = source_;
+            if (source != null) {
+                source_ = null;
+                try {
+                    if (source instanceof ConnectionReleaseTrigger) {
+                        // don't consume the remaining content of the response
+                        ((ConnectionReleaseTrigger) source).abortConnection();
+                    }
+                }
+                catch (final IOException e) {
+                    // ignore
+                }
+                close(source);
+            }
+        }
+
+        private static void close(final InputStream source) {
+            try {
+                source.close();
+            }
+            catch (final IOException e) {
+                LOG.debug("Closing stream failed.", e);
+            }
+        }
+
+        @Override
+        public boolean isEmpty() {
+            try {
+                return !ensureAvailable(0);
+            }
+            catch (final IOException e) {
+                LOG.warn("Reading from stream failed.", e);
+                return available(0) == 0;
+            }
+        }
+
         @Override
         protected void finalize() throws Throwable {
             super.finalize();
@@ -110,10 +316,18 @@ public interface DownloadedContent extends Serializable {
 
         @Override
         public long length() {
-            if (file_ == null) {
-                return 0;
+            try {
+                ensureAvailable(Integer.MAX_VALUE);
             }
-            return file_.length();
+            catch (final IOException e) {
+                LOG.warn("Reading from stream failed.", e);
+            }
+            return available(0);
+        }
+
+        private synchronized void writeObject(final ObjectOutputStream out) throws IOException {
+            ensureAvailable(Integer.MAX_VALUE);
+            out.defaultWriteObject();
         }
     }
 
@@ -55,6 +55,7 @@ import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpRequestInterceptor;
 import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
 import org.apache.http.auth.AuthScheme;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.Credentials;
@@ -212,7 +213,19 @@ public class HttpWebConnection implements WebConnection {
 
             final DownloadedContent downloadedBody = downloadResponseBody(httpResponse);
             final long endTime = System.currentTimeMillis();
-            return makeWebResponse(httpResponse, request, downloadedBody, endTime - startTime);
+            boolean done = false;
+            try {
+                final WebResponse webResponse
+                    = makeWebResponse(httpResponse, request, downloadedBody, endTime - startTime);
+                done = true;
+                return webResponse;
+            }
+            finally {
+                if (!done) {
+                    // don't leave the connection of a body read on demand open
+                    downloadedBody.cleanUp();
+                }
+            }
         }
         finally {
             if (httpMethod != null) {
@@ -699,11 +712,42 @@ public class HttpWebConnection implements WebConnection {
             return new DownloadedContent.InMemory(null);
         }
 
+        if (webClient_.getOptions().isIncrementalHtmlParsing() && isIncrementallyParsed(httpResponse)) {
+            final InputStream is = httpEntity.getContent();
+            if (is == null) {
+                return new DownloadedContent.InMemory(null);
+            }
+            // the body is read while the page is parsed
+            return new DownloadedContent.Streaming(is);
+        }
+
         try (InputStream is = httpEntity.getContent()) {
             return downloadContent(is, webClient_.getOptions().getMaxInMemory());
         }
     }
 
+    /**
+     * Returns whether the specified response is an HTML page which will be parsed while its body
+     * is downloaded.
+     * @param httpResponse the response
+     * @return whether the body of the response should be read on demand
+     */
+    private static boolean isIncrementallyParsed(final HttpResponse httpResponse) {
+        final int statusCode = httpResponse.getStatusLine().getStatusCode();
+        if (statusCode < HttpStatus.SC_OK || statusCode >= HttpStatus.SC_MULTIPLE_CHOICES) {
+            return false;
+        }
+        if (httpResponse.getFirstHeader("Content-Disposition") != null) {
+            return false;
+        }
+        final Header contentType = httpResponse.getFirstHeader("Content-Type");
+        if (contentType == null) {
+            return false;
+        }
+        final String mimeType = StringUtils.substringBefore(contentType.getValue(), ";").trim();
+        return "text/html".equalsIgnoreCase(mimeType);
+    }
+
     /**
      * Reads the content of the stream and saves it in memory or on the file system.
      * @param is the stream to read
@@ -15,6 +15,7 @@
 package com.gargoylesoftware.htmlunit;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.util.Comparator;
@@ -231,12 +232,11 @@ public abstract class SgmlPage extends DomNode implements Page, Document, Docume
      * {@inheritDoc}
      */
     @Override
-    public String asXml() {
+    public void asXml(final Writer writer) throws IOException {
         final DomElement documentElement = getDocumentElement();
-        if (documentElement == null) {
-            return "";
+        if (documentElement != null) {
+            documentElement.asXml(writer);
         }
-        return documentElement.asXml();
     }
 
     /**
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2002-2018 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit;
+
+import java.io.IOException;
+
+import com.gargoylesoftware.htmlunit.html.HTMLParser;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+
+/**
+ * A {@link PageCreator} for content extraction: HTML content is parsed into static pages.
+ * Static pages don't run any JavaScript, load neither style sheets nor frames, don't fire any
+ * events and are read-only once parsed, but they support XPath, selectors and text extraction
+ * like any other {@link HtmlPage}. All other content types are handled like in
+ * {@link DefaultPageCreator}.
+ * <p>
+ * The DOM of a static page is made of the same node classes as the one of a regular page; it only
+ * saves what is spent for scripting: no JavaScript objects are created and no source positions are
+ * recorded.
+ *
+ * <pre>
+ * webClient.setPageCreator(new StaticPageCreator());
+ * final HtmlPage page = webClient.getPage(url);
+ * </pre>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @see HtmlPage#isStatic()
+ */
+public class StaticPageCreator extends DefaultPageCreator {
+
+    /**
+     * Creates a static HtmlPage for this WebResponse.
+     *
+     * @param webResponse the page's source
+     * @param webWindow the WebWindow to place the HtmlPage in
+     * @return the newly created static HtmlPage
+     * @throws IOException if the page could not be created
+     */
+    @Override
+    protected HtmlPage createHtmlPage(final WebResponse webResponse, final WebWindow webWindow) throws IOException {
+        return HTMLParser.parseStaticHtml(webResponse, webWindow);
+    }
+}
@@ -528,7 +528,15 @@ public class WebClient implements Serializable, AutoCloseable {
         }
         Page newPage = null;
         if (windows_.contains(webWindow) || getBrowserVersion().hasFeature(WINDOW_EXECUTE_EVENTS)) {
-            newPage = pageCreator_.createPage(webResponse, webWindow);
+            try {
+                newPage = pageCreator_.createPage(webResponse, webWindow);
+            }
+            finally {
+                if (newPage == null) {
+                    // don't leave the connection of a body read on demand open
+                    webResponse.abortDownload();
+                }
+            }
 
             if (windows_.contains(webWindow)) {
                 fireWindowContentChanged(new WebWindowEvent(webWindow, WebWindowEvent.CHANGE, oldPage, newPage));
@@ -552,6 +560,10 @@ public class WebClient implements Serializable, AutoCloseable {
                 }
             }
         }
+        else {
+            // don't leave the connection of a body read on demand open
+            webResponse.abortDownload();
+        }
         return newPage;
     }
 
@@ -1087,6 +1099,10 @@ public class WebClient implements Serializable, AutoCloseable {
      */
     public void initialize(final Page newPage) {
         WebAssert.notNull("newPage", newPage);
+        if (newPage instanceof HtmlPage && ((HtmlPage) newPage).isStatic()) {
+            // static pages don't run any JavaScript
+            return;
+        }
         final WebWindow webWindow = newPage.getEnclosingWindow();
         if (webWindow.getScriptableObject() instanceof Window) {
             ((Window) webWindow.getScriptableObject()).initialize(newPage);
@@ -64,6 +64,11 @@ public class WebClientOptions implements Serializable {
     private int webSocketMaxBinaryMessageSize_ = -1;
     private int webSocketMaxBinaryMessageBufferSize_ = -1;
 
+    private int fragmentCacheSize_;
+    private boolean incrementalHtmlParsing_;
+    private boolean recordSourcePositions_ = true;
+    private boolean mutationJournalEnabled_;
+
     /**
      * If set to {@code true}, the client will accept connections to any host, regardless of
      * whether they have valid certificates or not. This is especially useful when you are trying to
@@ -733,4 +738,101 @@ public class WebClientOptions implements Serializable {
     public void setWebSocketMaxBinaryMessageBufferSize(final int webSocketMaxBinaryMessageBufferSize) {
         webSocketMaxBinaryMessageBufferSize_ = webSocketMaxBinaryMessageBufferSize;
     }
+
+    /**
+     * Returns the maximum number of parsed HTML snippets cached per page.
+     * @return the maximum number of parsed HTML snippets cached per page
+     * @see #setFragmentCacheSize(int)
+     */
+    public int getFragmentCacheSize() {
+        return fragmentCacheSize_;
+    }
+
+    /**
+     * Sets the maximum number of parsed HTML snippets cached per page. If the same markup is
+     * assigned again (e.g. to <tt>innerHTML</tt>) of an element in the same context, a copy of the
+     * cached nodes is inserted instead of parsing the markup again. This helps pages that render
+     * templates repeatedly. Markup containing scripts, forms, frames, objects, style sheet links
+     * or templates is never cached.
+     *
+     * Default: {@code 0} (disabled)
+     *
+     * @param fragmentCacheSize the maximum number of cached snippets; zero or negative values disable the cache
+     */
+    public void setFragmentCacheSize(final int fragmentCacheSize) {
+        fragmentCacheSize_ = fragmentCacheSize;
+    }
+
+    /**
+     * Returns whether HTML responses are parsed while they are downloaded.
+     * @return whether HTML responses are parsed while they are downloaded
+     * @see #setIncrementalHtmlParsing(boolean)
+     */
+    public boolean isIncrementalHtmlParsing() {
+        return incrementalHtmlParsing_;
+    }
+
+    /**
+     * Sets whether successful HTML responses are parsed while they are downloaded. If enabled, the
+     * parser consumes the response body as it arrives from the server, so that the DOM is built and
+     * scripts, style sheets and frames are loaded while the rest of the body is still being
+     * transferred. The complete content remains available from the {@link WebResponse} afterwards;
+     * it is always kept in memory, regardless of {@link #getMaxInMemory()}.
+     *
+     * Default: {@code false}
+     *
+     * @param incrementalHtmlParsing whether to parse HTML responses while they are downloaded
+     */
+    public void setIncrementalHtmlParsing(final boolean incrementalHtmlParsing) {
+        incrementalHtmlParsing_ = incrementalHtmlParsing;
+    }
+
+    /**
+     * Returns whether the HTML parser records the source positions of all elements.
+     * @return whether the HTML parser records the source positions of all elements
+     * @see #setRecordSourcePositions(boolean)
+     */
+    public boolean isRecordSourcePositions() {
+        return recordSourcePositions_;
+    }
+
+    /**
+     * Sets whether the HTML parser records the line and column numbers where the elements start
+     * and end in the source (see {@link com.gargoylesoftware.htmlunit.html.DomNode#getStartLineNumber()}).
+     * Disabling it saves memory for pages with many elements. The positions of scripts are
+     * always recorded.
+     *
+     * Default: {@code true}
+     *
+     * @param recordSourcePositions whether to record the source positions of all elements
+     */
+    public void setRecordSourcePositions(final boolean recordSourcePositions) {
+        recordSourcePositions_ = recordSourcePositions;
+    }
+
+    /**
+     * Returns whether the DOM changes are recorded and processed in batches by the internal caches.
+     * @return whether the mutation journal is enabled
+     * @see #setMutationJournalEnabled(boolean)
+     */
+    public boolean isMutationJournalEnabled() {
+        return mutationJournalEnabled_;
+    }
+
+    /**
+     * Sets whether the DOM changes of an HTML page are recorded in a journal instead of being
+     * processed by the internal caches (e.g. the computed styles) one after the other. The journal
+     * is processed when a script has finished or when a cache is used; a script changing the DOM
+     * in a loop then invalidates the caches once instead of for every change.
+     * The {@link com.gargoylesoftware.htmlunit.html.DomChangeListener}s and
+     * {@link com.gargoylesoftware.htmlunit.html.HtmlAttributeChangeListener}s are still notified immediately.
+     * This applies to the pages loaded afterwards.
+     *
+     * Default: {@code false}
+     *
+     * @param mutationJournalEnabled whether to enable the mutation journal
+     */
+    public void setMutationJournalEnabled(final boolean mutationJournalEnabled) {
+        mutationJournalEnabled_ = mutationJournalEnabled;
+    }
 }
@@ -289,6 +289,19 @@ public class WebResponse implements Serializable {
         }
     }
 
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Stops reading the content of a response which is parsed while it is downloaded (see
+     * {@link WebClientOptions#setIncrementalHtmlParsing(boolean)}) and releases the connection.
+     * The content read so far remains available. Does nothing for a content downloaded completely.
+     */
+    public void abortDownload() {
+        if (responseData_ != null) {
+            responseData_.abortDownload();
+        }
+    }
+
     /**
      * Mark this response for using UTF-8 as default charset.
      */
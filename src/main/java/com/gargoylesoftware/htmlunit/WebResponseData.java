@@ -206,4 +206,13 @@ public class WebResponseData implements Serializable {
     public void cleanUp() {
         downloadedContent_.cleanUp();
     }
+
+    /**
+     * Stops reading the content if it is read on demand, see {@link WebResponse#abortDownload()}.
+     */
+    void abortDownload() {
+        if (downloadedContent_ instanceof DownloadedContent.Streaming) {
+            downloadedContent_.cleanUp();
+        }
+    }
 }
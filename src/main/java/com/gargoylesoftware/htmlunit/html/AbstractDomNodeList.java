@@ -49,7 +49,7 @@ public abstract class AbstractDomNodeList<E extends DomNode> extends AbstractLis
         if (node != null) {
             node_ = node;
             final DomHtmlAttributeChangeListenerImpl listener = new DomHtmlAttributeChangeListenerImpl(this);
-            node_.addDomChangeListener(listener);
+            node_.addDomChangeListener(listener, false);
             if (node_ instanceof HtmlElement) {
                 ((HtmlElement) node_).addHtmlAttributeChangeListener(listener);
                 cachedElements_ = null;
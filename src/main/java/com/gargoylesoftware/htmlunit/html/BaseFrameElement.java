@@ -86,7 +86,8 @@ public abstract class BaseFrameElement extends HtmlElement {
         FrameWindow enclosedWindow = null;
         try {
             final HtmlPage htmlPage = getHtmlPageOrNull();
-            if (null != htmlPage) { // if loaded as part of XHR.responseXML, don't load content
+            // if loaded as part of XHR.responseXML or in a static page, don't load content
+            if (null != htmlPage && !htmlPage.isStatic()) {
                 enclosedWindow = new FrameWindow(this);
                 // put about:blank in the window to allow JS to run on this frame before the
                 // real content is loaded
@@ -326,7 +327,11 @@ public abstract class BaseFrameElement extends HtmlElement {
      * @return the currently loaded page in the enclosed window, or {@code null} if no page has been loaded
      */
     public Page getEnclosedPage() {
-        return getEnclosedWindow().getEnclosedPage();
+        final FrameWindow enclosedWindow = getEnclosedWindow();
+        if (enclosedWindow == null) {
+            return null;
+        }
+        return enclosedWindow.getEnclosedPage();
     }
 
     /**
@@ -482,6 +487,9 @@ public abstract class BaseFrameElement extends HtmlElement {
     @Override
     public void remove() {
         super.remove();
-        getEnclosedWindow().close();
+        final FrameWindow enclosedWindow = getEnclosedWindow();
+        if (enclosedWindow != null) {
+            enclosedWindow.close();
+        }
     }
 }
@@ -18,16 +18,18 @@ import static com.gargoylesoftware.htmlunit.BrowserVersionFeatures.KEYGEN_AS_BLO
 import static com.gargoylesoftware.htmlunit.BrowserVersionFeatures.KEYGEN_AS_SELECT;
 
 import java.util.Arrays;
-import java.util.LinkedHashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 import org.xml.sax.Attributes;
 
 import com.gargoylesoftware.htmlunit.BrowserVersion;
 import com.gargoylesoftware.htmlunit.SgmlPage;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JavaScriptConfiguration;
+import com.gargoylesoftware.htmlunit.util.StringInterner;
 
 /**
  * Element factory which creates elements by calling the constructor on a
@@ -47,6 +49,14 @@ class DefaultElementFactory implements ElementFactory {
 
     private static final String KEYGEN_ = "keygen";
 
+    /**
+     * The attributes having values repeated often, shared by all pages. Attributes with mostly unique
+     * values (like href or src) are not pooled, they would only fill the bounded pool.
+     */
+    private static final Set<String> POOLED_VALUE_ATTRIBUTES = new HashSet<>(Arrays.asList(
+            "class", "rel", "type", "target", "lang", "dir", "role", "method",
+            "align", "valign", "width", "height", "media", "charset", "language", "border"));
+
     /*
      * You can generate your own test cases by looking into ElementTestSource.generateTestForHtmlElements
      */
@@ -751,22 +761,28 @@ class DefaultElementFactory implements ElementFactory {
      * @return the map of attribute values for {@link HtmlElement}s
      */
     static Map<String, DomAttr> toMap(final SgmlPage page, final Attributes attributes) {
-        Map<String, DomAttr> attributeMap = null;
-        if (attributes != null) {
-            attributeMap = new LinkedHashMap<>(attributes.getLength());
-            for (int i = 0; i < attributes.getLength(); i++) {
-                final String qName = attributes.getQName(i);
-                // browsers consider only first attribute (ex: <div id='foo' id='something'>...</div>)
-                if (!attributeMap.containsKey(qName)) {
-                    String namespaceURI = attributes.getURI(i);
-                    if (namespaceURI != null && namespaceURI.isEmpty()) {
-                        namespaceURI = null;
+        if (attributes == null) {
+            return null;
+        }
+        final NamedAttrNodeMapImpl map = NamedAttrNodeMapImpl.forPage(page, attributes.getLength());
+        for (int i = 0; i < attributes.getLength(); i++) {
+            final String qName = attributes.getQName(i);
+            // browsers consider only first attribute (ex: <div id='foo' id='something'>...</div>)
+            if (!map.containsKey(qName)) {
+                final String namespaceURI = attributes.getURI(i);
+                if (namespaceURI == null || namespaceURI.isEmpty()) {
+                    // the attribute node is created on demand
+                    String value = attributes.getValue(i);
+                    if (POOLED_VALUE_ATTRIBUTES.contains(qName)) {
+                        value = StringInterner.internValue(value);
                     }
-                    final DomAttr newAttr = new DomAttr(page, namespaceURI, qName, attributes.getValue(i), true);
-                    attributeMap.put(qName, newAttr);
+                    map.putValue(qName, value);
+                }
+                else {
+                    map.put(qName, new DomAttr(page, namespaceURI, qName, attributes.getValue(i), true));
                 }
             }
         }
-        return attributeMap;
+        return map;
     }
 }
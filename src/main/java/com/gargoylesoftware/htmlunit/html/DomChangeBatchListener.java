@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2002-2018 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.html;
+
+import java.io.Serializable;
+import java.util.EventObject;
+import java.util.List;
+
+/**
+ * Implementations of this interface receive the changes recorded by the mutation journal of an
+ * {@link HtmlPage} in batches, see {@link HtmlPage#flushMutationJournal()}.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @see com.gargoylesoftware.htmlunit.WebClientOptions#setMutationJournalEnabled(boolean)
+ */
+public interface DomChangeBatchListener extends Serializable {
+
+    /**
+     * Notification of the changes recorded since the last notification.
+     *
+     * @param changes the {@link DomChangeEvent}s and {@link HtmlAttributeChangeEvent}s in the order
+     *        they occurred, or {@code null} if there were too many changes to record them one by one
+     */
+    void changesRecorded(List<EventObject> changes);
+}
@@ -59,6 +59,7 @@ public abstract class DomCharacterData extends DomNode implements CharacterData
      */
     @Override
     public void setData(final String data) {
+        checkPageModifiable();
         final String oldData = data_;
         data_ = data;
         fireCharacterDataChanged(new CharacterDataChangeEvent(this, oldData));
@@ -14,6 +14,9 @@
  */
 package com.gargoylesoftware.htmlunit.html;
 
+import java.io.IOException;
+import java.io.Writer;
+
 import org.w3c.dom.DocumentFragment;
 
 import com.gargoylesoftware.htmlunit.SgmlPage;
@@ -58,12 +61,10 @@ public class DomDocumentFragment extends DomNode implements DocumentFragment {
      * {@inheritDoc}
      */
     @Override
-    public String asXml() {
-        final StringBuilder sb = new StringBuilder();
+    public void asXml(final Writer writer) throws IOException {
         for (final DomNode node : getChildren()) {
-            sb.append(node.asXml());
+            node.asXml(writer);
         }
-        return sb.toString();
     }
 
     /**
@@ -20,7 +20,9 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Serializable;
 import java.io.StringWriter;
-import java.util.ArrayList;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -62,6 +64,7 @@ import com.gargoylesoftware.htmlunit.javascript.host.event.EventTarget;
 import com.gargoylesoftware.htmlunit.javascript.host.event.MouseEvent;
 import com.gargoylesoftware.htmlunit.javascript.host.event.PointerEvent;
 import com.gargoylesoftware.htmlunit.javascript.host.html.HTMLElement;
+import com.gargoylesoftware.htmlunit.util.StringInterner;
 import com.gargoylesoftware.htmlunit.util.StringUtils;
 
 import net.sourceforge.htmlunit.corejs.javascript.ContextFactory;
@@ -85,11 +88,11 @@ public class DomElement extends DomNamespaceNode implements Element {
     /** The map holding the attributes, keyed by name. */
     private NamedAttrNodeMapImpl attributes_ = new NamedAttrNodeMapImpl(this, isAttributeCaseSensitive());
 
-    /** The map holding the namespaces, keyed by URI. */
-    private Map<String, String> namespaces_ = new HashMap<>();
+    /** The map holding the namespaces, keyed by URI; created when the first namespaced attribute is set. */
+    private Map<String, String> namespaces_;
 
     /** Cache for the styles. */
-    private String styleString_ = new String();
+    private String styleString_;
     private Map<String, StyleElement> styleMap_;
 
     /**
@@ -111,11 +114,14 @@ public class DomElement extends DomNamespaceNode implements Element {
         super(namespaceURI, qualifiedName, page);
         if (attributes != null && !attributes.isEmpty()) {
             attributes_ = new NamedAttrNodeMapImpl(this, isAttributeCaseSensitive(), attributes);
-            for (final DomAttr entry : attributes_.values()) {
-                entry.setParentNode(this);
-                final String attrNamespaceURI = entry.getNamespaceURI();
-                if (attrNamespaceURI != null) {
-                    namespaces_.put(attrNamespaceURI, entry.getPrefix());
+            for (int i = 0; i < attributes_.size(); i++) {
+                final DomAttr entry = attributes_.getCreatedAttrAt(i);
+                if (entry != null) {
+                    entry.setParentNode(this);
+                    final String attrNamespaceURI = entry.getNamespaceURI();
+                    if (attrNamespaceURI != null) {
+                        addNamespace(attrNamespaceURI, entry.getPrefix());
+                    }
                 }
             }
         }
@@ -259,7 +265,7 @@ public class DomElement extends DomNamespaceNode implements Element {
      */
     public Map<String, StyleElement> getStyleMap() {
         final String styleAttribute = getAttributeDirect("style");
-        if (styleString_ == styleAttribute) {
+        if (styleString_ == styleAttribute && styleMap_ != null) {
             return styleMap_;
         }
 
@@ -300,11 +306,11 @@ public class DomElement extends DomNamespaceNode implements Element {
      */
     protected void printOpeningTagContentAsXml(final PrintWriter printWriter) {
         printWriter.print(getTagName());
-        for (final Map.Entry<String, DomAttr> entry : attributes_.entrySet()) {
+        for (int i = 0; i < attributes_.size(); i++) {
             printWriter.print(" ");
-            printWriter.print(entry.getKey());
+            printWriter.print(attributes_.getNameAt(i));
             printWriter.print("=\"");
-            printWriter.print(StringUtils.escapeXmlAttributeValue(entry.getValue().getNodeValue()));
+            printWriter.print(StringUtils.escapeXmlAttributeValue(attributes_.getValueAt(i)));
             printWriter.print("\"");
         }
     }
@@ -357,7 +363,7 @@ public class DomElement extends DomNamespaceNode implements Element {
             qualifiedName = localName;
         }
         else {
-            final String prefix = namespaces_.get(namespaceURI);
+            final String prefix = namespaces_ == null ? null : namespaces_.get(namespaceURI);
             if (prefix == null) {
                 qualifiedName = null;
             }
@@ -379,11 +385,7 @@ public class DomElement extends DomNamespaceNode implements Element {
      */
     @Override
     public String getAttribute(final String attributeName) {
-        final DomAttr attr = attributes_.get(attributeName);
-        if (attr != null) {
-            return attr.getNodeValue();
-        }
-        return ATTRIBUTE_NOT_DEFINED;
+        return attributes_.getValue(attributeName);
     }
 
     /**
@@ -393,11 +395,7 @@ public class DomElement extends DomNamespaceNode implements Element {
      * @return the value of the attribute or {@link #ATTRIBUTE_NOT_DEFINED} or {@link #ATTRIBUTE_VALUE_EMPTY}
      */
     public String getAttributeDirect(final String attributeName) {
-        final DomAttr attr = attributes_.getDirect(attributeName);
-        if (attr != null) {
-            return attr.getNodeValue();
-        }
-        return ATTRIBUTE_NOT_DEFINED;
+        return attributes_.getValueDirect(attributeName);
     }
 
     /**
@@ -406,7 +404,7 @@ public class DomElement extends DomNamespaceNode implements Element {
      */
     @Override
     public void removeAttribute(final String attributeName) {
-        attributes_.remove(attributeName);
+        attributes_.removeValue(attributeName);
     }
 
     /**
@@ -500,14 +498,23 @@ public class DomElement extends DomNamespaceNode implements Element {
     protected void setAttributeNS(final String namespaceURI, final String qualifiedName,
             final String attributeValue, final boolean notifyAttributeChangeListeners,
             final boolean notifyMutationObservers) {
-        final String value = attributeValue;
-        final DomAttr newAttr = new DomAttr(getPage(), namespaceURI, qualifiedName, value, true);
+        if (namespaceURI == null) {
+            // the attribute node is created on demand
+            attributes_.putValue(qualifiedName, attributeValue);
+            return;
+        }
+
+        final DomAttr newAttr = new DomAttr(getPage(), namespaceURI, qualifiedName, attributeValue, true);
         newAttr.setParentNode(this);
         attributes_.put(qualifiedName, newAttr);
+        addNamespace(namespaceURI, newAttr.getPrefix());
+    }
 
-        if (namespaceURI != null) {
-            namespaces_.put(namespaceURI, newAttr.getPrefix());
+    private void addNamespace(final String namespaceURI, final String prefix) {
+        if (namespaces_ == null) {
+            namespaces_ = new HashMap<>();
         }
+        namespaces_.put(namespaceURI, prefix);
     }
 
     /**
@@ -682,8 +689,11 @@ public class DomElement extends DomNamespaceNode implements Element {
     @Override
     public DomNode cloneNode(final boolean deep) {
         final DomElement clone = (DomElement) super.cloneNode(deep);
-        clone.attributes_ = new NamedAttrNodeMapImpl(clone, isAttributeCaseSensitive());
-        clone.attributes_.putAll(attributes_);
+        // the attribute nodes belong to one element only
+        clone.attributes_ = attributes_.copy(clone);
+        if (namespaces_ != null) {
+            clone.namespaces_ = new HashMap<>(namespaces_);
+        }
         return clone;
     }
 
@@ -1397,6 +1407,11 @@ public class DomElement extends DomNamespaceNode implements Element {
             return null;
         }
 
+        final HtmlPage htmlPage = getHtmlPageOrNull();
+        if (htmlPage != null && htmlPage.isStatic()) {
+            return null;
+        }
+
         if (!handles(event)) {
             return null;
         }
@@ -1505,19 +1520,34 @@ public class DomElement extends DomNamespaceNode implements Element {
 
 /**
  * The {@link NamedNodeMap} to store the node attributes.
+ *
+ * <p>The names and values are stored in parallel arrays, as most elements have only a few attributes.
+ * The {@link DomAttr} nodes are only created when accessed (e.g. from JavaScript); until then only the
+ * value is stored.</p>
  */
 class NamedAttrNodeMapImpl implements Map<String, DomAttr>, NamedNodeMap, Serializable {
     protected static final NamedAttrNodeMapImpl EMPTY_MAP = new NamedAttrNodeMapImpl();
 
-    private final Map<String, DomAttr> map_ = new LinkedHashMap<>();
-    private final List<String> attrPositions_ = new ArrayList<>();
+    private static final String[] EMPTY_NAMES = new String[0];
+    private static final Object[] EMPTY_VALUES = new Object[0];
+
+    private String[] names_;
+    /** The attribute values: either a {@link DomAttr} or the value of a not yet created {@link DomAttr}. */
+    private Object[] values_;
+    private int size_;
     private final DomElement domNode_;
     private final boolean caseSensitive_;
 
     private NamedAttrNodeMapImpl() {
+        this(0);
+    }
+
+    private NamedAttrNodeMapImpl(final int capacity) {
         super();
         domNode_ = null;
         caseSensitive_ = true;
+        names_ = capacity == 0 ? EMPTY_NAMES : new String[capacity];
+        values_ = capacity == 0 ? EMPTY_VALUES : new Object[capacity];
     }
 
     NamedAttrNodeMapImpl(final DomElement domNode, final boolean caseSensitive) {
@@ -1527,12 +1557,255 @@ class NamedAttrNodeMapImpl implements Map<String, DomAttr>, NamedNodeMap, Serial
         }
         domNode_ = domNode;
         caseSensitive_ = caseSensitive;
+        names_ = EMPTY_NAMES;
+        values_ = EMPTY_VALUES;
     }
 
     NamedAttrNodeMapImpl(final DomElement domNode, final boolean caseSensitive,
             final Map<String, DomAttr> attributes) {
         this(domNode, caseSensitive);
-        putAll(attributes);
+        if (attributes instanceof NamedAttrNodeMapImpl) {
+            // don't create the attribute nodes
+            final NamedAttrNodeMapImpl other = (NamedAttrNodeMapImpl) attributes;
+            ensureCapacity(other.size_);
+            for (int i = 0; i < other.size_; i++) {
+                putInternal(fixName(other.names_[i]), other.values_[i]);
+            }
+        }
+        else {
+            ensureCapacity(attributes.size());
+            putAll(attributes);
+        }
+    }
+
+    /**
+     * Creates a map for the attributes of an element not yet created.
+     * @param page the page of the element
+     * @param capacity the number of attributes
+     * @return the new map
+     */
+    static NamedAttrNodeMapImpl forPage(final SgmlPage page, final int capacity) {
+        return new Detached(page, capacity);
+    }
+
+    /**
+     * The attributes of an element not yet created.
+     */
+    private static final class Detached extends NamedAttrNodeMapImpl {
+        private final SgmlPage page_;
+
+        Detached(final SgmlPage page, final int capacity) {
+            super(capacity);
+            page_ = page;
+        }
+
+        @Override
+        SgmlPage getAttributesPage() {
+            return page_;
+        }
+    }
+
+    /**
+     * Returns the page of the attribute nodes created on access.
+     * @return the page
+     */
+    SgmlPage getAttributesPage() {
+        if (domNode_ == null) {
+            return null;
+        }
+        return domNode_.getPage();
+    }
+
+    /**
+     * Returns a copy of this map for the specified element, with copies of the attribute nodes.
+     * @param domNode the element
+     * @return the copy
+     */
+    NamedAttrNodeMapImpl copy(final DomElement domNode) {
+        final NamedAttrNodeMapImpl copy = new NamedAttrNodeMapImpl(domNode, caseSensitive_);
+        copy.ensureCapacity(size_);
+        for (int i = 0; i < size_; i++) {
+            Object value = values_[i];
+            if (value instanceof DomAttr) {
+                final DomAttr attr = (DomAttr) ((DomAttr) value).cloneNode(true);
+                attr.setParentNode(domNode);
+                value = attr;
+            }
+            copy.names_[i] = names_[i];
+            copy.values_[i] = value;
+        }
+        copy.size_ = size_;
+        return copy;
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity > names_.length) {
+            names_ = Arrays.copyOf(names_, capacity);
+            values_ = Arrays.copyOf(values_, capacity);
+        }
+    }
+
+    private int indexOf(final String name) {
+        final String[] names = names_;
+        for (int i = 0; i < size_; i++) {
+            if (name.equals(names[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the attribute node at the specified position, creating it if needed.
+     */
+    private DomAttr getAttr(final int index) {
+        final Object value = values_[index];
+        if (value instanceof DomAttr) {
+            return (DomAttr) value;
+        }
+        final DomAttr attr = new DomAttr(getAttributesPage(), null, names_[index], (String) value, true);
+        if (domNode_ != null) {
+            attr.setParentNode(domNode_);
+        }
+        values_[index] = attr;
+        return attr;
+    }
+
+    private static String getValue(final Object value) {
+        if (value instanceof DomAttr) {
+            return ((DomAttr) value).getValue();
+        }
+        return (String) value;
+    }
+
+    /**
+     * Returns an attribute node for a value removed or replaced.
+     */
+    private DomAttr toAttr(final String name, final Object value) {
+        if (value == null || value instanceof DomAttr) {
+            return (DomAttr) value;
+        }
+        return new DomAttr(getAttributesPage(), null, name, (String) value, true);
+    }
+
+    /**
+     * Returns the name of the attribute at the specified position.
+     * @param index the position
+     * @return the name
+     */
+    String getNameAt(final int index) {
+        return names_[index];
+    }
+
+    /**
+     * Returns the value of the attribute at the specified position, without creating the attribute node.
+     * @param index the position
+     * @return the value
+     */
+    String getValueAt(final int index) {
+        return getValue(values_[index]);
+    }
+
+    /**
+     * Returns the attribute node at the specified position if it has already been created.
+     * @param index the position
+     * @return the attribute node or {@code null}
+     */
+    DomAttr getCreatedAttrAt(final int index) {
+        final Object value = values_[index];
+        if (value instanceof DomAttr) {
+            return (DomAttr) value;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the value of the attribute specified by name, without creating the attribute node.
+     * @param key the name of the attribute
+     * @return the value, or {@link DomElement#ATTRIBUTE_NOT_DEFINED} if there is no such attribute
+     */
+    String getValue(final String key) {
+        return getValueDirect(fixName(key));
+    }
+
+    /**
+     * Fast access to the value of the attribute specified by its already fixed name,
+     * without creating the attribute node.
+     * @param key the name of the attribute
+     * @return the value, or {@link DomElement#ATTRIBUTE_NOT_DEFINED} if there is no such attribute
+     */
+    String getValueDirect(final String key) {
+        final int index = indexOf(key);
+        if (index == -1) {
+            return DomElement.ATTRIBUTE_NOT_DEFINED;
+        }
+        return getValue(values_[index]);
+    }
+
+    /**
+     * Sets the value of the attribute specified by name (without namespace), without creating
+     * the attribute node.
+     * @param key the name of the attribute
+     * @param value the value
+     */
+    void putValue(final String key, final String value) {
+        if (value == null) {
+            put(key, new DomAttr(getAttributesPage(), null, key, null, true));
+            return;
+        }
+        checkModifiable();
+        putInternal(fixName(key), value.isEmpty() ? DomElement.ATTRIBUTE_VALUE_EMPTY : value);
+    }
+
+    /**
+     * Removes the attribute specified by name, without creating the attribute node.
+     * @param key the name of the attribute
+     */
+    void removeValue(final String key) {
+        checkModifiable();
+        removeInternal(fixName(key));
+    }
+
+    private Object putInternal(final String name, final Object value) {
+        final int index = indexOf(name);
+        final Object previous;
+        if (index == -1) {
+            if (size_ == names_.length) {
+                ensureCapacity(size_ < 2 ? size_ + 2 : size_ + (size_ >> 1));
+            }
+            names_[size_] = StringInterner.internName(name);
+            values_[size_] = value;
+            size_++;
+            previous = null;
+        }
+        else {
+            previous = values_[index];
+            values_[index] = value;
+        }
+        if ("class".equals(name)) {
+            classChanged(previous, value);
+        }
+        return previous;
+    }
+
+    private Object removeInternal(final String name) {
+        final int index = indexOf(name);
+        if (index == -1) {
+            return null;
+        }
+        final Object previous = values_[index];
+        final int moved = size_ - index - 1;
+        if (moved > 0) {
+            System.arraycopy(names_, index + 1, names_, index, moved);
+            System.arraycopy(values_, index + 1, values_, index, moved);
+        }
+        size_--;
+        names_[size_] = null;
+        values_[size_] = null;
+        if ("class".equals(name)) {
+            classChanged(previous, null);
+        }
+        return previous;
     }
 
     /**
@@ -1574,10 +1847,10 @@ class NamedAttrNodeMapImpl implements Map<String, DomAttr>, NamedNodeMap, Serial
      */
     @Override
     public Node item(final int index) {
-        if (index < 0 || index >= attrPositions_.size()) {
+        if (index < 0 || index >= size_) {
             return null;
         }
-        return map_.get(attrPositions_.get(index));
+        return getAttr(index);
     }
 
     /**
@@ -1620,12 +1893,9 @@ class NamedAttrNodeMapImpl implements Map<String, DomAttr>, NamedNodeMap, Serial
      */
     @Override
     public DomAttr put(final String key, final DomAttr value) {
+        checkModifiable();
         final String name = fixName(key);
-        final DomAttr previous = map_.put(name, value);
-        if (null == previous) {
-            attrPositions_.add(name);
-        }
-        return previous;
+        return toAttr(name, putInternal(name, value));
     }
 
     /**
@@ -1633,21 +1903,48 @@ class NamedAttrNodeMapImpl implements Map<String, DomAttr>, NamedNodeMap, Serial
      */
     @Override
     public DomAttr remove(final Object key) {
+        checkModifiable();
         if (key instanceof String) {
             final String name = fixName((String) key);
-            attrPositions_.remove(name);
-            return map_.remove(name);
+            return toAttr(name, removeInternal(name));
         }
         return null;
     }
 
+    private void checkModifiable() {
+        if (domNode_ != null) {
+            domNode_.checkPageModifiable();
+        }
+    }
+
+    /**
+     * Keeps the class index of the page up to date.
+     */
+    private void classChanged(final Object oldValue, final Object newValue) {
+        if (domNode_ != null && domNode_.isAttachedToPage()) {
+            final SgmlPage page = domNode_.getPage();
+            if (page instanceof HtmlPage) {
+                ((HtmlPage) page).notifyClassChanged(domNode_,
+                        oldValue == null ? DomElement.ATTRIBUTE_NOT_DEFINED : getValue(oldValue),
+                        newValue == null ? DomElement.ATTRIBUTE_NOT_DEFINED : getValue(newValue));
+            }
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void clear() {
-        attrPositions_.clear();
-        map_.clear();
+        checkModifiable();
+        final int classIndex = indexOf("class");
+        final Object previousClass = classIndex == -1 ? null : values_[classIndex];
+        Arrays.fill(names_, 0, size_, null);
+        Arrays.fill(values_, 0, size_, null);
+        size_ = 0;
+        if (previousClass != null) {
+            classChanged(previousClass, null);
+        }
     }
 
     /**
@@ -1667,8 +1964,7 @@ class NamedAttrNodeMapImpl implements Map<String, DomAttr>, NamedNodeMap, Serial
     @Override
     public boolean containsKey(final Object key) {
         if (key instanceof String) {
-            final String name = fixName((String) key);
-            return map_.containsKey(name);
+            return indexOf(fixName((String) key)) != -1;
         }
         return false;
     }
@@ -1679,34 +1975,50 @@ class NamedAttrNodeMapImpl implements Map<String, DomAttr>, NamedNodeMap, Serial
     @Override
     public DomAttr get(final Object key) {
         if (key instanceof String) {
-            final String name = fixName((String) key);
-            return map_.get(name);
+            final int index = indexOf(fixName((String) key));
+            if (index != -1) {
+                return getAttr(index);
+            }
         }
         return null;
     }
 
-    /**
-     * Fast access.
-     * @param the key
-     */
-    protected DomAttr getDirect(final String key) {
-        return map_.get(key);
-    }
-
     /**
      * {@inheritDoc}
      */
     @Override
     public boolean containsValue(final Object value) {
-        return map_.containsValue(value);
+        if (value instanceof DomAttr) {
+            for (int i = 0; i < size_; i++) {
+                if (value.equals(values_[i])) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public Set<java.util.Map.Entry<String, DomAttr>> entrySet() {
-        return map_.entrySet();
+    public Set<Map.Entry<String, DomAttr>> entrySet() {
+        return new AbstractSet<Map.Entry<String, DomAttr>>() {
+            @Override
+            public Iterator<Map.Entry<String, DomAttr>> iterator() {
+                return new AttributesIterator<Map.Entry<String, DomAttr>>() {
+                    @Override
+                    Map.Entry<String, DomAttr> get(final int index) {
+                        return new AttributeEntry(names_[index], getAttr(index));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size_;
+            }
+        };
     }
 
     /**
@@ -1714,7 +2026,7 @@ class NamedAttrNodeMapImpl implements Map<String, DomAttr>, NamedNodeMap, Serial
      */
     @Override
     public boolean isEmpty() {
-        return map_.isEmpty();
+        return size_ == 0;
     }
 
     /**
@@ -1722,7 +2034,27 @@ class NamedAttrNodeMapImpl implements Map<String, DomAttr>, NamedNodeMap, Serial
      */
     @Override
     public Set<String> keySet() {
-        return map_.keySet();
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new AttributesIterator<String>() {
+                    @Override
+                    String get(final int index) {
+                        return names_[index];
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(final Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public int size() {
+                return size_;
+            }
+        };
     }
 
     /**
@@ -1730,7 +2062,7 @@ class NamedAttrNodeMapImpl implements Map<String, DomAttr>, NamedNodeMap, Serial
      */
     @Override
     public int size() {
-        return map_.size();
+        return size_;
     }
 
     /**
@@ -1738,7 +2070,87 @@ class NamedAttrNodeMapImpl implements Map<String, DomAttr>, NamedNodeMap, Serial
      */
     @Override
     public Collection<DomAttr> values() {
-        return map_.values();
+        return new AbstractCollection<DomAttr>() {
+            @Override
+            public Iterator<DomAttr> iterator() {
+                return new AttributesIterator<DomAttr>() {
+                    @Override
+                    DomAttr get(final int index) {
+                        return getAttr(index);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size_;
+            }
+        };
     }
 
+    /**
+     * Iterator over the attributes, in order.
+     * @param <T> the type of the elements
+     */
+    private abstract class AttributesIterator<T> implements Iterator<T> {
+        private int next_;
+        private int last_ = -1;
+
+        @Override
+        public boolean hasNext() {
+            return next_ < size_;
+        }
+
+        @Override
+        public T next() {
+            if (next_ >= size_) {
+                throw new NoSuchElementException();
+            }
+            last_ = next_++;
+            return get(last_);
+        }
+
+        @Override
+        public void remove() {
+            if (last_ == -1) {
+                throw new IllegalStateException();
+            }
+            NamedAttrNodeMapImpl.this.remove(names_[last_]);
+            next_ = last_;
+            last_ = -1;
+        }
+
+        abstract T get(int index);
+    }
+
+    /**
+     * An entry of the attributes map, writing through.
+     */
+    private final class AttributeEntry implements Map.Entry<String, DomAttr> {
+        private final String name_;
+        private DomAttr value_;
+
+        AttributeEntry(final String name, final DomAttr value) {
+            name_ = name;
+            value_ = value;
+        }
+
+        @Override
+        public String getKey() {
+            return name_;
+        }
+
+        @Override
+        public DomAttr getValue() {
+            return value_;
+        }
+
+        @Override
+        public DomAttr setValue(final DomAttr value) {
+            final DomAttr previous = value_;
+            put(name_, value);
+            value_ = value;
+            return previous;
+        }
+    }
 }
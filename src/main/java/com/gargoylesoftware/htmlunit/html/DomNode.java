@@ -18,11 +18,15 @@ import static com.gargoylesoftware.htmlunit.BrowserVersionFeatures.DOM_NORMALIZE
 import static com.gargoylesoftware.htmlunit.BrowserVersionFeatures.QUERYSELECTORALL_NOT_IN_QUIRKS;
 import static com.gargoylesoftware.htmlunit.BrowserVersionFeatures.XPATH_SELECTION_NAMESPACES;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.Serializable;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -119,6 +123,12 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
     /** The name of the "element" property. Used when watching property change events. */
     public static final String PROPERTY_ELEMENT = "element";
 
+    /** Flag: the page is one ancestor of the node, see {@link #isAttachedToPage()}. */
+    private static final byte ATTACHED_TO_PAGE = 1;
+
+    /** Flag: the HTML parser has processed the start tag of the node but not yet its end tag. */
+    private static final byte OPEN_IN_PARSER = 2;
+
     /** The owning page of this node. */
     private SgmlPage page_;
 
@@ -145,50 +155,81 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      */
     private Object scriptObject_;
 
-    /** The ready state is is an IE-only value that is available to a large number of elements. */
-    private String readyState_;
-
     /**
-     * The line number in the source page where the DOM node starts.
+     * The line and column numbers in the source page where the DOM node starts and ends,
+     * {@code null} if they have not been recorded.
      */
-    private int startLineNumber_ = -1;
+    private int[] sourcePositions_;
 
-    /**
-     * The column number in the source page where the DOM node starts.
-     */
-    private int startColumnNumber_ = -1;
+    /** Combination of {@link #ATTACHED_TO_PAGE} and {@link #OPEN_IN_PARSER}. */
+    private byte flags_;
 
-    /**
-     * The line number in the source page where the DOM node ends.
-     */
-    private int endLineNumber_ = -1;
+    /** The number of times nodes have been added to or removed from the subtree rooted at this node. */
+    private int modificationCount_;
+
+    /** The rarely used state of this node, allocated on demand. */
+    private Extras extras_;
 
     /**
-     * The column number in the source page where the DOM node ends.
+     * The state only a few nodes have: listeners, user data and a ready state other than
+     * {@link #READY_STATE_LOADING}. The instance is the lock for the listeners.
      */
-    private int endColumnNumber_ = -1;
-
-    private boolean attachedToPage_;
+    private static final class Extras implements Serializable {
+        /** The ready state is is an IE-only value that is available to a large number of elements. */
+        private String readyState_;
 
-    private final Object listeners_lock_ = new Serializable() { };
+        /** The listeners which are to be notified of characterData change. */
+        private Collection<CharacterDataChangeListener> characterDataListeners_;
+        private List<CharacterDataChangeListener> characterDataListenersList_;
 
-    /** The listeners which are to be notified of characterData change. */
-    private Collection<CharacterDataChangeListener> characterDataListeners_;
-    private List<CharacterDataChangeListener> characterDataListenersList_;
+        private Collection<DomChangeListener> domListeners_;
+        private List<DomChangeListener> domListenersList_;
+        private Map<String, Object> userData_;
 
-    private Collection<DomChangeListener> domListeners_;
-    private List<DomChangeListener> domListenersList_;
-    private Map<String, Object> userData_;
+        /**
+         * Returns a copy, not sharing any collection with this instance.
+         */
+        synchronized Extras copy() {
+            final Extras copy = new Extras();
+            copy.readyState_ = readyState_;
+            if (characterDataListeners_ != null) {
+                copy.characterDataListeners_ = new LinkedHashSet<>(characterDataListeners_);
+            }
+            if (domListeners_ != null) {
+                copy.domListeners_ = new LinkedHashSet<>(domListeners_);
+            }
+            if (userData_ != null) {
+                copy.userData_ = new HashMap<>(userData_);
+            }
+            return copy;
+        }
+    }
 
     /**
      * Creates a new instance.
      * @param page the page which contains this node
      */
     protected DomNode(final SgmlPage page) {
-        readyState_ = READY_STATE_LOADING;
         page_ = page;
     }
 
+    /**
+     * Returns the rarely used state of this node, allocating it if needed.
+     */
+    private Extras getExtras() {
+        Extras extras = extras_;
+        if (extras == null) {
+            synchronized (this) {
+                extras = extras_;
+                if (extras == null) {
+                    extras = new Extras();
+                    extras_ = extras;
+                }
+            }
+        }
+        return extras;
+    }
+
     /**
      * Sets the line and column numbers in the source page where the DOM node starts.
      *
@@ -196,8 +237,11 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      * @param startColumnNumber the column number where the DOM node starts
      */
     void setStartLocation(final int startLineNumber, final int startColumnNumber) {
-        startLineNumber_ = startLineNumber;
-        startColumnNumber_ = startColumnNumber;
+        if (sourcePositions_ == null) {
+            sourcePositions_ = new int[] {-1, -1, -1, -1};
+        }
+        sourcePositions_[0] = startLineNumber;
+        sourcePositions_[1] = startColumnNumber;
     }
 
     /**
@@ -207,42 +251,56 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      * @param endColumnNumber the column number where the DOM node ends
      */
     void setEndLocation(final int endLineNumber, final int endColumnNumber) {
-        endLineNumber_ = endLineNumber;
-        endColumnNumber_ = endColumnNumber;
+        if (sourcePositions_ == null) {
+            sourcePositions_ = new int[] {-1, -1, -1, -1};
+        }
+        sourcePositions_[2] = endLineNumber;
+        sourcePositions_[3] = endColumnNumber;
+    }
+
+    private int getSourcePosition(final int index) {
+        final int[] sourcePositions = sourcePositions_;
+        if (sourcePositions == null) {
+            return -1;
+        }
+        return sourcePositions[index];
     }
 
     /**
      * Returns the line number in the source page where the DOM node starts.
-     * @return the line number in the source page where the DOM node starts
+     * @return the line number in the source page where the DOM node starts,
+     * -1 if no information on the line number is available
+     * @see com.gargoylesoftware.htmlunit.WebClientOptions#setRecordSourcePositions(boolean)
      */
     public int getStartLineNumber() {
-        return startLineNumber_;
+        return getSourcePosition(0);
     }
 
     /**
      * Returns the column number in the source page where the DOM node starts.
-     * @return the column number in the source page where the DOM node starts
+     * @return the column number in the source page where the DOM node starts,
+     * -1 if no information on the column number is available
      */
     public int getStartColumnNumber() {
-        return startColumnNumber_;
+        return getSourcePosition(1);
     }
 
     /**
      * Returns the line number in the source page where the DOM node ends.
-     * @return 0 if no information on the line number is available (for instance for nodes dynamically added),
-     * -1 if the end tag has not yet been parsed (during page loading)
+     * @return -1 if no information on the line number is available (for instance for nodes dynamically added)
+     * or if the end tag has not yet been parsed (during page loading)
      */
     public int getEndLineNumber() {
-        return endLineNumber_;
+        return getSourcePosition(2);
     }
 
     /**
      * Returns the column number in the source page where the DOM node ends.
-     * @return 0 if no information on the line number is available (for instance for nodes dynamically added),
-     * -1 if the end tag has not yet been parsed (during page loading)
+     * @return -1 if no information on the column number is available (for instance for nodes dynamically added)
+     * or if the end tag has not yet been parsed (during page loading)
      */
     public int getEndColumnNumber() {
-        return endColumnNumber_;
+        return getSourcePosition(3);
     }
 
     /**
@@ -674,11 +732,16 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      */
     @Override
     public Object getUserData(final String key) {
-        Object value = null;
-        if (userData_ != null) {
-            value = userData_.get(key);
+        final Extras extras = extras_;
+        if (extras == null) {
+            return null;
+        }
+        synchronized (extras) {
+            if (extras.userData_ == null) {
+                return null;
+            }
+            return extras.userData_.get(key);
         }
-        return value;
     }
 
     /**
@@ -686,10 +749,13 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      */
     @Override
     public Object setUserData(final String key, final Object data, final UserDataHandler handler) {
-        if (userData_ == null) {
-            userData_ = new HashMap<>();
+        final Extras extras = getExtras();
+        synchronized (extras) {
+            if (extras.userData_ == null) {
+                extras.userData_ = new HashMap<>();
+            }
+            return extras.userData_.put(key, data);
         }
-        return userData_.put(key, data);
     }
 
     /**
@@ -814,24 +880,59 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      * @return the XML string
      */
     public String asXml() {
+        final StringWriter stringWriter = new StringWriter();
+        try {
+            asXml(stringWriter);
+        }
+        catch (final IOException e) {
+            // StringWriter doesn't throw
+            throw new IllegalStateException(e);
+        }
+        return stringWriter.toString();
+    }
+
+    /**
+     * Writes the XML document from this element and all it's children (recursively) to the specified writer,
+     * without building the whole document in memory first.
+     * The charset used in the XML declaration is the current page encoding.
+     * @param writer the writer to write to; it is flushed but not closed
+     * @throws IOException if writing fails
+     */
+    public void asXml(final Writer writer) throws IOException {
         Charset charsetName = null;
         final HtmlPage htmlPage = getHtmlPageOrNull();
         if (htmlPage != null) {
             charsetName = htmlPage.getCharset();
         }
 
-        final StringWriter stringWriter = new StringWriter();
-        try (PrintWriter printWriter = new PrintWriter(stringWriter)) {
-            if (charsetName != null && this instanceof HtmlHtml) {
-                printWriter.print("<?xml version=\"1.0\" encoding=\"");
-                printWriter.print(charsetName);
-                printWriter.print("\"?>\r\n");
-            }
-            printXml("", printWriter);
-            return stringWriter.toString();
+        final PrintWriter printWriter = new PrintWriter(writer);
+        if (charsetName != null && this instanceof HtmlHtml) {
+            printWriter.print("<?xml version=\"1.0\" encoding=\"");
+            printWriter.print(charsetName);
+            printWriter.print("\"?>\r\n");
+        }
+        printXml("", printWriter);
+        printWriter.flush();
+        // PrintWriter swallows the exceptions
+        if (printWriter.checkError()) {
+            throw new IOException("Failed to write the XML of " + this);
         }
     }
 
+    /**
+     * Writes the XML document from this element and all it's children (recursively) to the specified stream,
+     * without building the whole document in memory first.
+     * The charset used in the XML declaration is the current page encoding.
+     * @param outputStream the stream to write to; it is flushed but not closed
+     * @param charset the charset used to encode the characters
+     * @throws IOException if writing fails
+     */
+    public void asXml(final OutputStream outputStream, final Charset charset) throws IOException {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, charset));
+        asXml(writer);
+        writer.flush();
+    }
+
     /**
      * Recursively writes the XML data for the node tree starting at <code>node</code>.
      *
@@ -893,7 +994,13 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
         newnode.previousSibling_ = null;
         newnode.scriptObject_ = null;
         newnode.firstChild_ = null;
-        newnode.attachedToPage_ = false;
+        newnode.flags_ = 0;
+        if (sourcePositions_ != null) {
+            newnode.sourcePositions_ = sourcePositions_.clone();
+        }
+        if (extras_ != null) {
+            newnode.extras_ = extras_.copy();
+        }
 
         // if deep, clone the children too.
         if (deep) {
@@ -905,6 +1012,16 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
         return newnode;
     }
 
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Returns whether the JavaScript object of this node has already been created.
+     * @return whether {@link #getScriptableObject()} has already been called
+     */
+    public boolean hasScriptableObject() {
+        return scriptObject_ != null;
+    }
+
     /**
      * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
      *
@@ -986,6 +1103,7 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      * @param node the node to append to this node's children
      */
     private void basicAppend(final DomNode node) {
+        checkPageModifiable();
         node.setPage(getPage());
         if (firstChild_ == null) {
             firstChild_ = node;
@@ -1001,6 +1119,17 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
         node.parent_ = this;
     }
 
+    /**
+     * Throws an exception if this node belongs to the document of a read-only page.
+     * Detached nodes, e.g. clones, can always be modified.
+     * @throws DOMException NO_MODIFICATION_ALLOWED_ERR if the page is read-only
+     */
+    void checkPageModifiable() throws DOMException {
+        if (page_ instanceof HtmlPage && (isAttachedToPage() || page_ == this)) {
+            ((HtmlPage) page_).checkModifiable();
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -1058,6 +1187,7 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      * @param node the node to insert before this node
      */
     private void basicInsertBefore(final DomNode node) {
+        checkPageModifiable();
         node.setPage(page_);
         if (parent_.firstChild_ == this) {
             parent_.firstChild_ = node;
@@ -1073,19 +1203,24 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
 
     private void fireAddition(final DomNode domNode) {
         final boolean wasAlreadyAttached = domNode.isAttachedToPage();
-        domNode.attachedToPage_ = isAttachedToPage();
+        domNode.setAttachedToPage(isAttachedToPage());
 
+        boolean postponed = false;
         if (isAttachedToPage()) {
             // trigger events
             final Page page = getPage();
             if (null != page && page.isHtmlPage()) {
-                ((HtmlPage) page).notifyNodeAdded(domNode);
+                final HtmlPage htmlPage = (HtmlPage) page;
+                postponed = htmlPage.postponeNodeAdded(this, domNode);
+                if (!postponed) {
+                    htmlPage.notifyNodeAdded(domNode);
+                }
             }
 
             // a node that is already "complete" (ie not being parsed) and not yet attached
-            if (!domNode.isBodyParsed() && !wasAlreadyAttached) {
+            if (!domNode.isOpenInParser() && !wasAlreadyAttached) {
                 for (final DomNode child : domNode.getDescendants()) {
-                    child.attachedToPage_ = true;
+                    child.setAttachedToPage(true);
                     child.onAllChildrenAddedToPage(true);
                 }
                 domNode.onAllChildrenAddedToPage(true);
@@ -1096,15 +1231,39 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
             onAddedToDocumentFragment();
         }
 
-        fireNodeAdded(new DomChangeEvent(this, domNode));
+        if (!postponed) {
+            fireNodeAdded(new DomChangeEvent(this, domNode));
+        }
     }
 
     /**
      * Indicates if the current node is being parsed. This means that the opening tag has already been
      * parsed but not the body and end tag.
      */
-    private boolean isBodyParsed() {
-        return getStartLineNumber() != -1 && getEndLineNumber() == -1;
+    private boolean isOpenInParser() {
+        return (flags_ & OPEN_IN_PARSER) != 0;
+    }
+
+    /**
+     * Sets whether the HTML parser has processed the start tag of this node but not yet its end tag.
+     * @param open whether the node is open in the parser
+     */
+    void setOpenInParser(final boolean open) {
+        if (open) {
+            flags_ |= OPEN_IN_PARSER;
+        }
+        else {
+            flags_ &= ~OPEN_IN_PARSER;
+        }
+    }
+
+    private void setAttachedToPage(final boolean attached) {
+        if (attached) {
+            flags_ |= ATTACHED_TO_PAGE;
+        }
+        else {
+            flags_ &= ~ATTACHED_TO_PAGE;
+        }
     }
 
     /**
@@ -1169,6 +1328,13 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      * Cuts off all relationships this node has with siblings and parents.
      */
     protected void basicRemove() {
+        checkPageModifiable();
+
+        // nodes attached in bulk have to be known to the page before any of them gets moved
+        if (page_ instanceof HtmlPage) {
+            ((HtmlPage) page_).flushBulkAttach();
+        }
+
         if (parent_ != null && parent_.firstChild_ == this) {
             parent_.firstChild_ = nextSibling_;
         }
@@ -1185,9 +1351,9 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
         nextSibling_ = null;
         previousSibling_ = null;
         parent_ = null;
-        attachedToPage_ = false;
+        setAttachedToPage(false);
         for (DomNode descendant : getDescendants()) {
-            descendant.attachedToPage_ = false;
+            descendant.setAttachedToPage(false);
         }
     }
 
@@ -1511,7 +1677,11 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      * @return this node's ready state
      */
     public String getReadyState() {
-        return readyState_;
+        final Extras extras = extras_;
+        if (extras == null || extras.readyState_ == null) {
+            return READY_STATE_LOADING;
+        }
+        return extras.readyState_;
     }
 
     /**
@@ -1519,7 +1689,10 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      * @param state this node's ready state
      */
     public void setReadyState(final String state) {
-        readyState_ = state;
+        if (extras_ == null && READY_STATE_LOADING.equals(state)) {
+            return;
+        }
+        getExtras().readyState_ = state;
     }
 
     /**
@@ -1679,14 +1852,33 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      * @see #removeDomChangeListener(DomChangeListener)
      */
     public void addDomChangeListener(final DomChangeListener listener) {
+        addDomChangeListener(listener, true);
+    }
+
+    /**
+     * Adds a {@link DomChangeListener} to the listener list.
+     *
+     * @param listener the DOM structure change listener to be added
+     * @param perNodeEvents whether the listener expects one event per added node; if not, the listener
+     *        may get a single event for a whole subtree attached by the HTML parser
+     */
+    void addDomChangeListener(final DomChangeListener listener, final boolean perNodeEvents) {
         WebAssert.notNull("listener", listener);
 
-        synchronized (listeners_lock_) {
-            if (domListeners_ == null) {
-                domListeners_ = new LinkedHashSet<>();
+        final Extras extras = getExtras();
+        synchronized (extras) {
+            if (extras.domListeners_ == null) {
+                extras.domListeners_ = new LinkedHashSet<>();
+            }
+            extras.domListeners_.add(listener);
+            extras.domListenersList_ = null;
+        }
+
+        if (perNodeEvents) {
+            final SgmlPage page = this instanceof SgmlPage ? (SgmlPage) this : page_;
+            if (page instanceof HtmlPage) {
+                ((HtmlPage) page).perNodeDomChangeListenerAdded();
             }
-            domListeners_.add(listener);
-            domListenersList_ = null;
         }
     }
 
@@ -1700,10 +1892,14 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
     public void removeDomChangeListener(final DomChangeListener listener) {
         WebAssert.notNull("listener", listener);
 
-        synchronized (listeners_lock_) {
-            if (domListeners_ != null) {
-                domListeners_.remove(listener);
-                domListenersList_ = null;
+        final Extras extras = extras_;
+        if (extras == null) {
+            return;
+        }
+        synchronized (extras) {
+            if (extras.domListeners_ != null) {
+                extras.domListeners_.remove(listener);
+                extras.domListenersList_ = null;
             }
         }
     }
@@ -1717,6 +1913,7 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      * @param event the DomChangeEvent to be propagated
      */
     protected void fireNodeAdded(final DomChangeEvent event) {
+        modificationCount_++;
         final List<DomChangeListener> listeners = safeGetDomListeners();
         if (listeners != null) {
             for (final DomChangeListener listener : listeners) {
@@ -1738,12 +1935,13 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
     public void addCharacterDataChangeListener(final CharacterDataChangeListener listener) {
         WebAssert.notNull("listener", listener);
 
-        synchronized (listeners_lock_) {
-            if (characterDataListeners_ == null) {
-                characterDataListeners_ = new LinkedHashSet<>();
+        final Extras extras = getExtras();
+        synchronized (extras) {
+            if (extras.characterDataListeners_ == null) {
+                extras.characterDataListeners_ = new LinkedHashSet<>();
             }
-            characterDataListeners_.add(listener);
-            characterDataListenersList_ = null;
+            extras.characterDataListeners_.add(listener);
+            extras.characterDataListenersList_ = null;
         }
     }
 
@@ -1757,10 +1955,14 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
     public void removeCharacterDataChangeListener(final CharacterDataChangeListener listener) {
         WebAssert.notNull("listener", listener);
 
-        synchronized (listeners_lock_) {
-            if (characterDataListeners_ != null) {
-                characterDataListeners_.remove(listener);
-                characterDataListenersList_ = null;
+        final Extras extras = extras_;
+        if (extras == null) {
+            return;
+        }
+        synchronized (extras) {
+            if (extras.characterDataListeners_ != null) {
+                extras.characterDataListeners_.remove(listener);
+                extras.characterDataListenersList_ = null;
             }
         }
     }
@@ -1793,6 +1995,7 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      * @param event the DomChangeEvent to be propagated
      */
     protected void fireNodeDeleted(final DomChangeEvent event) {
+        modificationCount_++;
         final List<DomChangeListener> listeners = safeGetDomListeners();
         if (listeners != null) {
             for (final DomChangeListener listener : listeners) {
@@ -1805,26 +2008,34 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
     }
 
     private List<DomChangeListener> safeGetDomListeners() {
-        synchronized (listeners_lock_) {
-            if (domListeners_ == null) {
+        final Extras extras = extras_;
+        if (extras == null) {
+            return null;
+        }
+        synchronized (extras) {
+            if (extras.domListeners_ == null) {
                 return null;
             }
-            if (domListenersList_ == null) {
-                domListenersList_ = new ArrayList<>(domListeners_);
+            if (extras.domListenersList_ == null) {
+                extras.domListenersList_ = new ArrayList<>(extras.domListeners_);
             }
-            return domListenersList_;
+            return extras.domListenersList_;
         }
     }
 
     private List<CharacterDataChangeListener> safeGetCharacterDataListeners() {
-        synchronized (listeners_lock_) {
-            if (characterDataListeners_ == null) {
+        final Extras extras = extras_;
+        if (extras == null) {
+            return null;
+        }
+        synchronized (extras) {
+            if (extras.characterDataListeners_ == null) {
                 return null;
             }
-            if (characterDataListenersList_ == null) {
-                characterDataListenersList_ = new ArrayList<>(characterDataListeners_);
+            if (extras.characterDataListenersList_ == null) {
+                extras.characterDataListenersList_ = new ArrayList<>(extras.characterDataListeners_);
             }
-            return characterDataListenersList_;
+            return extras.characterDataListenersList_;
         }
     }
 
@@ -1841,7 +2052,7 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
 
             final List<DomNode> elements = new ArrayList<>();
             if (selectorList != null) {
-                for (final DomElement child : getDomElementDescendants()) {
+                for (final DomElement child : getSelectorCandidates(selectorList)) {
                     for (Selector selector : selectorList) {
                         if (CSSStyleSheet.selects(browserVersion, selector, child, null, true)) {
                             elements.add(child);
@@ -1857,6 +2068,28 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
         }
     }
 
+    /**
+     * Evaluates all queries of the specified batch from this node. The CSS selectors are matched
+     * during a single traversal of the descendants of this node, the XPath expressions are
+     * evaluated one after the other.
+     * @param batch the queries
+     * @return the results, one list per query in the order the queries were added to the batch
+     * @see QueryBatch
+     */
+    public List<List<?>> query(final QueryBatch batch) {
+        return batch.execute(this);
+    }
+
+    /**
+     * Returns the elements to be checked by {@link #querySelectorAll(String)}, in document order.
+     * These are all descendant elements by default.
+     * @param selectorList the selectors
+     * @return the candidates
+     */
+    protected Iterable<DomElement> getSelectorCandidates(final SelectorList selectorList) {
+        return getDomElementDescendants();
+    }
+
     /**
      * Returns the {@link SelectorList}.
      * @param selectors the selectors
@@ -1866,6 +2099,20 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      */
     protected SelectorList getSelectorList(final String selectors, final BrowserVersion browserVersion)
             throws IOException {
+        final SelectorList selectorList = parseSelectors(selectors);
+        if (selectorList != null) {
+            validateSelectors(selectorList, browserVersion);
+        }
+        return selectorList;
+    }
+
+    /**
+     * Parses the specified selectors without validating them against a document.
+     * @param selectors the selectors
+     * @return the {@link SelectorList}
+     * @throws IOException if an error occurs
+     */
+    static SelectorList parseSelectors(final String selectors) throws IOException {
         final CSSOMParser parser = new CSSOMParser(new CSS3Parser());
         final CheckErrorHandler errorHandler = new CheckErrorHandler();
         parser.setErrorHandler(errorHandler);
@@ -1875,19 +2122,23 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
         if (errorHandler.errorDetected()) {
             throw new CSSException("Invalid selectors: " + selectors);
         }
+        return selectorList;
+    }
 
-        if (selectorList != null) {
-            int documentMode = 9;
-            if (browserVersion.hasFeature(QUERYSELECTORALL_NOT_IN_QUIRKS)) {
-                final Object sobj = getPage().getScriptableObject();
-                if (sobj instanceof HTMLDocument) {
-                    documentMode = ((HTMLDocument) sobj).getDocumentMode();
-                }
+    /**
+     * Checks that the specified selectors are supported by the document mode of this node's page.
+     * @param selectorList the selectors
+     * @param browserVersion the {@link BrowserVersion}
+     */
+    void validateSelectors(final SelectorList selectorList, final BrowserVersion browserVersion) {
+        int documentMode = 9;
+        if (browserVersion.hasFeature(QUERYSELECTORALL_NOT_IN_QUIRKS)) {
+            final Object sobj = getPage().getScriptableObject();
+            if (sobj instanceof HTMLDocument) {
+                documentMode = ((HTMLDocument) sobj).getDocumentMode();
             }
-            CSSStyleSheet.validateSelectors(selectorList, documentMode, this);
-
         }
-        return selectorList;
+        CSSStyleSheet.validateSelectors(selectorList, documentMode, this);
     }
 
     /**
@@ -1905,6 +2156,18 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
         return null;
     }
 
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Returns the number of times nodes have been added to or removed from the subtree rooted at this node.
+     * Data derived from the subtree (like the content of a live collection) is still valid as long as
+     * this count is unchanged.
+     * @return the modification count
+     */
+    public int getModificationCount() {
+        return modificationCount_;
+    }
+
     /**
      * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
      *
@@ -1912,7 +2175,7 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      * @return {@code true} if the page is one ancestor of the node.
      */
     public boolean isAttachedToPage() {
-        return attachedToPage_;
+        return (flags_ & ATTACHED_TO_PAGE) != 0;
     }
 
     /**
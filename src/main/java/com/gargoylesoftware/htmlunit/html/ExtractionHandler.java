@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2002-2018 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.html;
+
+import com.gargoylesoftware.htmlunit.WebResponse;
+import com.gargoylesoftware.htmlunit.WebWindow;
+
+/**
+ * Receives the elements of interest while a page is parsed by
+ * {@link HTMLParser#extractStaticHtml(WebResponse, WebWindow, ExtractionHandler...)}.
+ * <p>
+ * Every element is offered to {@link #matches(DomElement)} once its start tag is parsed; at this
+ * point the element has its attributes and its ancestors but neither children nor following
+ * siblings. The subtree of a matching element is kept until its end tag is parsed, then it is
+ * passed to {@link #elementParsed(DomElement)}. Everything not inside a matching element is
+ * discarded as soon as it is closed.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public interface ExtractionHandler {
+
+    /**
+     * Returns whether the specified element, which has just been opened, is needed.
+     * @param element the element
+     * @return {@code true} to receive the complete element once parsed
+     */
+    boolean matches(DomElement element);
+
+    /**
+     * Called when a matching element has been completely parsed. The element is removed from
+     * the page afterwards; use {@link DomNode#cloneNode(boolean)} to keep it.
+     * @param element the element, with all its descendants
+     */
+    void elementParsed(DomElement element);
+}
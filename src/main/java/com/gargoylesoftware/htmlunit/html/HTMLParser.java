@@ -31,8 +31,10 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -105,6 +107,11 @@ public final class HTMLParser {
 
     private static final Map<String, ElementFactory> ELEMENT_FACTORIES = new HashMap<>();
 
+    /** The start tags (or their beginnings) of the elements preventing a snippet from being cached. */
+    private static final String[] NOT_CACHEABLE_TAGS = {HtmlScript.TAG_NAME, HtmlForm.TAG_NAME, HtmlTemplate.TAG_NAME,
+        HtmlFrame.TAG_NAME, HtmlInlineFrame.TAG_NAME, HtmlObject.TAG_NAME, HtmlApplet.TAG_NAME, HtmlLink.TAG_NAME,
+        HtmlIsIndex.TAG_NAME};
+
     static {
         ELEMENT_FACTORIES.put(HtmlInput.TAG_NAME, InputElementFactory.instance);
 
@@ -149,10 +156,39 @@ public final class HTMLParser {
             return;
         }
         final HtmlPage htmlPage = (HtmlPage) page;
+
+        final Map<List<String>, DomDocumentFragment> cache = htmlPage.getFragmentCache();
+        if (cache != null && parent == context && isCacheableContext(parent)
+                && htmlPage.getWebClient().getHTMLParserListener() == null) {
+            final List<String> key = Arrays.asList(getContextKey(parent), source);
+            if (!cache.containsKey(key)) {
+                if (mayBeCacheable(source)) {
+                    final DomDocumentFragment fragment = htmlPage.createDocumentFragment();
+                    parseFragment(fragment, parent, source, htmlPage);
+                    cache.put(key, isCacheable(fragment) ? (DomDocumentFragment) fragment.cloneNode(true) : null);
+                    parent.appendChild(fragment);
+                    return;
+                }
+                cache.put(key, null);
+            }
+            else {
+                final DomDocumentFragment template = cache.get(key);
+                if (template != null) {
+                    parent.appendChild(template.cloneNode(true));
+                    return;
+                }
+            }
+        }
+
+        parseFragment(parent, context, source, htmlPage);
+    }
+
+    private static void parseFragment(final DomNode parent, final DomNode context, final String source,
+            final HtmlPage htmlPage) throws SAXException, IOException {
         final URL url = htmlPage.getUrl();
 
         final HtmlUnitDOMBuilder domBuilder = new HtmlUnitDOMBuilder(parent, url, source);
-        domBuilder.setFeature("http://cyberneko.org/html/features/balance-tags/document-fragment", true);
+        domBuilder.setFeature(HtmlUnitDOMBuilder.FEATURE_DOCUMENT_FRAGMENT, true);
         // build fragment context stack
         DomNode node = context;
         final List<QName> ancestors = new ArrayList<>();
@@ -183,6 +219,69 @@ public final class HTMLParser {
         }
     }
 
+    /**
+     * Returns whether the parsing of a snippet for the specified parent does not depend on the parent
+     * itself but only on the names of the context nodes. Text and table parts are placed depending
+     * on the enclosing table elements, therefore no table context is cached.
+     */
+    private static boolean isCacheableContext(final DomNode parent) {
+        if (!(parent instanceof HtmlElement) || parent instanceof HtmlHtml || parent instanceof HtmlImage) {
+            return false;
+        }
+        for (DomNode node = parent; node != null; node = node.getParentNode()) {
+            if (node instanceof HtmlTable || node instanceof HtmlTableRow || node instanceof HtmlTableCell
+                    || node instanceof HtmlTableBody || node instanceof HtmlTableHeader
+                    || node instanceof HtmlTableFooter || node instanceof HtmlCaption
+                    || node instanceof HtmlTableColumnGroup) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String getContextKey(final DomNode parent) {
+        final StringBuilder key = new StringBuilder();
+        for (DomNode node = parent; node != null && node.getNodeType() != Node.DOCUMENT_NODE;
+                node = node.getParentNode()) {
+            key.append(node.getNodeName()).append(' ');
+        }
+        return key.toString();
+    }
+
+    /**
+     * Returns whether the specified markup may produce a cacheable snippet, i.e. does not contain the
+     * start tag of an element rejected by {@link #isCacheable(DomDocumentFragment)}. The other snippets
+     * are parsed directly into their parent, as without cache.
+     */
+    private static boolean mayBeCacheable(final String source) {
+        int index = source.indexOf('<');
+        while (index != -1) {
+            for (final String tag : NOT_CACHEABLE_TAGS) {
+                if (source.regionMatches(true, index + 1, tag, 0, tag.length())) {
+                    return false;
+                }
+            }
+            index = source.indexOf('<', index + 1);
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the nodes of a parsed snippet can simply be copied when the same markup is
+     * parsed again; elements with side effects when added to the page or referring to other
+     * nodes are not.
+     */
+    private static boolean isCacheable(final DomDocumentFragment fragment) {
+        for (final DomNode node : fragment.getDescendants()) {
+            if (node instanceof ScriptElement || node instanceof HtmlForm || node instanceof HtmlTemplate
+                    || node instanceof BaseFrameElement || node instanceof HtmlObject
+                    || node instanceof HtmlApplet || node instanceof HtmlLink) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Parses the HTML content from the specified <tt>WebResponse</tt> into an object tree representation.
      *
@@ -197,6 +296,51 @@ public final class HTMLParser {
         return page;
     }
 
+    /**
+     * Parses the HTML content from the specified <tt>WebResponse</tt> into a static page, for content
+     * extraction only. Whatever the options of the web client, no JavaScript is executed (and
+     * <tt>noscript</tt> content is parsed), neither style sheets nor frames are loaded and no events
+     * are fired. Once parsed, the page is read-only but supports XPath, selectors and text extraction
+     * like any other page.
+     *
+     * @param webResponse the response data
+     * @param webWindow the web window into which the page is to be loaded
+     * @return the page object which is the root of the DOM tree
+     * @throws IOException if there is an IO error
+     * @see HtmlPage#isStatic()
+     */
+    public static HtmlPage parseStaticHtml(final WebResponse webResponse, final WebWindow webWindow)
+        throws IOException {
+        final HtmlPage page = new HtmlPage(webResponse, webWindow);
+        page.setStatic();
+        parse(webResponse, webWindow, page, false);
+        page.setReadOnly();
+        return page;
+    }
+
+    /**
+     * Parses the HTML content from the specified <tt>WebResponse</tt> in static mode (like
+     * {@link #parseStaticHtml(WebResponse, WebWindow)}) without retaining the DOM tree.
+     * The elements are offered to the handlers while being parsed; only the subtrees of the
+     * matching elements are built completely, everything else is discarded as soon as it is closed.
+     * This allows the processing of huge documents with a memory footprint depending on the
+     * size of the extracted elements only.
+     * <p>
+     * The page created for the parsing is not set as enclosed page of the window.
+     *
+     * @param webResponse the response data
+     * @param webWindow the web window the page is parsed for
+     * @param handlers the handlers receiving the elements
+     * @throws IOException if there is an IO error
+     * @see ExtractionHandler
+     */
+    public static void extractStaticHtml(final WebResponse webResponse, final WebWindow webWindow,
+            final ExtractionHandler... handlers) throws IOException {
+        final HtmlPage page = new HtmlPage(webResponse, webWindow);
+        page.setStatic();
+        parse(webResponse, webWindow, page, false, handlers);
+    }
+
     /**
      * Parses the XHTML content from the specified <tt>WebResponse</tt> into an object tree representation.
      *
@@ -216,9 +360,16 @@ public final class HTMLParser {
         throws IOException {
 
         webWindow.setEnclosedPage(page);
+        parse(webResponse, webWindow, page, xhtml, null);
+    }
+
+    private static void parse(final WebResponse webResponse, final WebWindow webWindow, final HtmlPage page,
+            final boolean xhtml, final ExtractionHandler[] handlers)
+        throws IOException {
 
         final URL url = webResponse.getWebRequest().getUrl();
         final HtmlUnitDOMBuilder domBuilder = new HtmlUnitDOMBuilder(page, url, null);
+        domBuilder.extractionHandlers_ = handlers;
 
         Charset charset = webResponse.getContentCharsetOrNull();
         try {
@@ -257,9 +408,14 @@ public final class HTMLParser {
         }
         finally {
             page.registerParsingEnd();
+            // parsing has stopped before the end of a body read on demand if it failed
+            webResponse.abortDownload();
         }
 
-        addBodyToPageIfNecessary(page, true, domBuilder.body_ != null);
+        // the body has been discarded with its children in extraction mode
+        if (handlers == null) {
+            addBodyToPageIfNecessary(page, true, domBuilder.body_ != null);
+        }
     }
 
     /**
@@ -400,6 +556,7 @@ public final class HTMLParser {
         private enum HeadParsed { YES, SYNTHESIZED, NO }
 
         private final HtmlPage page_;
+        private final boolean recordSourcePositions_;
 
         private Locator locator_;
         private final Deque<DomNode> stack_ = new ArrayDeque<>();
@@ -415,9 +572,15 @@ public final class HTMLParser {
         private HtmlForm formWaitingForLostChildren_;
         private boolean insideSvg_;
 
+        /** The handlers if parsing for extraction only, the open matching elements and their handlers. */
+        private ExtractionHandler[] extractionHandlers_;
+        private final Map<DomNode, List<ExtractionHandler>> extractionMatches_ = new IdentityHashMap<>();
+
         private static final String FEATURE_AUGMENTATIONS = "http://cyberneko.org/html/features/augmentations";
         private static final String FEATURE_PARSE_NOSCRIPT
             = "http://cyberneko.org/html/features/parse-noscript-content";
+        private static final String FEATURE_DOCUMENT_FRAGMENT
+            = "http://cyberneko.org/html/features/balance-tags/document-fragment";
 
         /**
          * Parses and then inserts the specified HTML content into the HTML content currently being parsed.
@@ -434,6 +597,8 @@ public final class HTMLParser {
                 ((HTMLConfiguration) fConfiguration).evaluateInputSource(in);
             }
             finally {
+                // the script calling document.write() may access the new nodes
+                page_.flushBulkAttach();
                 page_.registerParsingEnd();
                 page_.registerInlineSnippetParsingEnd();
             }
@@ -445,7 +610,7 @@ public final class HTMLParser {
          * @param url the page's URL
          */
         private HtmlUnitDOMBuilder(final DomNode node, final URL url, final String htmlContent) {
-            super(createConfiguration(node.getPage().getWebClient().getBrowserVersion()));
+            super(getConfiguration((HtmlPage) node.getPage()));
 
             page_ = (HtmlPage) node.getPage();
 
@@ -455,20 +620,32 @@ public final class HTMLParser {
             }
 
             final WebClient webClient = page_.getWebClient();
+            recordSourcePositions_ = webClient.getOptions().isRecordSourcePositions() && !page_.isStatic();
+
             final HTMLParserListener listener = webClient.getHTMLParserListener();
             final boolean reportErrors = listener != null;
             if (reportErrors) {
                 fConfiguration.setErrorHandler(new HTMLErrorHandler(listener, url, htmlContent));
             }
+            else {
+                fConfiguration.setErrorHandler(null);
+            }
 
             try {
+                // the configuration might have been used before, reset what is set for some parsing only
+                setFeature(FEATURE_DOCUMENT_FRAGMENT, false);
+                setFeature(HTMLScanner.ALLOW_SELFCLOSING_TAGS, false);
+                setFeature(HTMLScanner.IGNORE_SPECIFIED_CHARSET, false);
+                setProperty(HTMLTagBalancer.FRAGMENT_CONTEXT_STACK, null);
+
                 setFeature(FEATURE_AUGMENTATIONS, true);
                 setProperty("http://cyberneko.org/html/properties/names/elems", "default");
                 if (!webClient.getBrowserVersion().hasFeature(HTML_ATTRIBUTE_LOWER_CASE)) {
                     setProperty("http://cyberneko.org/html/properties/names/attrs", "no-change");
                 }
                 setFeature("http://cyberneko.org/html/features/report-errors", reportErrors);
-                setFeature(FEATURE_PARSE_NOSCRIPT, !webClient.getOptions().isJavaScriptEnabled());
+                setFeature(FEATURE_PARSE_NOSCRIPT,
+                        page_.isStatic() || !webClient.getOptions().isJavaScriptEnabled());
                 setFeature(HTMLScanner.ALLOW_SELFCLOSING_IFRAME, false);
 
                 setContentHandler(this);
@@ -480,12 +657,26 @@ public final class HTMLParser {
             initialSize_ = stack_.size();
         }
 
+        /**
+         * Returns a configuration no longer in use from a previous parsing of the page
+         * or creates a new one.
+         * @param page the page
+         * @return the configuration
+         */
+        private static XMLParserConfiguration getConfiguration(final HtmlPage page) {
+            final HTMLConfiguration configuration = page.pollParserConfiguration();
+            if (configuration != null) {
+                return configuration;
+            }
+            return createConfiguration(page.getWebClient().getBrowserVersion());
+        }
+
         /**
          * Create the configuration depending on the simulated browser
          * @param webClient the current WebClient
          * @return the configuration
          */
-        private static XMLParserConfiguration createConfiguration(final BrowserVersion browserVersion) {
+        private static HTMLConfiguration createConfiguration(final BrowserVersion browserVersion) {
             final HTMLConfiguration configuration = new HTMLConfiguration();
             if (browserVersion.hasFeature(HTML_COMMAND_TAG)) {
                 configuration.htmlElements_.setElement(new HTMLElements.Element(HTMLElements.COMMAND, "COMMAND",
@@ -595,7 +786,11 @@ public final class HTMLParser {
                 namespaceURI = SVG_NAMESPACE;
             }
             final DomElement newElement = factory.createElementNS(page_, namespaceURI, qName, atts, true);
-            newElement.setStartLocation(locator_.getLineNumber(), locator_.getColumnNumber());
+            // the position of scripts is always needed, e.g. to distinguish them from dynamically added ones
+            if (recordSourcePositions_ || newElement instanceof ScriptElement) {
+                newElement.setStartLocation(locator_.getLineNumber(), locator_.getColumnNumber());
+            }
+            newElement.setOpenInParser(true);
 
             // parse can't replace everything as it does not buffer elements while parsing
             addNodeToRightParent(currentNode_, newElement);
@@ -649,6 +844,29 @@ public final class HTMLParser {
             }
             currentNode_ = newElement;
             stack_.push(currentNode_);
+
+            if (extractionHandlers_ != null) {
+                List<ExtractionHandler> matching = null;
+                for (final ExtractionHandler handler : extractionHandlers_) {
+                    if (handler.matches(newElement)) {
+                        if (matching == null) {
+                            matching = new ArrayList<>(1);
+                        }
+                        matching.add(handler);
+                    }
+                }
+                if (matching != null) {
+                    extractionMatches_.put(newElement, matching);
+                }
+            }
+        }
+
+        /**
+         * Returns whether the nodes currently parsed are discarded, because there is no matching element
+         * open while parsing for extraction.
+         */
+        private boolean isDiscarding() {
+            return extractionHandlers_ != null && extractionMatches_.isEmpty();
         }
 
         /**
@@ -787,7 +1005,10 @@ public final class HTMLParser {
             }
 
             final DomNode previousNode = stack_.pop(); //remove currentElement from stack
-            previousNode.setEndLocation(locator_.getLineNumber(), locator_.getColumnNumber());
+            if (recordSourcePositions_ || previousNode instanceof ScriptElement) {
+                previousNode.setEndLocation(locator_.getLineNumber(), locator_.getColumnNumber());
+            }
+            previousNode.setOpenInParser(false);
 
             // special handling for form lost children (malformed HTML code where </form> is synthesized)
             if (previousNode instanceof HtmlForm && lastTagWasSynthesized_) {
@@ -798,8 +1019,31 @@ public final class HTMLParser {
                 currentNode_ = stack_.peek();
             }
 
-            final boolean postponed = page_.isParsingInlineHtmlSnippet();
-            previousNode.onAllChildrenAddedToPage(postponed);
+            // scripts, style sheets and objects may run some JavaScript code
+            final boolean mayRunScript = previousNode instanceof ScriptElement || previousNode instanceof HtmlLink
+                    || previousNode instanceof HtmlObject;
+            if (!mayRunScript || !page_.isStatic()) {
+                if (mayRunScript) {
+                    page_.flushBulkAttach();
+                }
+
+                final boolean postponed = page_.isParsingInlineHtmlSnippet();
+                previousNode.onAllChildrenAddedToPage(postponed);
+            }
+
+            if (extractionHandlers_ != null) {
+                final List<ExtractionHandler> matching = extractionMatches_.remove(previousNode);
+                if (matching != null) {
+                    for (final ExtractionHandler handler : matching) {
+                        handler.elementParsed((DomElement) previousNode);
+                    }
+                }
+                // the html, head and body elements are kept as the page may be used by the handlers
+                if (extractionMatches_.isEmpty() && !(previousNode instanceof HtmlHtml
+                        || previousNode instanceof HtmlHead || previousNode instanceof HtmlBody)) {
+                    previousNode.remove();
+                }
+            }
         }
 
         /** {@inheritDoc} */
@@ -825,9 +1069,10 @@ public final class HTMLParser {
          */
         private void handleCharacters() {
             if (characters_ != null && characters_.length() != 0) {
-                if (currentNode_ instanceof HtmlHtml) {
+                if (currentNode_ instanceof HtmlHtml || isDiscarding()) {
                     // In HTML, the <html> node only has two possible children:
                     // the <head> and the <body>; any text is ignored.
+                    // Text outside of the extracted elements is not needed either.
                     characters_.setLength(0);
                 }
                 else {
@@ -909,6 +1154,9 @@ public final class HTMLParser {
         @Override
         public void comment(final char[] ch, final int start, final int length) {
             handleCharacters();
+            if (isDiscarding()) {
+                return;
+            }
             final String data = new String(ch, start, length);
             final DomComment comment = new DomComment(page_, data);
             currentNode_.appendChild(comment);
@@ -997,12 +1245,22 @@ public final class HTMLParser {
         public void parse(final XMLInputSource inputSource) throws XNIException, IOException {
             final HtmlUnitDOMBuilder oldBuilder = page_.getBuilder();
             page_.setBuilder(this);
+            page_.startBulkAttach();
+            boolean completed = false;
             try {
                 super.parse(inputSource);
+                completed = true;
             }
             finally {
+                page_.endBulkAttach();
                 page_.setBuilder(oldBuilder);
             }
+
+            // the configuration is in a clean state only if the parsing was not aborted
+            if (completed) {
+                fConfiguration.setErrorHandler(null);
+                page_.offerParserConfiguration((HTMLConfiguration) fConfiguration);
+            }
         }
 
         private static boolean isSynthesized(final Augmentations augs) {
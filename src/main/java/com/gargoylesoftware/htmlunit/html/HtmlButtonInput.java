@@ -71,4 +71,12 @@ public class HtmlButtonInput extends HtmlInput {
     protected boolean isRequiredSupported() {
         return false;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isFillSupported() {
+        return false;
+    }
 }
@@ -244,4 +244,12 @@ public class HtmlCheckBoxInput extends HtmlInput {
         return !hasFeature(HTMLINPUT_CHECKBOX_DOES_NOT_CLICK_SURROUNDING_ANCHOR)
                 && super.propagateClickStateUpdateToParent();
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isFillSupported() {
+        return false;
+    }
 }
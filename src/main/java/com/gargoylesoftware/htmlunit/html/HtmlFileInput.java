@@ -196,4 +196,12 @@ public class HtmlFileInput extends HtmlInput {
     public File[] getFiles() {
         return files_;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isFillSupported() {
+        return false;
+    }
 }
@@ -82,4 +82,12 @@ public class HtmlHiddenInput extends HtmlInput {
     protected boolean isRequiredSupported() {
         return false;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isFillSupported() {
+        return false;
+    }
 }
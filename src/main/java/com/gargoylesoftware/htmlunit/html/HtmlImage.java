@@ -192,7 +192,7 @@ public class HtmlImage extends HtmlElement {
         }
 
         final WebClient client = htmlPage.getWebClient();
-        if (!client.getOptions().isJavaScriptEnabled()) {
+        if (!client.getOptions().isJavaScriptEnabled() || htmlPage.isStatic()) {
             onloadProcessed_ = true;
             return;
         }
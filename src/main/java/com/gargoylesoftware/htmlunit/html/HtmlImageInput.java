@@ -245,4 +245,12 @@ public class HtmlImageInput extends HtmlInput {
         }
     }
 
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isFillSupported() {
+        return false;
+    }
 }
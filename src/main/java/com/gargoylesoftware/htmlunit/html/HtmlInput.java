@@ -105,6 +105,51 @@ public abstract class HtmlInput extends HtmlElement implements DisabledElement,
         super.setAttribute("value", newValue);
     }
 
+    /**
+     * Fills this field with the specified value at once; this is a fast alternative to
+     * {@link #type(String)} for filling forms.
+     * <p>
+     * Unlike typing, the value is set in a single step: the focus does not move and no
+     * {@code keydown}, {@code keypress} or {@code keyup} events are fired. If the value changes,
+     * one {@code input} event is fired and then the {@code change} event, immediately and not when
+     * the focus is lost. A value longer than the {@code maxlength} is truncated, as typing would do.
+     * Nothing happens if this element is disabled or read only, or if the value does not change.
+     * <p>
+     * Only inputs the user types a value into support this, not checkboxes, radio buttons,
+     * file, hidden or button inputs.
+     *
+     * @param value the new value
+     * @return the page that occupies this window after this method completes (may or
+     *         may not be the same as the original page)
+     * @throws IllegalStateException if this input does not support filling
+     */
+    public Page fill(final String value) {
+        WebAssert.notNull("value", value);
+        if (!isFillSupported()) {
+            throw new IllegalStateException(getClass().getSimpleName() + " does not support fill().");
+        }
+        if (isDisabled() || isReadOnly()) {
+            return getPage();
+        }
+
+        String newValue = value;
+        final int maxLength = getMaxLength();
+        if (maxLength >= 0 && newValue.length() > maxLength) {
+            newValue = newValue.substring(0, maxLength);
+        }
+        if (newValue.equals(getValueAttribute())) {
+            return getPage();
+        }
+
+        setValueAttribute(newValue);
+        if (valueAtFocus_ != null) {
+            // the change event is fired now, not again when the focus is lost
+            valueAtFocus_ = getInternalValue();
+        }
+        fireEvent(Event.TYPE_INPUT);
+        return executeOnChangeHandlerIfAppropriate(this);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -738,6 +783,14 @@ public abstract class HtmlInput extends HtmlElement implements DisabledElement,
         return true;
     }
 
+    /**
+     * Returns whether {@link #fill(String)} is supported by this input.
+     * @return whether {@link #fill(String)} is supported
+     */
+    protected boolean isFillSupported() {
+        return true;
+    }
+
     /**
      * {@inheritDoc}
      */
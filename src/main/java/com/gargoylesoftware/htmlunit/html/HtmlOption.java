@@ -366,7 +366,13 @@ public class HtmlOption extends HtmlElement implements DisabledElement {
      * @param selected the selected status
      */
     void setSelectedInternal(final boolean selected) {
-        selected_ = selected;
+        if (selected_ != selected) {
+            selected_ = selected;
+            final HtmlSelect select = getEnclosingSelect();
+            if (select != null) {
+                select.optionSelectionChanged(this, selected);
+            }
+        }
     }
 
     /**
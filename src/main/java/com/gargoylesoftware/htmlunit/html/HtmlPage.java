@@ -32,18 +32,25 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
+import java.util.EventObject;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
+import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -60,6 +67,17 @@ import org.w3c.dom.EntityReference;
 import org.w3c.dom.ProcessingInstruction;
 import org.w3c.dom.ranges.Range;
 
+import com.gargoylesoftware.css.parser.condition.ClassCondition;
+import com.gargoylesoftware.css.parser.condition.Condition;
+import com.gargoylesoftware.css.parser.condition.Condition.ConditionType;
+import com.gargoylesoftware.css.parser.selector.ChildSelector;
+import com.gargoylesoftware.css.parser.selector.DescendantSelector;
+import com.gargoylesoftware.css.parser.selector.DirectAdjacentSelector;
+import com.gargoylesoftware.css.parser.selector.ElementSelector;
+import com.gargoylesoftware.css.parser.selector.GeneralAdjacentSelector;
+import com.gargoylesoftware.css.parser.selector.Selector;
+import com.gargoylesoftware.css.parser.selector.Selector.SelectorType;
+import com.gargoylesoftware.css.parser.selector.SelectorList;
 import com.gargoylesoftware.htmlunit.BrowserVersion;
 import com.gargoylesoftware.htmlunit.Cache;
 import com.gargoylesoftware.htmlunit.ElementNotFoundException;
@@ -99,6 +117,7 @@ import net.sourceforge.htmlunit.corejs.javascript.Script;
 import net.sourceforge.htmlunit.corejs.javascript.Scriptable;
 import net.sourceforge.htmlunit.corejs.javascript.ScriptableObject;
 import net.sourceforge.htmlunit.corejs.javascript.Undefined;
+import net.sourceforge.htmlunit.cyberneko.HTMLConfiguration;
 
 /**
  * A representation of an HTML page returned from a server.
@@ -148,7 +167,23 @@ public class HtmlPage extends SgmlPage {
 
     private static final Comparator<DomElement> documentPositionComparator = new DocumentPositionComparator();
 
+    /** The maximum number of idle parser configurations kept per page (nested parsing needs more than one). */
+    private static final int MAX_PARSER_CONFIGURATIONS = 4;
+
+    /** The maximum number of changes recorded one by one in the mutation journal. */
+    private static final int MUTATION_JOURNAL_LIMIT = 256;
+
     private HtmlUnitDOMBuilder builder_;
+
+    /** The parser configurations currently not in use, to be reused for further parsing of this page. */
+    private transient Deque<HTMLConfiguration> parserConfigurations_;
+
+    /**
+     * The parsed HTML snippets per context and markup,
+     * see {@link com.gargoylesoftware.htmlunit.WebClientOptions#setFragmentCacheSize(int)}.
+     */
+    private transient Map<List<String>, DomDocumentFragment> fragmentCache_;
+    private transient int fragmentCacheSize_;
     private transient Charset originalCharset_;
 
     private Map<String, SortedSet<DomElement>> idMap_
@@ -156,14 +191,48 @@ public class HtmlPage extends SgmlPage {
     private Map<String, SortedSet<DomElement>> nameMap_
             = Collections.synchronizedMap(new HashMap<String, SortedSet<DomElement>>());
 
+    /**
+     * The elements per lower case tag name and per class name, in document order. Only the names
+     * asked for are indexed; the lists are maintained when nodes are added or removed and when
+     * class attributes change. A list which cannot be updated cheaply is dropped and built again on next use.
+     */
+    private Map<String, List<DomElement>> tagIndex_
+            = Collections.synchronizedMap(new HashMap<String, List<DomElement>>());
+    private Map<String, List<DomElement>> classIndex_
+            = Collections.synchronizedMap(new HashMap<String, List<DomElement>>());
+
     private SortedSet<BaseFrameElement> frameElements_ = new TreeSet<>(documentPositionComparator);
+
+    /**
+     * The roots of the subtrees attached while the parser is in bulk attach mode, in the order they
+     * were attached. Nodes added below one of them are notified together with their root.
+     */
+    private int bulkAttachCount_;
+    private List<DomNode> pendingAdditions_ = new ArrayList<>();
+    private Set<DomNode> pendingAdditionsSet_ = Collections.newSetFromMap(new IdentityHashMap<DomNode, Boolean>());
+    private transient DomNode lastCoveredParent_;
+    /** Whether a {@link DomChangeListener} expecting one event per added node is registered on a node. */
+    private boolean perNodeDomChangeEvents_;
+
     private int parserCount_;
     private int snippetParserCount_;
     private int inlineSnippetParserCount_;
     private Collection<HtmlAttributeChangeListener> attributeListeners_;
+
+    /**
+     * The changes recorded for the {@link DomChangeBatchListener}s since they were last notified,
+     * {@code null} if none; once there are too many, only the overflow is remembered.
+     */
+    private Collection<DomChangeBatchListener> batchListeners_;
+    private transient List<EventObject> mutationJournal_;
+    private transient boolean mutationJournalOverflow_;
+    /** Whether there are {@link DomChangeBatchListener}s, checked without locking on every change. */
+    private volatile boolean hasBatchListeners_;
     private final Object lock_ = new String(); // used for synchronization
     private List<PostponedAction> afterLoadActions_ = Collections.synchronizedList(new ArrayList<PostponedAction>());
     private boolean cleaning_;
+    private boolean static_;
+    private boolean readOnly_;
     private HtmlBase base_;
     private URL baseUrl_;
     private List<AutoCloseable> autoCloseableList_;
@@ -227,6 +296,13 @@ public class HtmlPage extends SgmlPage {
      */
     @Override
     public void initialize() throws IOException, FailingHttpStatusCodeException {
+        if (static_) {
+            // no events, frames, scripts or refresh for static pages
+            setReadyState(READY_STATE_COMPLETE);
+            getDocumentElement().setReadyState(READY_STATE_COMPLETE);
+            return;
+        }
+
         final WebWindow enclosingWindow = getEnclosingWindow();
         final boolean isAboutBlank = getUrl() == WebClient.URL_ABOUT_BLANK;
         if (isAboutBlank) {
@@ -1202,7 +1278,7 @@ public class HtmlPage extends SgmlPage {
      */
     private boolean executeEventHandlersIfNeeded(final String eventType) {
         // If JavaScript isn't enabled, there's nothing for us to do.
-        if (!getWebClient().getOptions().isJavaScriptEnabled()) {
+        if (static_ || !getWebClient().getOptions().isJavaScriptEnabled()) {
             return true;
         }
 
@@ -1693,6 +1769,251 @@ public class HtmlPage extends SgmlPage {
         return list;
     }
 
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Returns the elements of this page with the specified tag name, in document order.
+     * The index for a tag name is built on first use and maintained afterwards.
+     * The returned list is an unmodifiable view, it has to be copied if the page might be changed while using it.
+     *
+     * @param lowercaseName the lower case tag name
+     * @return the elements with the specified tag name
+     */
+    public List<DomElement> getIndexedElementsByTagName(final String lowercaseName) {
+        List<DomElement> elements = tagIndex_.get(lowercaseName);
+        if (elements == null) {
+            elements = new ArrayList<>();
+            for (final DomElement element : getDomElementDescendants()) {
+                if (lowercaseName.equals(getIndexedTagName(element))) {
+                    elements.add(element);
+                }
+            }
+            tagIndex_.put(lowercaseName, elements);
+        }
+        return Collections.unmodifiableList(elements);
+    }
+
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Returns the elements of this page having the specified class name in their (whitespace separated)
+     * class attribute, in document order.
+     * The index for a class name is built on first use and maintained afterwards.
+     * The returned list is an unmodifiable view, it has to be copied if the page might be changed while using it.
+     *
+     * @param className the class name
+     * @return the elements with the specified class name
+     */
+    public List<DomElement> getIndexedElementsByClassName(final String className) {
+        List<DomElement> elements = classIndex_.get(className);
+        if (elements == null) {
+            elements = new ArrayList<>();
+            for (final DomElement element : getDomElementDescendants()) {
+                if (ArrayUtils.contains(splitClasses(element.getAttributeDirect("class")), className)) {
+                    elements.add(element);
+                }
+            }
+            classIndex_.put(className, elements);
+        }
+        return Collections.unmodifiableList(elements);
+    }
+
+    private static String[] splitClasses(final String classes) {
+        if (classes == null || DomElement.ATTRIBUTE_NOT_DEFINED == classes) {
+            return ArrayUtils.EMPTY_STRING_ARRAY;
+        }
+        return StringUtils.split(classes);
+    }
+
+    private static String getIndexedTagName(final DomElement element) {
+        return element.getNodeName().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Adds the element and its descendants to the tag and class indexes.
+     * @param element the element that has just been added to the document
+     */
+    private void addIndexedElements(final DomElement element) {
+        if (tagIndex_.isEmpty() && classIndex_.isEmpty()) {
+            return;
+        }
+        addIndexedElement(element);
+        for (final DomElement descendant : element.getDomElementDescendants()) {
+            addIndexedElement(descendant);
+        }
+    }
+
+    private void addIndexedElement(final DomElement element) {
+        if (!tagIndex_.isEmpty()) {
+            addIndexedElement(tagIndex_, getIndexedTagName(element), element);
+        }
+        if (!classIndex_.isEmpty()) {
+            for (final String className : splitClasses(element.getAttributeDirect("class"))) {
+                addIndexedElement(classIndex_, className, element);
+            }
+        }
+    }
+
+    private static void addIndexedElement(final Map<String, List<DomElement>> index, final String key,
+            final DomElement element) {
+        final List<DomElement> elements = index.get(key);
+        if (elements == null) {
+            return;
+        }
+
+        // elements are usually appended, check this first
+        final int size = elements.size();
+        if (size == 0 || follows(element, elements.get(size - 1))) {
+            elements.add(element);
+            return;
+        }
+
+        // binary search for the first element following the new one in document order
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            final DomElement other = elements.get(middle);
+            if (other == element) {
+                return;
+            }
+            if (follows(element, other)) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        if (elements.get(low) != element) {
+            elements.add(low, element);
+        }
+    }
+
+    /**
+     * Returns whether the first element follows the second one in document order.
+     */
+    private static boolean follows(final DomElement element, final DomElement other) {
+        return element != other && (element.compareDocumentPosition(other) & DOCUMENT_POSITION_PRECEDING) != 0;
+    }
+
+    /**
+     * Removes the element and its descendants from the tag and class indexes.
+     * @param element the element that has just been removed from the document
+     */
+    private void removeIndexedElements(final DomElement element) {
+        if (tagIndex_.isEmpty() && classIndex_.isEmpty()) {
+            return;
+        }
+        removeIndexedElement(element);
+        for (final DomElement descendant : element.getDomElementDescendants()) {
+            removeIndexedElement(descendant);
+        }
+    }
+
+    private void removeIndexedElement(final DomElement element) {
+        if (!tagIndex_.isEmpty()) {
+            removeIndexedElement(tagIndex_, getIndexedTagName(element), element);
+        }
+        if (!classIndex_.isEmpty()) {
+            for (final String className : splitClasses(element.getAttributeDirect("class"))) {
+                removeIndexedElement(classIndex_, className, element);
+            }
+        }
+    }
+
+    private static void removeIndexedElement(final Map<String, List<DomElement>> index, final String key,
+            final DomElement element) {
+        final List<DomElement> elements = index.get(key);
+        if (elements == null || elements.isEmpty()) {
+            return;
+        }
+
+        // the element is already detached, so its position can't be used to find it;
+        // elements are usually removed from the end or the start of the list
+        final int last = elements.size() - 1;
+        if (elements.get(last) == element) {
+            elements.remove(last);
+            return;
+        }
+        for (int i = 0; i < last; i++) {
+            if (elements.get(i) == element) {
+                elements.remove(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Updates the class index after the class attribute of an element has been changed.
+     * @param element the element
+     * @param oldValue the former value of the class attribute or {@link DomElement#ATTRIBUTE_NOT_DEFINED}
+     * @param newValue the new value of the class attribute or {@link DomElement#ATTRIBUTE_NOT_DEFINED}
+     */
+    void notifyClassChanged(final DomElement element, final String oldValue, final String newValue) {
+        if (classIndex_.isEmpty()) {
+            return;
+        }
+        final String[] oldClasses = splitClasses(oldValue);
+        final String[] newClasses = splitClasses(newValue);
+        for (final String className : oldClasses) {
+            if (!ArrayUtils.contains(newClasses, className)) {
+                removeIndexedElement(classIndex_, className, element);
+            }
+        }
+        for (final String className : newClasses) {
+            if (!ArrayUtils.contains(oldClasses, className)) {
+                addIndexedElement(classIndex_, className, element);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Simple selectors (like {@code div} or {@code .item}) and combinators ending with one are
+     * answered using the tag and class indexes.
+     */
+    @Override
+    protected Iterable<DomElement> getSelectorCandidates(final SelectorList selectorList) {
+        if (selectorList.size() == 1) {
+            Selector selector = selectorList.get(0);
+            switch (selector.getSelectorType()) {
+                case CHILD_SELECTOR:
+                    selector = ((ChildSelector) selector).getSimpleSelector();
+                    break;
+                case DESCENDANT_SELECTOR:
+                    selector = ((DescendantSelector) selector).getSimpleSelector();
+                    break;
+                case DIRECT_ADJACENT_SELECTOR:
+                    selector = ((DirectAdjacentSelector) selector).getSimpleSelector();
+                    break;
+                case GENERAL_ADJACENT_SELECTOR:
+                    selector = ((GeneralAdjacentSelector) selector).getSimpleSelector();
+                    break;
+                default:
+            }
+
+            if (SelectorType.ELEMENT_NODE_SELECTOR == selector.getSelectorType()) {
+                final ElementSelector elementSelector = (ElementSelector) selector;
+                final List<Condition> conditions = elementSelector.getConditions();
+                if (conditions != null) {
+                    for (final Condition condition : conditions) {
+                        if (ConditionType.CLASS_CONDITION == condition.getConditionType()) {
+                            final String className = ((ClassCondition) condition).getValue();
+                            if (className.indexOf('\\') == -1) {
+                                return new ArrayList<>(getIndexedElementsByClassName(className));
+                            }
+                        }
+                    }
+                }
+                final String name = elementSelector.getLocalNameLowerCase();
+                if (name != null) {
+                    return new ArrayList<>(getIndexedElementsByTagName(name));
+                }
+            }
+        }
+        return super.getSelectorCandidates(selectorList);
+    }
+
     /**
      * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
      *
@@ -1701,29 +2022,137 @@ public class HtmlPage extends SgmlPage {
     void notifyNodeAdded(final DomNode node) {
         if (node instanceof DomElement) {
             addMappedElement((DomElement) node, true);
+            addIndexedElements((DomElement) node);
 
-            if (node instanceof BaseFrameElement) {
+            if (node instanceof BaseFrameElement && !static_) {
                 frameElements_.add((BaseFrameElement) node);
             }
+            boolean hasBase = "base".equals(node.getNodeName());
             for (final HtmlElement child : node.getHtmlElementDescendants()) {
-                if (child instanceof BaseFrameElement) {
+                if (child instanceof BaseFrameElement && !static_) {
                     frameElements_.add((BaseFrameElement) child);
                 }
+                else if (child instanceof HtmlBase) {
+                    hasBase = true;
+                }
             }
 
-            if ("base".equals(node.getNodeName())) {
+            if (hasBase) {
                 calculateBase();
             }
         }
         node.onAddedToPage();
     }
 
+    /**
+     * Called by the HTML parser before it attaches the nodes of a subtree one after the other.
+     * Until the matching {@link #endBulkAttach()}, the registration of the added nodes and the
+     * {@link DomChangeEvent}s are postponed; they are done once per attached subtree, as if
+     * the subtree had been built detached and appended afterwards.
+     * As soon as a {@link DomChangeListener} expecting one event per node is registered on a node of
+     * this page, the nodes are notified one by one again.
+     */
+    void startBulkAttach() {
+        bulkAttachCount_++;
+    }
+
+    /**
+     * Called by the HTML parser when it has finished attaching nodes in bulk.
+     * @see #startBulkAttach()
+     */
+    void endBulkAttach() {
+        bulkAttachCount_--;
+        flushBulkAttach();
+    }
+
+    /**
+     * Registers the subtrees attached so far in bulk attach mode and fires their {@link DomChangeEvent}s.
+     * This has to be done before anything (e.g. a script) may look at the new nodes.
+     */
+    void flushBulkAttach() {
+        while (!pendingAdditions_.isEmpty()) {
+            final List<DomNode> additions = pendingAdditions_;
+            pendingAdditions_ = new ArrayList<>();
+            pendingAdditionsSet_.clear();
+            lastCoveredParent_ = null;
+
+            for (final DomNode node : additions) {
+                final DomNode parent = node.getParentNode();
+                if (parent != null && node.isAttachedToPage()) {
+                    notifyNodeAdded(node);
+                    parent.fireNodeAdded(new DomChangeEvent(parent, node));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether nodes have been attached in bulk without being registered yet; until then the
+     * {@link DomNode#getModificationCount() modification counts} of their ancestors are not up to date.
+     * @return whether there are pending additions
+     */
+    boolean hasPendingAdditions() {
+        return !pendingAdditions_.isEmpty();
+    }
+
+    /**
+     * Called when a {@link DomChangeListener} expecting one event per added node is registered on a node
+     * of this page. From now on, the nodes are not attached in bulk anymore.
+     */
+    void perNodeDomChangeListenerAdded() {
+        if (!perNodeDomChangeEvents_) {
+            perNodeDomChangeEvents_ = true;
+            flushBulkAttach();
+        }
+    }
+
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Adds a {@link DomChangeListener} which copes with a single {@link DomChangeEvent} for a whole
+     * subtree attached by the HTML parser, and therefore does not prevent bulk attaching.
+     * @param listener the DOM structure change listener to be added
+     * @see #addDomChangeListener(DomChangeListener)
+     */
+    public void addSubtreeDomChangeListener(final DomChangeListener listener) {
+        // not inherited through SgmlPage, which lives in another package
+        ((DomNode) this).addDomChangeListener(listener, false);
+    }
+
+    /**
+     * Postpones the notifications for a node added to the page while in bulk attach mode.
+     * @param parent the parent the node has been added to
+     * @param node the added node
+     * @return {@code false} if not in bulk attach mode and the notifications have to be done now
+     */
+    boolean postponeNodeAdded(final DomNode parent, final DomNode node) {
+        if (bulkAttachCount_ == 0 || perNodeDomChangeEvents_) {
+            return false;
+        }
+        if (parent != lastCoveredParent_) {
+            DomNode ancestor = parent;
+            while (ancestor != null && !pendingAdditionsSet_.contains(ancestor)) {
+                ancestor = ancestor.getParentNode();
+            }
+            if (ancestor == null) {
+                pendingAdditions_.add(node);
+                pendingAdditionsSet_.add(node);
+                return true;
+            }
+            lastCoveredParent_ = parent;
+        }
+        return true;
+    }
+
     /**
      * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
      *
      * @param node the node that has just been removed from the tree
      */
     void notifyNodeRemoved(final DomNode node) {
+        if (node instanceof DomElement) {
+            removeIndexedElements((DomElement) node);
+        }
         if (node instanceof HtmlElement) {
             removeMappedElement((HtmlElement) node, true, true);
 
@@ -1789,10 +2218,12 @@ public class HtmlPage extends SgmlPage {
         String value = element.getAttribute(attribute);
 
         if (DomElement.ATTRIBUTE_NOT_DEFINED == value
+                && element.hasScriptableObject()
                 && !(element instanceof HtmlApplet)
                 && !(element instanceof HtmlObject)) {
             // second try are JavaScript attributes
-            // ...but applets/objects are a bit special so ignore them
+            // ...but applets/objects are a bit special so ignore them;
+            // a JavaScript object not yet created can't have them
             final Object o = element.getScriptableObject();
             if (o instanceof ScriptableObject) {
                 final ScriptableObject scriptObject = (ScriptableObject) o;
@@ -1942,6 +2373,14 @@ public class HtmlPage extends SgmlPage {
 
         result.idMap_ = Collections.synchronizedMap(new HashMap<String, SortedSet<DomElement>>());
         result.nameMap_ = Collections.synchronizedMap(new HashMap<String, SortedSet<DomElement>>());
+        result.tagIndex_ = Collections.synchronizedMap(new HashMap<String, List<DomElement>>());
+        result.classIndex_ = Collections.synchronizedMap(new HashMap<String, List<DomElement>>());
+        result.parserConfigurations_ = null;
+        result.fragmentCache_ = null;
+        result.bulkAttachCount_ = 0;
+        result.pendingAdditions_ = new ArrayList<>();
+        result.pendingAdditionsSet_ = Collections.newSetFromMap(new IdentityHashMap<DomNode, Boolean>());
+        result.lastCoveredParent_ = null;
 
         return result;
     }
@@ -1960,6 +2399,10 @@ public class HtmlPage extends SgmlPage {
         if (deep) {
             synchronized (lock_) {
                 result.attributeListeners_ = null;
+                result.batchListeners_ = null;
+                result.hasBatchListeners_ = false;
+                result.mutationJournal_ = null;
+                result.mutationJournalOverflow_ = false;
             }
             result.selectionRanges_ = new ArrayList<>(3);
             result.afterLoadActions_ = new ArrayList<>();
@@ -2010,6 +2453,7 @@ public class HtmlPage extends SgmlPage {
      * @param event the event to fire
      */
     void fireHtmlAttributeAdded(final HtmlAttributeChangeEvent event) {
+        recordMutation(event);
         final List<HtmlAttributeChangeListener> listeners = safeGetAttributeListeners();
         if (listeners != null) {
             for (final HtmlAttributeChangeListener listener : listeners) {
@@ -2023,6 +2467,7 @@ public class HtmlPage extends SgmlPage {
      * @param event the event to fire
      */
     void fireHtmlAttributeReplaced(final HtmlAttributeChangeEvent event) {
+        recordMutation(event);
         final List<HtmlAttributeChangeListener> listeners = safeGetAttributeListeners();
         if (listeners != null) {
             for (final HtmlAttributeChangeListener listener : listeners) {
@@ -2036,6 +2481,7 @@ public class HtmlPage extends SgmlPage {
      * @param event the event to fire
      */
     void fireHtmlAttributeRemoved(final HtmlAttributeChangeEvent event) {
+        recordMutation(event);
         final List<HtmlAttributeChangeListener> listeners = safeGetAttributeListeners();
         if (listeners != null) {
             for (final HtmlAttributeChangeListener listener : listeners) {
@@ -2053,6 +2499,114 @@ public class HtmlPage extends SgmlPage {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void fireNodeAdded(final DomChangeEvent event) {
+        recordMutation(event);
+        super.fireNodeAdded(event);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void fireNodeDeleted(final DomChangeEvent event) {
+        recordMutation(event);
+        super.fireNodeDeleted(event);
+    }
+
+    /**
+     * Adds a {@link DomChangeBatchListener} to the listener list. The listener is notified of the
+     * node and attribute changes of this page in batches, when {@link #flushMutationJournal()} is called.
+     *
+     * @param listener the listener to be added
+     * @see #removeDomChangeBatchListener(DomChangeBatchListener)
+     */
+    public void addDomChangeBatchListener(final DomChangeBatchListener listener) {
+        WebAssert.notNull("listener", listener);
+        synchronized (lock_) {
+            if (batchListeners_ == null) {
+                batchListeners_ = new LinkedHashSet<>();
+            }
+            batchListeners_.add(listener);
+            hasBatchListeners_ = true;
+        }
+    }
+
+    /**
+     * Removes a {@link DomChangeBatchListener} from the listener list.
+     *
+     * @param listener the listener to be removed
+     * @see #addDomChangeBatchListener(DomChangeBatchListener)
+     */
+    public void removeDomChangeBatchListener(final DomChangeBatchListener listener) {
+        WebAssert.notNull("listener", listener);
+        synchronized (lock_) {
+            if (batchListeners_ != null) {
+                batchListeners_.remove(listener);
+                if (batchListeners_.isEmpty()) {
+                    // nobody is interested in the changes recorded so far
+                    hasBatchListeners_ = false;
+                    mutationJournal_ = null;
+                    mutationJournalOverflow_ = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Records a change for the {@link DomChangeBatchListener}s, if any.
+     * @param event the change
+     */
+    private void recordMutation(final EventObject event) {
+        if (!hasBatchListeners_) {
+            return;
+        }
+        synchronized (lock_) {
+            if (batchListeners_ == null || batchListeners_.isEmpty() || mutationJournalOverflow_) {
+                return;
+            }
+            if (mutationJournal_ == null) {
+                mutationJournal_ = new ArrayList<>();
+            }
+            else if (mutationJournal_.size() == MUTATION_JOURNAL_LIMIT) {
+                mutationJournal_ = null;
+                mutationJournalOverflow_ = true;
+                return;
+            }
+            mutationJournal_.add(event);
+        }
+    }
+
+    /**
+     * Notifies the {@link DomChangeBatchListener}s of the changes recorded since the last call.
+     * This is done when a script has finished; the listeners call it as well before they use
+     * anything depending on the recorded changes.
+     */
+    public void flushMutationJournal() {
+        if (!hasBatchListeners_) {
+            return;
+        }
+        while (true) {
+            final List<EventObject> changes;
+            final List<DomChangeBatchListener> listeners;
+            synchronized (lock_) {
+                if (mutationJournal_ == null && !mutationJournalOverflow_) {
+                    return;
+                }
+                changes = mutationJournal_ == null ? null : Collections.unmodifiableList(mutationJournal_);
+                mutationJournal_ = null;
+                mutationJournalOverflow_ = false;
+                listeners = new ArrayList<>(batchListeners_);
+            }
+            for (final DomChangeBatchListener listener : listeners) {
+                listener.changesRecorded(changes);
+            }
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -2085,6 +2639,43 @@ public class HtmlPage extends SgmlPage {
         return parserCount_ > 0;
     }
 
+    /**
+     * Returns {@code true} if this page has been created in static mode, to extract content only.
+     * Static pages do not run any JavaScript, load neither style sheets nor frames, and don't
+     * fire any events. Once parsed, they are read-only.
+     * @return {@code true} if this page has been created in static mode
+     * @see HTMLParser#parseStaticHtml(WebResponse, WebWindow)
+     */
+    public boolean isStatic() {
+        return static_;
+    }
+
+    /**
+     * Marks this page as static; has to be called before parsing.
+     */
+    void setStatic() {
+        static_ = true;
+    }
+
+    /**
+     * Makes this static page read-only; called once the parsing is finished.
+     */
+    void setReadOnly() {
+        readOnly_ = true;
+    }
+
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Throws an exception if this page doesn't allow modifications.
+     * @throws DOMException NO_MODIFICATION_ALLOWED_ERR if this is a parsed static page
+     */
+    public void checkModifiable() throws DOMException {
+        if (readOnly_) {
+            throw new DOMException(DOMException.NO_MODIFICATION_ALLOWED_ERR, "Static pages are read-only.");
+        }
+    }
+
     /**
      * Called by the HTML parser to let the page know that it has started parsing some content for this page.
      */
@@ -2190,6 +2781,53 @@ public class HtmlPage extends SgmlPage {
         return builder_;
     }
 
+    /**
+     * Returns a parser configuration that has already been used for this page and is not in use anymore.
+     * @return the configuration or {@code null} if there is none
+     */
+    HTMLConfiguration pollParserConfiguration() {
+        if (parserConfigurations_ == null) {
+            return null;
+        }
+        return parserConfigurations_.pollFirst();
+    }
+
+    /**
+     * Returns the cache of parsed HTML snippets of this page. The key consists of the names of the
+     * context nodes and the markup; the value is {@code null} if the markup can't be cached.
+     * @return the cache or {@code null} if caching is disabled
+     */
+    Map<List<String>, DomDocumentFragment> getFragmentCache() {
+        final int maxSize = getWebClient().getOptions().getFragmentCacheSize();
+        if (maxSize <= 0) {
+            fragmentCache_ = null;
+            return null;
+        }
+        if (fragmentCache_ == null || fragmentCacheSize_ != maxSize) {
+            fragmentCacheSize_ = maxSize;
+            fragmentCache_ = new LinkedHashMap<List<String>, DomDocumentFragment>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<List<String>, DomDocumentFragment> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+        return fragmentCache_;
+    }
+
+    /**
+     * Gives back a parser configuration which is not in use anymore, so it can be reused by further parsing.
+     * @param configuration the configuration
+     */
+    void offerParserConfiguration(final HTMLConfiguration configuration) {
+        if (parserConfigurations_ == null) {
+            parserConfigurations_ = new ArrayDeque<>();
+        }
+        if (parserConfigurations_.size() < MAX_PARSER_CONFIGURATIONS) {
+            parserConfigurations_.addFirst(configuration);
+        }
+    }
+
     /**
      * <p>Returns all namespaces defined in the root element of this page.</p>
      * <p>The default namespace has a key of an empty string.</p>
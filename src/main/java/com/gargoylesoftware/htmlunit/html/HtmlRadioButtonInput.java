@@ -326,4 +326,12 @@ public class HtmlRadioButtonInput extends HtmlInput {
                 && super.propagateClickStateUpdateToParent();
     }
 
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isFillSupported() {
+        return false;
+    }
 }
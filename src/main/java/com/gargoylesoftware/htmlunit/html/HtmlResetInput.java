@@ -139,4 +139,12 @@ public class HtmlResetInput extends HtmlInput {
     protected boolean isRequiredSupported() {
         return false;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isFillSupported() {
+        return false;
+    }
 }
@@ -18,9 +18,12 @@ import static com.gargoylesoftware.htmlunit.BrowserVersionFeatures.EVENT_MOUSE_O
 import static com.gargoylesoftware.htmlunit.BrowserVersionFeatures.JS_SELECT_SET_VALUES_CHECKS_ONLY_VALUE_ATTRIBUTE;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -58,6 +61,63 @@ public class HtmlSelect extends HtmlElement implements DisabledElement, Submitta
     private Collection<String> newNames_ = Collections.emptySet();
     /** What is the index of the HtmlOption which was last selected. */
     private int lastSelectedIndex_ = -1;
+    /** The options, built lazily and invalidated by changes of the subtree. */
+    private OptionIndex optionIndex_;
+
+    /**
+     * The options of a select, by position, value and text, and their selection state.
+     */
+    private static final class OptionIndex {
+        private final int modificationCount_;
+        private final List<HtmlOption> options_;
+        private final Map<HtmlOption, Integer> positions_;
+        private final BitSet selected_;
+        /** The first option for every value and text, built on demand. */
+        private Map<String, HtmlOption> byValue_;
+        private Map<String, HtmlOption> byText_;
+
+        OptionIndex(final List<HtmlOption> options, final int modificationCount) {
+            modificationCount_ = modificationCount;
+            options_ = Collections.unmodifiableList(options);
+            positions_ = new IdentityHashMap<>(options.size());
+            selected_ = new BitSet(options.size());
+            for (int i = 0; i < options.size(); i++) {
+                final HtmlOption option = options.get(i);
+                positions_.put(option, i);
+                if (option.isSelected()) {
+                    selected_.set(i);
+                }
+            }
+        }
+
+        int indexOf(final HtmlOption option) {
+            final Integer position = positions_.get(option);
+            if (position == null) {
+                return -1;
+            }
+            return position.intValue();
+        }
+
+        HtmlOption getByValue(final String value) {
+            if (byValue_ == null) {
+                byValue_ = new HashMap<>();
+                for (final HtmlOption option : options_) {
+                    byValue_.putIfAbsent(option.getValueAttribute(), option);
+                }
+            }
+            return byValue_.get(value);
+        }
+
+        HtmlOption getByText(final String text) {
+            if (byText_ == null) {
+                byText_ = new HashMap<>();
+                for (final HtmlOption option : options_) {
+                    byText_.putIfAbsent(option.getText(), option);
+                }
+            }
+            return byText_.get(text);
+        }
+    }
 
     /**
      * Creates an instance.
@@ -127,31 +187,24 @@ public class HtmlSelect extends HtmlElement implements DisabledElement, Submitta
      * @return the currently selected options
      */
     public List<HtmlOption> getSelectedOptions() {
+        final OptionIndex index = getOptionIndex();
+        final BitSet selected = index.selected_;
         final List<HtmlOption> result;
         if (isMultipleSelectEnabled()) {
             // Multiple selections possible.
-            result = new ArrayList<>();
-            for (final HtmlElement element : getHtmlElementDescendants()) {
-                if (element instanceof HtmlOption && ((HtmlOption) element).isSelected()) {
-                    result.add((HtmlOption) element);
-                }
+            result = new ArrayList<>(selected.cardinality());
+            for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+                result.add(index.options_.get(i));
             }
         }
         else {
             // Only a single selection is possible.
-            result = new ArrayList<>(1);
-            HtmlOption lastSelected = null;
-            for (final HtmlElement element : getHtmlElementDescendants()) {
-                if (element instanceof HtmlOption) {
-                    final HtmlOption option = (HtmlOption) element;
-                    if (option.isSelected()) {
-                        lastSelected = option;
-                    }
-                }
-            }
-            if (lastSelected != null) {
-                result.add(lastSelected);
+            final int lastSelected = selected.length() - 1;
+            if (lastSelected < 0) {
+                return Collections.emptyList();
             }
+            result = new ArrayList<>(1);
+            result.add(index.options_.get(lastSelected));
         }
         return Collections.unmodifiableList(result);
     }
@@ -161,7 +214,7 @@ public class HtmlSelect extends HtmlElement implements DisabledElement, Submitta
      * @return all of the options in this select element
      */
     public List<HtmlOption> getOptions() {
-        return Collections.unmodifiableList(this.<HtmlOption>getElementsByTagNameImpl("option"));
+        return getOptionIndex().options_;
     }
 
     /**
@@ -171,7 +224,7 @@ public class HtmlSelect extends HtmlElement implements DisabledElement, Submitta
      * @return the option specified by the index
      */
     public HtmlOption getOption(final int index) {
-        return this.<HtmlOption>getElementsByTagNameImpl("option").get(index);
+        return getOptionIndex().options_.get(index);
     }
 
     /**
@@ -179,7 +232,103 @@ public class HtmlSelect extends HtmlElement implements DisabledElement, Submitta
      * @return the number of options
      */
     public int getOptionSize() {
-        return getElementsByTagName("option").size();
+        return getOptionIndex().options_.size();
+    }
+
+    /**
+     * Returns the index of the options, building it if the subtree has been changed.
+     * @return the index
+     */
+    private OptionIndex getOptionIndex() {
+        // nodes attached in bulk while parsing are not counted yet
+        final HtmlPage page = getHtmlPageOrNull();
+        final boolean countPending = page != null && page.hasPendingAdditions();
+
+        final int modificationCount = getModificationCount();
+        OptionIndex index = optionIndex_;
+        if (!countPending && index != null && index.modificationCount_ == modificationCount) {
+            return index;
+        }
+
+        final List<HtmlOption> options = new ArrayList<>();
+        for (final HtmlElement element : getHtmlElementDescendants()) {
+            if (element instanceof HtmlOption) {
+                options.add((HtmlOption) element);
+            }
+        }
+        index = new OptionIndex(options, modificationCount);
+        if (!countPending) {
+            optionIndex_ = index;
+        }
+        return index;
+    }
+
+    /**
+     * Keeps the index up to date when the selection state of an option changes.
+     * @param option the option
+     * @param selected the new state
+     */
+    void optionSelectionChanged(final HtmlOption option, final boolean selected) {
+        final OptionIndex index = optionIndex_;
+        if (index != null && index.modificationCount_ == getModificationCount()) {
+            final int position = index.indexOf(option);
+            if (position != -1) {
+                index.selected_.set(position, selected);
+            }
+        }
+    }
+
+    /**
+     * Drops the options by value and text, they may have been changed.
+     */
+    private void optionContentChanged() {
+        final OptionIndex index = optionIndex_;
+        if (index != null) {
+            index.byValue_ = null;
+            index.byText_ = null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void fireHtmlAttributeAdded(final HtmlAttributeChangeEvent event) {
+        if (event.getHtmlElement() != this) {
+            optionContentChanged();
+        }
+        super.fireHtmlAttributeAdded(event);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void fireHtmlAttributeReplaced(final HtmlAttributeChangeEvent event) {
+        if (event.getHtmlElement() != this) {
+            optionContentChanged();
+        }
+        super.fireHtmlAttributeReplaced(event);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void fireHtmlAttributeRemoved(final HtmlAttributeChangeEvent event) {
+        if (event.getHtmlElement() != this) {
+            optionContentChanged();
+        }
+        super.fireHtmlAttributeRemoved(event);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void fireCharacterDataChanged(final CharacterDataChangeEvent event) {
+        optionContentChanged();
+        super.fireCharacterDataChanged(event);
     }
 
     /**
@@ -378,11 +527,11 @@ public class HtmlSelect extends HtmlElement implements DisabledElement, Submitta
             if (isClick && !ctrlKey) {
                 if (!shiftKey) {
                     setOnlySelected(selectedOption, isSelected);
-                    lastSelectedIndex_ = getOptions().indexOf(selectedOption);
+                    lastSelectedIndex_ = getOptionIndex().indexOf(selectedOption);
                 }
                 else if (isSelected && lastSelectedIndex_ != -1) {
                     final List<HtmlOption> options = getOptions();
-                    final int newIndex = options.indexOf(selectedOption);
+                    final int newIndex = getOptionIndex().indexOf(selectedOption);
                     for (int i = 0; i < options.size(); i++) {
                         options.get(i).setSelectedInternal(isBetween(i, lastSelectedIndex_, newIndex));
                     }
@@ -400,8 +549,17 @@ public class HtmlSelect extends HtmlElement implements DisabledElement, Submitta
      * @param isSelected whether selected or not
      */
     void setOnlySelected(final HtmlOption selectedOption, final boolean isSelected) {
-        for (final HtmlOption option : getOptions()) {
-            option.setSelectedInternal(option == selectedOption && isSelected);
+        final OptionIndex index = getOptionIndex();
+        // only the selected options have to be changed; the set is copied as it is updated while changing
+        final BitSet selected = (BitSet) index.selected_.clone();
+        for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+            final HtmlOption option = index.options_.get(i);
+            if (option != selectedOption) {
+                option.setSelectedInternal(false);
+            }
+        }
+        if (index.indexOf(selectedOption) != -1) {
+            selectedOption.setSelectedInternal(isSelected);
         }
     }
 
@@ -511,10 +669,9 @@ public class HtmlSelect extends HtmlElement implements DisabledElement, Submitta
      */
     public HtmlOption getOptionByValue(final String value) throws ElementNotFoundException {
         WebAssert.notNull("value", value);
-        for (final HtmlOption option : getOptions()) {
-            if (option.getValueAttribute().equals(value)) {
-                return option;
-            }
+        final HtmlOption option = getOptionIndex().getByValue(value);
+        if (option != null) {
+            return option;
         }
         throw new ElementNotFoundException("option", "value", value);
     }
@@ -538,10 +695,9 @@ public class HtmlSelect extends HtmlElement implements DisabledElement, Submitta
      */
     public HtmlOption getOptionByText(final String text) throws ElementNotFoundException {
         WebAssert.notNull("text", text);
-        for (final HtmlOption option : getOptions()) {
-            if (option.getText().equals(text)) {
-                return option;
-            }
+        final HtmlOption option = getOptionIndex().getByText(text);
+        if (option != null) {
+            return option;
         }
         throw new ElementNotFoundException("option", "text", text);
     }
@@ -711,12 +867,11 @@ public class HtmlSelect extends HtmlElement implements DisabledElement, Submitta
      * @return the selectedIndex property
      */
     public int getSelectedIndex() {
-        final List<HtmlOption> selectedOptions = getSelectedOptions();
-        if (selectedOptions.isEmpty()) {
-            return -1;
+        final BitSet selected = getOptionIndex().selected_;
+        if (isMultipleSelectEnabled()) {
+            return selected.nextSetBit(0);
         }
-        final List<HtmlOption> allOptions = getOptions();
-        return allOptions.indexOf(selectedOptions.get(0));
+        return selected.length() - 1;
     }
 
     /**
@@ -774,6 +929,16 @@ public class HtmlSelect extends HtmlElement implements DisabledElement, Submitta
         return 0;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DomNode cloneNode(final boolean deep) {
+        final HtmlSelect newnode = (HtmlSelect) super.cloneNode(deep);
+        newnode.optionIndex_ = null;
+        return newnode;
+    }
+
     /**
      * {@inheritDoc}
      */
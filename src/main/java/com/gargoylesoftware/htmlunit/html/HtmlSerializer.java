@@ -14,6 +14,8 @@
  */
 package com.gargoylesoftware.htmlunit.html;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.regex.Pattern;
@@ -48,8 +50,21 @@ public class HtmlSerializer {
 
     private static final Pattern TEXT_AREA_PATTERN = Pattern.compile("\r?\n");
 
+    /** The text collected before it gets cleaned up and written when streaming. */
+    private static final int AS_TEXT_FLUSH_LENGTH = 8 * 1024;
+    private static final String[] AS_TEXT_MARKERS = {AS_TEXT_BLOCK_SEPARATOR, AS_TEXT_NEW_LINE, AS_TEXT_BLANK,
+        AS_TEXT_TAB};
+    /** Whether a position is part of a marker depends on the characters up to this distance before it. */
+    private static final int AS_TEXT_MAX_MARKER_LENGTH = AS_TEXT_BLANK.length();
+
     private boolean ignoreMaskedElements_ = true;
 
+    /** The output when streaming, {@code null} otherwise. */
+    private Appendable output_;
+    private int nextFlushLength_;
+    /** The length of the text at the end of the collected text known to contain no position to cut at. */
+    private int scannedLength_;
+
     /**
      * Converts an HTML node to text.
      * @param node a node
@@ -62,6 +77,133 @@ public class HtmlSerializer {
         return cleanUp(response);
     }
 
+    /**
+     * Converts an HTML node to text and writes it to the specified output.
+     * The text is cleaned up while the node is traversed; the result is the same as
+     * {@link #asText(DomNode)}, but without holding the whole text in memory.
+     *
+     * @param node a node
+     * @param output where to write the text to
+     * @throws IOException if writing to the output fails
+     */
+    public void asText(final DomNode node, final Appendable output) throws IOException {
+        final StringBuilder builder = new StringBuilder();
+        output_ = output;
+        nextFlushLength_ = AS_TEXT_FLUSH_LENGTH;
+        scannedLength_ = 0;
+        try {
+            appendNode(builder, node);
+            flush(builder, output, true);
+        }
+        catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+        finally {
+            output_ = null;
+        }
+    }
+
+    /**
+     * Writes the cleaned up text collected so far to the output if there is enough.
+     */
+    private void flushIfNeeded(final StringBuilder builder) {
+        if (output_ != null && builder.length() >= nextFlushLength_) {
+            try {
+                flush(builder, output_, false);
+            }
+            catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            nextFlushLength_ = builder.length() + AS_TEXT_FLUSH_LENGTH;
+        }
+    }
+
+    /**
+     * Cleans up the text collected so far and writes it to the output. Unless this is the
+     * last part, the text is only written up to a position where the cleanup doesn't depend
+     * on the text before or after, that is between two characters that are neither white space
+     * nor part of a marker, or after a run of white space between two such characters; the
+     * cleanup reduces this run to a single blank, which is written for it.
+     *
+     * @param builder the text collected so far; the part written is removed
+     * @param output the output
+     * @param last whether this is the end of the text
+     * @throws IOException if writing to the output fails
+     */
+    void flush(final StringBuilder builder, final Appendable output, final boolean last) throws IOException {
+        final int cut;
+        if (last) {
+            cut = builder.length();
+        }
+        else {
+            cut = lastSafeCut(builder, scannedLength_ - AS_TEXT_MAX_MARKER_LENGTH);
+        }
+        if (cut > 0 || last) {
+            output.append(cleanUp(builder.substring(0, cut)));
+            if (!last && isSpace(builder.charAt(cut - 1))) {
+                output.append(' ');
+            }
+            builder.delete(0, cut);
+        }
+        // the positions after the cut have been checked already
+        scannedLength_ = last ? 0 : builder.length();
+    }
+
+    /**
+     * Returns the last position to cut the text at, or -1 if there is none.
+     * The text is searched backwards, the positions up to {@code from} are not checked again.
+     */
+    private static int lastSafeCut(final CharSequence text, final int from) {
+        for (int i = text.length() - 1; i > from && i > 0; i--) {
+            if (isSolid(text, i)) {
+                if (isSolid(text, i - 1)) {
+                    return i;
+                }
+                int start = i - 1;
+                while (start >= 0 && isSpace(text.charAt(start))) {
+                    start--;
+                }
+                if (start != i - 1 && start >= 0 && isSolid(text, start)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns whether the character at the specified position is neither white space nor part of a marker.
+     */
+    private static boolean isSolid(final CharSequence text, final int index) {
+        final char ch = text.charAt(index);
+        if (ch == '\u00a7' || isSpace(ch)) {
+            return false;
+        }
+        for (int i = Math.max(0, index - AS_TEXT_MAX_MARKER_LENGTH + 1); i < index; i++) {
+            if (text.charAt(i) == '\u00a7') {
+                for (final String marker : AS_TEXT_MARKERS) {
+                    if (i + marker.length() > index && startsWith(text, i, marker)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWith(final CharSequence text, final int index, final String prefix) {
+        final int length = prefix.length();
+        if (index + length > text.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(index + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Reduce the whitespace and do some more cleanup.
      * @param text the text to clean up
@@ -206,6 +348,7 @@ public class HtmlSerializer {
     protected void appendChildren(final StringBuilder builder, final DomNode node) {
         for (final DomNode child : node.getChildren()) {
             appendNode(builder, child);
+            flushIfNeeded(builder);
         }
     }
 
@@ -14,14 +14,14 @@
  */
 package com.gargoylesoftware.htmlunit.html;
 
-import java.awt.Point;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.function.Consumer;
 
 import com.gargoylesoftware.htmlunit.ElementNotFoundException;
 import com.gargoylesoftware.htmlunit.SgmlPage;
@@ -41,6 +41,10 @@ public class HtmlTable extends HtmlElement {
     /** The HTML tag represented by this element. */
     public static final String TAG_NAME = "table";
 
+    /** The cells by grid position, built lazily and invalidated by changes of the table. */
+    private Grid grid_;
+    private int gridModificationCount_;
+
     /**
      * Creates an instance.
      *
@@ -75,35 +79,151 @@ public class HtmlTable extends HtmlElement {
      * @return the HtmlTableCell at that location or null if there are no cells at that location
      */
     public final HtmlTableCell getCellAt(final int rowIndex, final int columnIndex) {
-        final RowIterator rowIterator = getRowIterator();
-        final HashSet<Point> occupied = new HashSet<>();
+        return getGrid().get(rowIndex, columnIndex);
+    }
+
+    /**
+     * Returns the number of columns of the 'background' model of the table (see {@link #getCellAt(int, int)}),
+     * taking cellspan and rowspan into account.
+     * @return the number of columns
+     */
+    public int getColumnCount() {
+        return getGrid().columnCount_;
+    }
+
+    /**
+     * Returns the cells of the specified row of the 'background' model of the table
+     * (see {@link #getCellAt(int, int)}). A cell spanning several columns is contained several times,
+     * columns without cell are {@code null}.
+     * @param rowIndex the row index
+     * @return an immutable list of {@link #getColumnCount()} cells (empty if there is no such row)
+     */
+    public List<HtmlTableCell> getCellsOfRow(final int rowIndex) {
+        final Grid grid = getGrid();
+        if (rowIndex < 0 || rowIndex >= grid.rows_.size()) {
+            return Collections.emptyList();
+        }
+        final HtmlTableCell[] cells = Arrays.copyOf(grid.rows_.get(rowIndex), grid.columnCount_);
+        return Collections.unmodifiableList(Arrays.asList(cells));
+    }
+
+    /**
+     * Returns the cells of the specified column of the 'background' model of the table
+     * (see {@link #getCellAt(int, int)}). A cell spanning several rows is contained several times,
+     * rows without cell are {@code null}.
+     * @param columnIndex the column index
+     * @return an immutable list of cells, one per row (empty if there is no such column)
+     */
+    public List<HtmlTableCell> getCellsOfColumn(final int columnIndex) {
+        final Grid grid = getGrid();
+        if (columnIndex < 0 || columnIndex >= grid.columnCount_) {
+            return Collections.emptyList();
+        }
+        final HtmlTableCell[] cells = new HtmlTableCell[grid.rows_.size()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = grid.get(i, columnIndex);
+        }
+        return Collections.unmodifiableList(Arrays.asList(cells));
+    }
+
+    /**
+     * Passes the text of the table to the specified consumer, one row of the 'background' model of
+     * the table (see {@link #getCellAt(int, int)}) after the other. Every row has {@link #getColumnCount()}
+     * entries, the text of a cell spanning several rows or columns is repeated, columns without cell
+     * are empty. The text of a row is computed only when passed to the consumer, therefore the text of
+     * the whole table never has to be held in memory.
+     * @param consumer the consumer of the rows
+     */
+    public void exportRows(final Consumer<String[]> consumer) {
+        final Grid grid = getGrid();
+        for (final HtmlTableCell[] row : grid.rows_) {
+            final String[] texts = new String[grid.columnCount_];
+            for (int i = 0; i < texts.length; i++) {
+                final HtmlTableCell cell = i < row.length ? row[i] : null;
+                if (cell == null) {
+                    texts[i] = "";
+                }
+                else if (i > 0 && cell == row[i - 1]) {
+                    texts[i] = texts[i - 1];
+                }
+                else {
+                    texts[i] = cell.asText();
+                }
+            }
+            consumer.accept(texts);
+        }
+    }
+
+    /**
+     * Returns the grid of this table, building it if the table has been changed.
+     * @return the grid
+     */
+    private Grid getGrid() {
+        // nodes attached in bulk while parsing are not counted yet
+        final SgmlPage page = getPage();
+        final boolean countPending = page instanceof HtmlPage && ((HtmlPage) page).hasPendingAdditions();
+
+        final int modificationCount = getModificationCount();
+        if (!countPending && grid_ != null && gridModificationCount_ == modificationCount) {
+            return grid_;
+        }
+
+        final Grid grid = new Grid();
         int row = 0;
-        for (final HtmlTableRow htmlTableRow : rowIterator) {
-            final HtmlTableRow.CellIterator cellIterator = htmlTableRow.getCellIterator();
+        for (final HtmlTableRow htmlTableRow : getRowIterator()) {
+            grid.addRow();
             int col = 0;
-            for (final HtmlTableCell cell : cellIterator) {
-                while (occupied.contains(new Point(row, col))) {
+            for (final HtmlTableCell cell : htmlTableRow.getCellIterator()) {
+                while (grid.get(row, col) != null) {
                     col++;
                 }
-                final int nextRow = row + cell.getRowSpan();
-                if (row <= rowIndex && nextRow > rowIndex) {
-                    final int nextCol = col + cell.getColumnSpan();
-                    if (col <= columnIndex && nextCol > columnIndex) {
-                        return cell;
-                    }
-                }
-                if (cell.getRowSpan() > 1 || cell.getColumnSpan() > 1) {
-                    for (int i = 0; i < cell.getRowSpan(); i++) {
-                        for (int j = 0; j < cell.getColumnSpan(); j++) {
-                            occupied.add(new Point(row + i, col + j));
-                        }
-                    }
-                }
+                grid.add(cell, row, col);
                 col++;
             }
             row++;
         }
-        return null;
+
+        if (!countPending) {
+            grid_ = grid;
+            gridModificationCount_ = modificationCount;
+        }
+        return grid;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void fireHtmlAttributeAdded(final HtmlAttributeChangeEvent event) {
+        invalidateGridIfSpanChanged(event);
+        super.fireHtmlAttributeAdded(event);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void fireHtmlAttributeReplaced(final HtmlAttributeChangeEvent event) {
+        invalidateGridIfSpanChanged(event);
+        super.fireHtmlAttributeReplaced(event);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void fireHtmlAttributeRemoved(final HtmlAttributeChangeEvent event) {
+        invalidateGridIfSpanChanged(event);
+        super.fireHtmlAttributeRemoved(event);
+    }
+
+    private void invalidateGridIfSpanChanged(final HtmlAttributeChangeEvent event) {
+        if (grid_ != null && event.getHtmlElement() instanceof HtmlTableCell) {
+            final String name = event.getName();
+            if ("rowspan".equalsIgnoreCase(name) || "colspan".equalsIgnoreCase(name)) {
+                grid_ = null;
+            }
+        }
     }
 
     /**
@@ -426,6 +546,67 @@ public class HtmlTable extends HtmlElement {
         }
     }
 
+    /**
+     * The 'background' model of a table; every position references the cell covering it.
+     */
+    private static final class Grid {
+        private final List<HtmlTableCell[]> rows_ = new ArrayList<>();
+        private int columnCount_;
+
+        void addRow() {
+            rows_.add(new HtmlTableCell[0]);
+        }
+
+        HtmlTableCell get(final int row, final int col) {
+            if (row < 0 || col < 0 || row >= rows_.size()) {
+                return null;
+            }
+            final HtmlTableCell[] cells = rows_.get(row);
+            if (col >= cells.length) {
+                return null;
+            }
+            return cells[col];
+        }
+
+        /**
+         * Adds a cell at the specified position; positions already covered by a previous cell
+         * (overlapping spans) are left unchanged.
+         */
+        void add(final HtmlTableCell cell, final int row, final int col) {
+            final int rowSpan = cell.getRowSpan();
+            final int colSpan = cell.getColumnSpan();
+            if (rowSpan < 1 || colSpan < 1) {
+                return;
+            }
+            while (rows_.size() < row + rowSpan) {
+                addRow();
+            }
+            for (int i = row; i < row + rowSpan; i++) {
+                HtmlTableCell[] cells = rows_.get(i);
+                if (cells.length < col + colSpan) {
+                    cells = Arrays.copyOf(cells, Math.max(col + colSpan, cells.length + (cells.length >> 1)));
+                    rows_.set(i, cells);
+                }
+                for (int j = col; j < col + colSpan; j++) {
+                    if (cells[j] == null) {
+                        cells[j] = cell;
+                    }
+                }
+            }
+            columnCount_ = Math.max(columnCount_, col + colSpan);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DomNode cloneNode(final boolean deep) {
+        final HtmlTable newnode = (HtmlTable) super.cloneNode(deep);
+        newnode.grid_ = null;
+        return newnode;
+    }
+
     /**
      * {@inheritDoc}
      * @return {@code true} as browsers ignore self closing <code>table</code> tags.
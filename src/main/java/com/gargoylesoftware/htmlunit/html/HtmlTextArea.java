@@ -28,7 +28,9 @@ import java.util.Map;
 
 import org.apache.commons.text.StringEscapeUtils;
 
+import com.gargoylesoftware.htmlunit.Page;
 import com.gargoylesoftware.htmlunit.SgmlPage;
+import com.gargoylesoftware.htmlunit.WebAssert;
 import com.gargoylesoftware.htmlunit.html.impl.SelectableTextInput;
 import com.gargoylesoftware.htmlunit.html.impl.SelectableTextSelectionDelegate;
 import com.gargoylesoftware.htmlunit.javascript.host.event.Event;
@@ -156,6 +158,35 @@ public class HtmlTextArea extends HtmlElement implements DisabledElement, Submit
         HtmlInput.executeOnChangeHandlerIfAppropriate(this);
     }
 
+    /**
+     * Fills this text area with the specified value at once; this is a fast alternative to
+     * {@link #type(String)} for filling forms.
+     * <p>
+     * Unlike typing, the text is set in a single step: the focus does not move and no
+     * {@code keydown}, {@code keypress} or {@code keyup} events are fired. If the text changes,
+     * one {@code input} event is fired and then the {@code change} event, immediately and not when
+     * the focus is lost. Nothing happens if this element is disabled or read only, or if the text
+     * does not change.
+     *
+     * @param value the new value
+     * @return the page that occupies this window after this method completes (may or
+     *         may not be the same as the original page)
+     */
+    public Page fill(final String value) {
+        WebAssert.notNull("value", value);
+        if (isDisabled() || isReadOnly() || value.equals(getText())) {
+            return getPage();
+        }
+
+        setTextInternal(value);
+        if (valueAtFocus_ != null) {
+            // the change event is fired now, not again when the focus is lost
+            valueAtFocus_ = getText();
+        }
+        fireEvent(Event.TYPE_INPUT);
+        return HtmlInput.executeOnChangeHandlerIfAppropriate(this);
+    }
+
     private void setTextInternal(final String newValue) {
         initDefaultValue();
         DomNode child = getFirstChild();
@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2002-2018 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.html;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.gargoylesoftware.css.parser.CSSException;
+import com.gargoylesoftware.css.parser.condition.ClassCondition;
+import com.gargoylesoftware.css.parser.condition.Condition;
+import com.gargoylesoftware.css.parser.condition.Condition.ConditionType;
+import com.gargoylesoftware.css.parser.condition.IdCondition;
+import com.gargoylesoftware.css.parser.selector.ChildSelector;
+import com.gargoylesoftware.css.parser.selector.DescendantSelector;
+import com.gargoylesoftware.css.parser.selector.DirectAdjacentSelector;
+import com.gargoylesoftware.css.parser.selector.ElementSelector;
+import com.gargoylesoftware.css.parser.selector.GeneralAdjacentSelector;
+import com.gargoylesoftware.css.parser.selector.Selector;
+import com.gargoylesoftware.css.parser.selector.Selector.SelectorType;
+import com.gargoylesoftware.css.parser.selector.SelectorList;
+import com.gargoylesoftware.htmlunit.BrowserVersion;
+import com.gargoylesoftware.htmlunit.html.xpath.XPathUtils;
+import com.gargoylesoftware.htmlunit.javascript.host.css.CSSStyleSheet;
+
+/**
+ * A batch of CSS selector and XPath queries, evaluated together by {@link DomNode#query(QueryBatch)}.
+ * <p>
+ * The selectors are parsed once when added. When executing the batch, all CSS queries are answered
+ * during a single traversal of the descendants: the selectors are bucketed by the id, class or tag
+ * name of their subject, so that for every element the tag name, id and classes are looked up once
+ * and only the candidate selectors are checked. XPath expressions are evaluated one after the other.
+ * <p>
+ * A batch can be reused for any number of nodes and pages, but must not be modified while executed.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public class QueryBatch {
+
+    private final List<Object> queries_ = new ArrayList<>();
+
+    private final Map<String, List<Entry>> idEntries_ = new HashMap<>();
+    private final Map<String, List<Entry>> classEntries_ = new HashMap<>();
+    private final Map<String, List<Entry>> tagEntries_ = new HashMap<>();
+    private final List<Entry> otherEntries_ = new ArrayList<>();
+
+    /**
+     * A selector of a CSS query.
+     */
+    private static final class Entry {
+        private final Selector selector_;
+        private final int query_;
+
+        Entry(final Selector selector, final int query) {
+            selector_ = selector;
+            query_ = query;
+        }
+    }
+
+    /**
+     * Adds a CSS query, with the semantic of {@link DomNode#querySelectorAll(String)}.
+     * @param selectors one or more CSS selectors separated by commas
+     * @return the index of the query results
+     * @throws CSSException if the selectors are invalid
+     */
+    public int addSelectors(final String selectors) {
+        final SelectorList selectorList;
+        try {
+            selectorList = DomNode.parseSelectors(selectors);
+        }
+        catch (final IOException e) {
+            throw new CSSException("Error parsing CSS selectors from '" + selectors + "': " + e.getMessage());
+        }
+
+        final int index = queries_.size();
+        queries_.add(selectorList);
+        if (selectorList != null) {
+            for (final Selector selector : selectorList) {
+                add(new Entry(selector, index));
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Adds an XPath query, with the semantic of {@link DomNode#getByXPath(String)}.
+     * @param xpathExpr the XPath expression
+     * @return the index of the query results
+     */
+    public int addXPath(final String xpathExpr) {
+        if (xpathExpr == null) {
+            throw new NullPointerException("Null is not a valid XPath expression");
+        }
+        final int index = queries_.size();
+        queries_.add(xpathExpr);
+        return index;
+    }
+
+    /**
+     * Returns the number of queries in this batch.
+     * @return the number of queries
+     */
+    public int size() {
+        return queries_.size();
+    }
+
+    private void add(final Entry entry) {
+        final Selector subject = getSubject(entry.selector_);
+        if (SelectorType.ELEMENT_NODE_SELECTOR == subject.getSelectorType()) {
+            final ElementSelector es = (ElementSelector) subject;
+            final List<Condition> conditions = es.getConditions();
+            if (conditions != null) {
+                for (final Condition condition : conditions) {
+                    if (ConditionType.ID_CONDITION == condition.getConditionType()) {
+                        final String id = ((IdCondition) condition).getValue();
+                        if (id.indexOf('\\') == -1) {
+                            add(idEntries_, id, entry);
+                            return;
+                        }
+                    }
+                }
+                for (final Condition condition : conditions) {
+                    if (ConditionType.CLASS_CONDITION == condition.getConditionType()) {
+                        final String className = ((ClassCondition) condition).getValue();
+                        if (className.indexOf('\\') == -1) {
+                            add(classEntries_, className, entry);
+                            return;
+                        }
+                    }
+                }
+            }
+
+            final String name = es.getLocalNameLowerCase();
+            if (name != null) {
+                add(tagEntries_, name, entry);
+                return;
+            }
+        }
+        otherEntries_.add(entry);
+    }
+
+    private static void add(final Map<String, List<Entry>> map, final String key, final Entry entry) {
+        List<Entry> entries = map.get(key);
+        if (entries == null) {
+            entries = new ArrayList<>();
+            map.put(key, entries);
+        }
+        entries.add(entry);
+    }
+
+    /**
+     * Returns the selector matching the element itself.
+     */
+    private static Selector getSubject(final Selector selector) {
+        switch (selector.getSelectorType()) {
+            case CHILD_SELECTOR:
+                return ((ChildSelector) selector).getSimpleSelector();
+            case DESCENDANT_SELECTOR:
+                return ((DescendantSelector) selector).getSimpleSelector();
+            case DIRECT_ADJACENT_SELECTOR:
+                return ((DirectAdjacentSelector) selector).getSimpleSelector();
+            case GENERAL_ADJACENT_SELECTOR:
+                return ((GeneralAdjacentSelector) selector).getSimpleSelector();
+            default:
+                return selector;
+        }
+    }
+
+    /**
+     * Evaluates all queries from the specified node.
+     * @param root the node to start from
+     * @return the results, one list per query
+     */
+    List<List<?>> execute(final DomNode root) {
+        final BrowserVersion browserVersion = root.getPage().getWebClient().getBrowserVersion();
+        final int size = queries_.size();
+
+        final List<List<?>> results = new ArrayList<>(size);
+        final List<List<DomElement>> cssResults = new ArrayList<>(size);
+        boolean hasSelectors = false;
+        for (final Object query : queries_) {
+            if (query instanceof SelectorList) {
+                root.validateSelectors((SelectorList) query, browserVersion);
+                final List<DomElement> elements = new ArrayList<>();
+                cssResults.add(elements);
+                results.add(elements);
+                hasSelectors = true;
+            }
+            else if (query instanceof String) {
+                cssResults.add(null);
+                results.add(XPathUtils.getByXPath(root, (String) query, null));
+            }
+            else {
+                // empty selector list
+                cssResults.add(null);
+                results.add(new ArrayList<DomElement>());
+            }
+        }
+
+        if (hasSelectors) {
+            final DomElement[] lastAdded = new DomElement[size];
+            final List<List<Entry>> buckets = new ArrayList<>();
+            for (final DomElement element : root.getDomElementDescendants()) {
+                buckets.clear();
+                if (!otherEntries_.isEmpty()) {
+                    buckets.add(otherEntries_);
+                }
+                if (!tagEntries_.isEmpty()) {
+                    addBucket(buckets, tagEntries_, element.getLowercaseName());
+                }
+                if (!idEntries_.isEmpty()) {
+                    addBucket(buckets, idEntries_, element.getId());
+                }
+                if (!classEntries_.isEmpty()) {
+                    final String classes = element.getAttributeDirect("class");
+                    final int length = classes.length();
+                    int start = -1;
+                    for (int i = 0; i <= length; i++) {
+                        if (i == length || Character.isWhitespace(classes.charAt(i))) {
+                            if (start != -1) {
+                                addBucket(buckets, classEntries_, classes.substring(start, i));
+                                start = -1;
+                            }
+                        }
+                        else if (start == -1) {
+                            start = i;
+                        }
+                    }
+                }
+
+                for (final List<Entry> bucket : buckets) {
+                    for (final Entry entry : bucket) {
+                        final int query = entry.query_;
+                        if (lastAdded[query] != element
+                                && CSSStyleSheet.selects(browserVersion, entry.selector_, element, null, true)) {
+                            cssResults.get(query).add(element);
+                            lastAdded[query] = element;
+                        }
+                    }
+                }
+            }
+        }
+
+        return Collections.unmodifiableList(results);
+    }
+
+    private static void addBucket(final List<List<Entry>> buckets, final Map<String, List<Entry>> map,
+            final String key) {
+        final List<Entry> bucket = map.get(key);
+        if (bucket != null) {
+            // the same bucket might be found twice, e.g. for class="a a"
+            for (final List<Entry> existing : buckets) {
+                if (existing == bucket) {
+                    return;
+                }
+            }
+            buckets.add(bucket);
+        }
+    }
+}
@@ -16,10 +16,13 @@ package com.gargoylesoftware.htmlunit.html;
 
 import static java.nio.charset.StandardCharsets.ISO_8859_1;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.util.HashMap;
@@ -48,6 +51,8 @@ class XmlSerializer {
 
     private final StringBuilder builder_ = new StringBuilder();
     private final StringBuilder indent_ = new StringBuilder();
+    /** Where the XML is written to. */
+    private Appendable output_;
     private File outputDir_;
 
     public void save(final SgmlPage page, final File file) throws IOException {
@@ -61,7 +66,10 @@ class XmlSerializer {
         }
         fileName = fileName.substring(0, fileName.lastIndexOf('.'));
         outputDir_ = new File(file.getParentFile(), fileName);
-        FileUtils.writeStringToFile(outputFile, asXml(page.getDocumentElement()), ISO_8859_1);
+        try (Writer writer = new BufferedWriter(
+                new OutputStreamWriter(FileUtils.openOutputStream(outputFile), ISO_8859_1))) {
+            asXml(page.getDocumentElement(), writer);
+        }
     }
 
     /**
@@ -70,43 +78,58 @@ class XmlSerializer {
      * @throws IOException in case of problem saving resources
      */
     public String asXml(final DomElement node) throws IOException {
-        builder_.setLength(0);
+        final StringBuilder builder = new StringBuilder();
+        asXml(node, builder);
+        return builder.toString();
+    }
+
+    /**
+     * Writes the xml representation of the specified node.
+     * @param node a node
+     * @param output where to write the xml to
+     * @throws IOException in case of problem saving resources or writing
+     */
+    public void asXml(final DomElement node, final Appendable output) throws IOException {
+        output_ = output;
         indent_.setLength(0);
-        final SgmlPage page = node.getPage();
-        if (null != page && page.isHtmlPage()) {
-            final Charset charsetName = page.getCharset();
-            if (charsetName != null && node instanceof HtmlHtml) {
-                builder_.append("<?xml version=\"1.0\" encoding=\"").append(charsetName).append("\"?>").append('\n');
+        try {
+            final SgmlPage page = node.getPage();
+            if (null != page && page.isHtmlPage()) {
+                final Charset charsetName = page.getCharset();
+                if (charsetName != null && node instanceof HtmlHtml) {
+                    output_.append("<?xml version=\"1.0\" encoding=\"").append(charsetName.name())
+                        .append("\"?>").append('\n');
+                }
             }
+            printXml(node);
+        }
+        finally {
+            output_ = null;
         }
-        printXml(node);
-        final String response = builder_.toString();
-        builder_.setLength(0);
-        return response;
     }
 
     protected void printXml(final DomElement node) throws IOException {
         if (!isExcluded(node)) {
             final boolean hasChildren = node.getFirstChild() != null;
-            builder_.append(indent_).append('<');
+            output_.append(indent_).append('<');
             printOpeningTag(node);
 
             if (!hasChildren && !node.isEmptyXmlTagExpanded()) {
-                builder_.append("/>").append('\n');
+                output_.append("/>").append('\n');
             }
             else {
-                builder_.append(">").append('\n');
+                output_.append(">").append('\n');
                 for (DomNode child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
                     indent_.append("  ");
                     if (child instanceof DomElement) {
                         printXml((DomElement) child);
                     }
                     else {
-                        builder_.append(child);
+                        output_.append(child.toString());
                     }
                     indent_.setLength(indent_.length() - 2);
                 }
-                builder_.append(indent_).append("</").append(node.getTagName()).append('>').append('\n');
+                output_.append(indent_).append("</").append(node.getTagName()).append('>').append('\n');
             }
         }
     }
@@ -149,16 +172,16 @@ class XmlSerializer {
      * @throws IOException in case of problem saving resources
      */
     protected void printOpeningTag(final DomElement node) throws IOException {
-        builder_.append(node.getTagName());
+        output_.append(node.getTagName());
         final Map<String, DomAttr> attributes = readAttributes(node);
 
         for (final Map.Entry<String, DomAttr> entry : attributes.entrySet()) {
-            builder_.append(" ");
-            builder_.append(entry.getKey());
-            builder_.append("=\"");
+            output_.append(" ");
+            output_.append(entry.getKey());
+            output_.append("=\"");
             final String value = entry.getValue().getNodeValue();
-            builder_.append(com.gargoylesoftware.htmlunit.util.StringUtils.escapeXmlAttributeValue(value));
-            builder_.append('"');
+            output_.append(com.gargoylesoftware.htmlunit.util.StringUtils.escapeXmlAttributeValue(value));
+            output_.append('"');
         }
     }
 
@@ -875,6 +875,9 @@ public class JavaScriptEngine implements AbstractJavaScriptEngine<Script> {
                             return null; // page has been unloaded
                         }
                         response = doRun(cx);
+                        if (!Boolean.TRUE.equals(javaScriptAlreadyRunning)) {
+                            page_.flushMutationJournal();
+                        }
                     }
                 }
                 finally {
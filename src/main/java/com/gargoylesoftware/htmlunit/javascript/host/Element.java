@@ -30,7 +30,8 @@ import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBr
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.IE;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
@@ -40,6 +41,7 @@ import org.apache.commons.logging.LogFactory;
 import org.xml.sax.SAXException;
 
 import com.gargoylesoftware.css.parser.CSSException;
+import com.gargoylesoftware.htmlunit.SgmlPage;
 import com.gargoylesoftware.htmlunit.html.DomAttr;
 import com.gargoylesoftware.htmlunit.html.DomCharacterData;
 import com.gargoylesoftware.htmlunit.html.DomComment;
@@ -49,6 +51,7 @@ import com.gargoylesoftware.htmlunit.html.DomText;
 import com.gargoylesoftware.htmlunit.html.HTMLParser;
 import com.gargoylesoftware.htmlunit.html.HtmlElement;
 import com.gargoylesoftware.htmlunit.html.HtmlElement.DisplayStyle;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
 import com.gargoylesoftware.htmlunit.javascript.NamedNodeMap;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxClass;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
@@ -100,7 +103,6 @@ public class Element extends Node {
     private static final Pattern PRINT_NODE_QUOTE_PATTERN = Pattern.compile("\"");
 
     private NamedNodeMap attributes_;
-    private Map<String, HTMLCollection> elementsByTagName_; // for performance and for equality (==)
     private int scrollLeft_;
     private int scrollTop_;
     private CSSStyleDeclaration style_;
@@ -130,10 +132,11 @@ public class Element extends Node {
          * Should be called only on construction.
          */
         final DomElement htmlElt = (DomElement) domNode;
-        for (final DomAttr attr : htmlElt.getAttributesMap().values()) {
-            final String eventName = attr.getName().toLowerCase(Locale.ROOT);
+        // use the names only, to not create the attribute nodes
+        for (final String name : htmlElt.getAttributesMap().keySet()) {
+            final String eventName = name.toLowerCase(Locale.ROOT);
             if (eventName.startsWith("on")) {
-                createEventHandler(eventName.substring(2), attr.getValue());
+                createEventHandler(eventName.substring(2), htmlElt.getAttributeDirect(name));
             }
         }
     }
@@ -220,11 +223,8 @@ public class Element extends Node {
     public HTMLCollection getElementsByTagName(final String tagName) {
         final String tagNameLC = tagName.toLowerCase(Locale.ROOT);
 
-        if (elementsByTagName_ == null) {
-            elementsByTagName_ = new HashMap<>();
-        }
-
-        HTMLCollection collection = elementsByTagName_.get(tagNameLC);
+        final String key = "tagName " + tagNameLC;
+        HTMLCollection collection = getLiveCollection(key);
         if (collection != null) {
             return collection;
         }
@@ -240,6 +240,15 @@ public class Element extends Node {
         }
         else {
             collection = new HTMLCollection(node, false) {
+                @Override
+                protected Iterable<DomNode> getCandidates() {
+                    if (isDocumentElementOfHtmlPage(node)) {
+                        return getIndexedDescendants(node,
+                                ((HtmlPage) node.getPage()).getIndexedElementsByTagName(tagNameLC));
+                    }
+                    return super.getCandidates();
+                }
+
                 @Override
                 protected boolean isMatching(final DomNode nodeToMatch) {
                     return tagNameLC.equalsIgnoreCase(nodeToMatch.getNodeName());
@@ -247,11 +256,35 @@ public class Element extends Node {
             };
         }
 
-        elementsByTagName_.put(tagName, collection);
+        putLiveCollection(key, collection);
 
         return collection;
     }
 
+    /**
+     * Returns whether the node is the document element of a {@link HtmlPage}; the descendants
+     * of the document element can be looked up using the indexes of the page.
+     * @param node the node
+     * @return whether the node is the document element of a {@link HtmlPage}
+     */
+    private static boolean isDocumentElementOfHtmlPage(final DomNode node) {
+        final SgmlPage page = node.getPage();
+        return page instanceof HtmlPage && page.getDocumentElement() == node;
+    }
+
+    /**
+     * Returns the elements of an index of the page, excluding the document element itself.
+     * @param documentElement the document element
+     * @param indexed the indexed elements
+     * @return the descendants of the document element
+     */
+    private static List<DomNode> getIndexedDescendants(final DomNode documentElement,
+            final List<DomElement> indexed) {
+        final List<DomNode> descendants = new ArrayList<>(indexed);
+        descendants.remove(documentElement);
+        return descendants;
+    }
+
     /**
      * Retrieves an attribute node by name.
      * @param name the name of the attribute to retrieve
@@ -277,6 +310,19 @@ public class Element extends Node {
      */
     @JsxFunction
     public Object getElementsByTagNameNS(final Object namespaceURI, final String localName) {
+        // only collections for a real namespace are shared, null and undefined may not be distinguishable
+        final String key;
+        if (namespaceURI instanceof String) {
+            key = "tagNameNS " + namespaceURI + " " + localName;
+            final HTMLCollection collection = getLiveCollection(key);
+            if (collection != null) {
+                return collection;
+            }
+        }
+        else {
+            key = null;
+        }
+
         final HTMLCollection collection = new HTMLCollection(getDomNodeOrDie(), false) {
             @Override
             protected boolean isMatching(final DomNode node) {
@@ -285,6 +331,9 @@ public class Element extends Node {
             }
         };
 
+        if (key != null) {
+            putLiveCollection(key, collection);
+        }
         return collection;
     }
 
@@ -647,10 +696,29 @@ public class Element extends Node {
      */
     @JsxFunction({CHROME, FF})
     public HTMLCollection getElementsByClassName(final String className) {
+        final String key = "className " + className;
+        HTMLCollection collection = getLiveCollection(key);
+        if (collection != null) {
+            return collection;
+        }
+
         final DomElement elt = getDomNodeOrDie();
         final String[] classNames = CLASS_NAMES_SPLIT_PATTERN.split(className, 0);
 
-        final HTMLCollection collection = new HTMLCollection(elt, true) {
+        collection = new HTMLCollection(elt, true) {
+            @Override
+            protected Iterable<DomNode> getCandidates() {
+                if (isDocumentElementOfHtmlPage(elt)) {
+                    for (final String aClassName : classNames) {
+                        if (!aClassName.isEmpty()) {
+                            return getIndexedDescendants(elt,
+                                    ((HtmlPage) elt.getPage()).getIndexedElementsByClassName(aClassName));
+                        }
+                    }
+                }
+                return super.getCandidates();
+            }
+
             @Override
             protected boolean isMatching(final DomNode node) {
                 if (!(node instanceof HtmlElement)) {
@@ -671,6 +739,7 @@ public class Element extends Node {
             }
         };
 
+        putLiveCollection(key, collection);
         return collection;
     }
 
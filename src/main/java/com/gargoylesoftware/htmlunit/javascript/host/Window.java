@@ -30,18 +30,18 @@ import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBr
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.lang.ref.WeakReference;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumMap;
+import java.util.EventObject;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Set;
 import java.util.WeakHashMap;
 
 import org.apache.commons.codec.binary.Base64;
@@ -66,6 +66,8 @@ import com.gargoylesoftware.htmlunit.WebClient;
 import com.gargoylesoftware.htmlunit.WebWindow;
 import com.gargoylesoftware.htmlunit.WebWindowNotFoundException;
 import com.gargoylesoftware.htmlunit.html.BaseFrameElement;
+import com.gargoylesoftware.htmlunit.html.DisabledElement;
+import com.gargoylesoftware.htmlunit.html.DomChangeBatchListener;
 import com.gargoylesoftware.htmlunit.html.DomChangeEvent;
 import com.gargoylesoftware.htmlunit.html.DomChangeListener;
 import com.gargoylesoftware.htmlunit.html.DomElement;
@@ -164,75 +166,292 @@ public class Window extends EventTarget implements Function, AutoCloseable {
      * Cache computed styles when possible, because their calculation is very expensive.
      * We use a weak hash map because we don't want this cache to be the only reason
      * nodes are kept around in the JVM, if all other references to them are gone.
+     *
+     * <p>Invalidation is done per node: a change evicts the changed subtree and, depending on the
+     * kind of change and on the selectors used by the style sheets, the siblings and the ancestors
+     * of the changed node. The selector dependencies are determined once after every style sheet
+     * change; as long as they are unknown, the invalidation is done conservatively.</p>
+     *
+     * <p>Additionally, the last computed style per parent and style inputs (tag, attributes and pseudo element)
+     * is remembered, so that equivalent siblings can share the resolved declarations.</p>
      */
     private static final class CSSPropertiesCache implements Serializable {
-        private transient WeakHashMap<Element, Map<String, CSS2Properties>> computedStyles_ = new WeakHashMap<>();
+        private transient WeakHashMap<DomElement, Map<String, CSS2Properties>> computedStyles_ = new WeakHashMap<>();
+        private transient WeakHashMap<DomNode, Map<String, WeakReference<DomElement>>> sharedStyles_
+                = new WeakHashMap<>();
+        private int selectorDependencies_ = -1;
+        private long hits_;
+        private long invalidations_;
 
         public synchronized CSS2Properties get(final Element element, final String normalizedPseudo) {
-            final Map<String, CSS2Properties> elementMap = computedStyles_.get(element);
+            final Map<String, CSS2Properties> elementMap = computedStyles_.get(element.getDomNodeOrDie());
             if (elementMap != null) {
-                return elementMap.get(normalizedPseudo);
+                final CSS2Properties style = elementMap.get(normalizedPseudo);
+                if (style != null) {
+                    hits_++;
+                }
+                return style;
             }
             return null;
         }
 
         public synchronized void put(final Element element, final String normalizedPseudo, final CSS2Properties style) {
-            Map<String, CSS2Properties> elementMap = computedStyles_.get(element);
+            final DomElement domElement = element.getDomNodeOrDie();
+            Map<String, CSS2Properties> elementMap = computedStyles_.get(domElement);
             if (elementMap == null) {
                 elementMap = new WeakHashMap<>();
-                computedStyles_.put(element, elementMap);
+                computedStyles_.put(domElement, elementMap);
             }
             elementMap.put(normalizedPseudo, style);
+
+            final String key = getStyleSharingKey(domElement, normalizedPseudo);
+            if (key != null) {
+                final DomNode parent = domElement.getParentNode();
+                Map<String, WeakReference<DomElement>> parentMap = sharedStyles_.get(parent);
+                if (parentMap == null) {
+                    parentMap = new HashMap<>();
+                    sharedStyles_.put(parent, parentMap);
+                }
+                // weak, the child references the parent key
+                parentMap.put(key, new WeakReference<>(domElement));
+            }
+        }
+
+        /**
+         * Returns the cached style of a sibling having the same style inputs as the specified element.
+         * @param element the element
+         * @param normalizedPseudo the pseudo element
+         * @return the style to share or {@code null}
+         */
+        public synchronized CSS2Properties getSharedStyle(final Element element, final String normalizedPseudo) {
+            if ((selectorDependencies_ & (CSSStyleSheet.DEPENDS_ON_PRECEDING_SIBLINGS
+                        | CSSStyleSheet.DEPENDS_ON_FOLLOWING_SIBLINGS | CSSStyleSheet.DEPENDS_ON_CHILDREN)) != 0) {
+                return null;
+            }
+
+            final DomElement domElement = element.getDomNodeOrDie();
+            final String key = getStyleSharingKey(domElement, normalizedPseudo);
+            if (key == null) {
+                return null;
+            }
+            final DomNode parent = domElement.getParentNode();
+            final Map<String, WeakReference<DomElement>> parentMap = sharedStyles_.get(parent);
+            if (parentMap == null) {
+                return null;
+            }
+            final WeakReference<DomElement> siblingRef = parentMap.get(key);
+            final DomElement sibling = siblingRef == null ? null : siblingRef.get();
+            if (sibling == null || sibling.getParentNode() != parent
+                    || !key.equals(getStyleSharingKey(sibling, normalizedPseudo))) {
+                return null;
+            }
+            final Map<String, CSS2Properties> elementMap = computedStyles_.get(sibling);
+            if (elementMap == null) {
+                // evicted
+                return null;
+            }
+            final CSS2Properties style = elementMap.get(normalizedPseudo);
+            if (style != null) {
+                hits_++;
+            }
+            return style;
         }
 
-        public synchronized void nodeChanged(final DomNode changed, final boolean clearParents) {
-            final Iterator<Map.Entry<Element, Map<String, CSS2Properties>>> i = computedStyles_.entrySet().iterator();
-            while (i.hasNext()) {
-                final Map.Entry<Element, Map<String, CSS2Properties>> entry = i.next();
-                final DomNode node = entry.getKey().getDomNodeOrDie();
-                if (changed == node
-                    || changed.getParentNode() == node.getParentNode()
-                    || changed.isAncestorOf(node)
-                    || clearParents && node.isAncestorOf(changed)) {
-                    i.remove();
+        /**
+         * Returns the key for sharing the style of the specified element with its siblings, or {@code null}
+         * if the style of the element depends on more than its parent, tag and attributes.
+         */
+        private String getStyleSharingKey(final DomElement element, final String normalizedPseudo) {
+            if (element.getParentNode() == null
+                    || element instanceof DisabledElement
+                    || element.hasAttribute("id")) {
+                return null;
+            }
+            final HtmlPage page = element.getHtmlPageOrNull();
+            if (page != null && page.getFocusedElement() == element) {
+                return null;
+            }
+
+            final StringBuilder key = new StringBuilder(normalizedPseudo == null ? "" : normalizedPseudo)
+                    .append('<').append(element.getLowercaseName());
+            // use the names only, to not create the attribute nodes
+            for (final String name : element.getAttributesMap().keySet()) {
+                key.append(' ').append(name).append("=\"").append(element.getAttributeDirect(name)).append('"');
+            }
+            return key.toString();
+        }
+
+        public synchronized boolean isEmpty() {
+            return computedStyles_.isEmpty();
+        }
+
+        public synchronized int getSelectorDependencies() {
+            return selectorDependencies_;
+        }
+
+        public synchronized void setSelectorDependencies(final int selectorDependencies) {
+            selectorDependencies_ = selectorDependencies;
+        }
+
+        /**
+         * Evicts the styles affected by a change of the given node. The styles of the siblings and the
+         * ancestors are only evicted if selectors depending on them are in use; if the node was added or
+         * removed or if it had a style, which an attribute change might have changed together with the size
+         * of the node, the cached geometry depending on the node is discarded, see {@link #layoutChanged}.
+         * @param changed the changed node
+         * @param parent the parent of the changed node (the former parent if the node was removed)
+         * @param structural whether the node was added or removed
+         */
+        public synchronized void nodeChanged(final DomNode changed, final DomNode parent,
+                final boolean structural) {
+            if (computedStyles_.isEmpty()) {
+                return;
+            }
+            invalidations_++;
+
+            final boolean styled = computedStyles_.containsKey(changed);
+            removeSubtree(changed);
+            sharedStyles_.remove(changed);
+            if (structural && parent != null) {
+                sharedStyles_.remove(parent);
+            }
+
+            // -1 means unknown, this sets all flags
+            final int dependencies = selectorDependencies_;
+            if (parent != null) {
+                final boolean removed = changed.getParentNode() != parent;
+                final boolean allSiblings = structural
+                        && (dependencies & CSSStyleSheet.DEPENDS_ON_FOLLOWING_SIBLINGS) != 0;
+                final boolean followingSiblings = (dependencies & CSSStyleSheet.DEPENDS_ON_PRECEDING_SIBLINGS) != 0;
+                if (allSiblings || removed && followingSiblings) {
+                    // we don't know the former position of a removed node
+                    for (DomNode sibling = parent.getFirstChild(); sibling != null;
+                            sibling = sibling.getNextSibling()) {
+                        if (sibling != changed) {
+                            removeSubtree(sibling);
+                        }
+                    }
+                }
+                else if (followingSiblings) {
+                    for (DomNode sibling = changed.getNextSibling(); sibling != null;
+                            sibling = sibling.getNextSibling()) {
+                        removeSubtree(sibling);
+                    }
+                }
+
+                if (structural && (dependencies & CSSStyleSheet.DEPENDS_ON_CHILDREN) != 0) {
+                    for (DomNode ancestor = parent; ancestor != null; ancestor = ancestor.getParentNode()) {
+                        clearLayout(computedStyles_.remove(ancestor));
+                    }
+                }
+
+                if (structural || styled) {
+                    layoutChanged(changed, parent, removed);
                 }
             }
+        }
 
-            // maybe this is a better solution but i have to think a bit more about this
-            //
-            //            if (computedStyles_.isEmpty()) {
-            //                return;
-            //            }
-            //
-            //            // remove all siblings
-            //            DomNode parent = changed.getParentNode();
-            //            if (parent != null) {
-            //                for (DomNode sibling : parent.getChildNodes()) {
-            //                    computedStyles_.remove(sibling.getScriptableObject());
-            //                }
-            //
-            //                if (clearParents) {
-            //                    // remove all parents
-            //                    while (parent != null) {
-            //                        computedStyles_.remove(parent.getScriptableObject());
-            //                        parent = parent.getParentNode();
-            //                    }
-            //                }
-            //            }
-            //
-            //            // remove changed itself and all descendants
-            //            computedStyles_.remove(changed.getScriptableObject());
-            //            for (DomNode descendant : changed.getDescendants()) {
-            //                computedStyles_.remove(descendant.getScriptableObject());
-            //            }
+        /**
+         * Discards the cached geometry depending on the size of the changed node: the positions of its
+         * following siblings and the sizes of its ancestors together with the positions of their following
+         * siblings. Everything else keeps its cached geometry.
+         * @param changed the changed node
+         * @param parent the parent of the changed node (the former parent if the node was removed)
+         * @param removed whether the node was removed
+         */
+        private void layoutChanged(final DomNode changed, final DomNode parent, final boolean removed) {
+            // we don't know the former position of a removed node
+            clearPositions(removed ? parent.getFirstChild() : changed.getNextSibling());
+            for (DomNode ancestor = parent; ancestor != null; ancestor = ancestor.getParentNode()) {
+                final Map<String, CSS2Properties> elementMap = computedStyles_.get(ancestor);
+                if (elementMap != null) {
+                    for (final CSS2Properties style : elementMap.values()) {
+                        style.clearCachedSize();
+                    }
+                }
+                clearPositions(ancestor.getNextSibling());
+            }
+        }
+
+        /**
+         * Discards the cached positions of the given node and its following siblings.
+         */
+        private void clearPositions(final DomNode first) {
+            for (DomNode sibling = first; sibling != null; sibling = sibling.getNextSibling()) {
+                final Map<String, CSS2Properties> elementMap = computedStyles_.get(sibling);
+                if (elementMap != null) {
+                    for (final CSS2Properties style : elementMap.values()) {
+                        style.clearCachedPosition();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Discards the geometry cached by the given evicted styles; they might still be in use.
+         */
+        private static void clearLayout(final Map<String, CSS2Properties> elementMap) {
+            if (elementMap != null) {
+                for (final CSS2Properties style : elementMap.values()) {
+                    style.clearCachedSize();
+                    style.clearCachedPosition();
+                }
+            }
+        }
+
+        /**
+         * Removes the styles of the given node and all its descendants. If the subtree turns out
+         * to be larger than the cache, the cache entries are checked instead.
+         * @param root the root of the subtree
+         */
+        private void removeSubtree(final DomNode root) {
+            clearLayout(computedStyles_.remove(root));
+            if (root.getFirstChild() == null || computedStyles_.isEmpty()) {
+                return;
+            }
+
+            int budget = computedStyles_.size();
+            for (final DomNode descendant : root.getDescendants()) {
+                if (--budget < 0) {
+                    final Iterator<Map.Entry<DomElement, Map<String, CSS2Properties>>> i
+                            = computedStyles_.entrySet().iterator();
+                    while (i.hasNext()) {
+                        final Map.Entry<DomElement, Map<String, CSS2Properties>> entry = i.next();
+                        if (root.isAncestorOf(entry.getKey())) {
+                            clearLayout(entry.getValue());
+                            i.remove();
+                        }
+                    }
+                    return;
+                }
+                clearLayout(computedStyles_.remove(descendant));
+            }
         }
 
         public synchronized void clear() {
-            computedStyles_.clear();
+            computedStyles_ = new WeakHashMap<>();
+            sharedStyles_ = new WeakHashMap<>();
+            selectorDependencies_ = -1;
+            invalidations_++;
         }
 
         public synchronized Map<String, CSS2Properties> remove(final Element element) {
-            return computedStyles_.remove(element);
+            final DomNode domNode = element.getDomNodeOrNull();
+            if (domNode == null) {
+                return null;
+            }
+            invalidations_++;
+            final Map<String, CSS2Properties> elementMap = computedStyles_.remove(domNode);
+            clearLayout(elementMap);
+            return elementMap;
+        }
+
+        public synchronized long getHits() {
+            return hits_;
+        }
+
+        public synchronized long getInvalidations() {
+            return invalidations_;
         }
     }
 
@@ -274,6 +493,7 @@ public class Window extends EventTarget implements Function, AutoCloseable {
     private Crypto crypto_;
 
     private CSSPropertiesCache cssPropertiesCache_ = new CSSPropertiesCache();
+    private int layoutGeneration_;
 
     private final EnumMap<Type, Storage> storages_ = new EnumMap<>(Type.class);
 
@@ -892,11 +1112,19 @@ public class Window extends EventTarget implements Function, AutoCloseable {
             document_.setDomNode(page);
 
             final DomHtmlAttributeChangeListenerImpl listener = new DomHtmlAttributeChangeListenerImpl();
-            page.addDomChangeListener(listener);
-
             if (page.isHtmlPage()) {
-                ((HtmlPage) page).addHtmlAttributeChangeListener(listener);
-                ((HtmlPage) page).addAutoCloseable(this);
+                final HtmlPage htmlPage = (HtmlPage) page;
+                if (htmlPage.getWebClient().getOptions().isMutationJournalEnabled()) {
+                    htmlPage.addDomChangeBatchListener(listener);
+                }
+                else {
+                    htmlPage.addSubtreeDomChangeListener(listener);
+                    htmlPage.addHtmlAttributeChangeListener(listener);
+                }
+                htmlPage.addAutoCloseable(this);
+            }
+            else {
+                page.addDomChangeListener(listener);
             }
         }
 
@@ -1770,6 +1998,7 @@ public class Window extends EventTarget implements Function, AutoCloseable {
             }
         }
 
+        flushMutationJournal();
         final CSS2Properties styleFromCache = cssPropertiesCache_.get(e, normalizedPseudo);
         if (styleFromCache != null) {
             return styleFromCache;
@@ -1778,16 +2007,20 @@ public class Window extends EventTarget implements Function, AutoCloseable {
         final CSS2Properties style = new CSS2Properties(e.getStyle());
         final Object ownerDocument = e.getOwnerDocument();
         if (ownerDocument instanceof HTMLDocument) {
-            final StyleSheetList sheets = ((HTMLDocument) ownerDocument).getStyleSheets();
-            final boolean trace = LOG.isTraceEnabled();
-            for (int i = 0; i < sheets.getLength(); i++) {
-                final CSSStyleSheet sheet = (CSSStyleSheet) sheets.item(i);
-                if (sheet.isActive() && sheet.isEnabled()) {
-                    if (trace) {
-                        LOG.trace("modifyIfNecessary: " + sheet + ", " + style + ", " + e);
-                    }
-                    sheet.modifyIfNecessary(style, e, normalizedPseudo);
+            if (ownerDocument == document_ && cssPropertiesCache_.getSelectorDependencies() == -1) {
+                cssPropertiesCache_.setSelectorDependencies(getSelectorDependencies());
+            }
+            final CSS2Properties sharedStyle = ownerDocument == document_
+                    ? cssPropertiesCache_.getSharedStyle(e, normalizedPseudo) : null;
+            if (sharedStyle != null) {
+                style.shareLocalModifications(sharedStyle);
+            }
+            else {
+                final StyleSheetList sheets = ((HTMLDocument) ownerDocument).getStyleSheets();
+                if (LOG.isTraceEnabled()) {
+                    LOG.trace("modifyIfNecessary: " + sheets + ", " + style + ", " + e);
                 }
+                sheets.getCascadeIndex().modifyIfNecessary(style, e, normalizedPseudo);
             }
 
             cssPropertiesCache_.put(e, normalizedPseudo, style);
@@ -1923,13 +2156,6 @@ public class Window extends EventTarget implements Function, AutoCloseable {
         return 0;
     }
 
-    /** Definition of special cases for the smart DomHtmlAttributeChangeListenerImpl */
-    private static final Set<String> ATTRIBUTES_AFFECTING_PARENT = new HashSet<>(Arrays.asList(
-            "style",
-            "class",
-            "height",
-            "width"));
-
     private static final class Filter {
         private final boolean includeFormFields_;
 
@@ -1960,6 +2186,7 @@ public class Window extends EventTarget implements Function, AutoCloseable {
      */
     public void clearComputedStyles() {
         cssPropertiesCache_.clear();
+        layoutGeneration_++;
     }
 
     /**
@@ -1970,6 +2197,43 @@ public class Window extends EventTarget implements Function, AutoCloseable {
         cssPropertiesCache_.remove(element);
     }
 
+    /**
+     * Returns the layout generation of this window. The generation changes whenever all computed styles
+     * are cleared; the geometry values cached by the computed styles are only valid for the generation
+     * they were calculated for. Other changes of the document discard the affected geometry values only.
+     * @return the layout generation
+     */
+    public int getLayoutGeneration() {
+        flushMutationJournal();
+        return layoutGeneration_;
+    }
+
+    /**
+     * Processes the changes of the document not yet processed, if the mutation journal is enabled.
+     */
+    private void flushMutationJournal() {
+        final DomNode page = document_ == null ? null : document_.getDomNodeOrNull();
+        if (page instanceof HtmlPage) {
+            ((HtmlPage) page).flushMutationJournal();
+        }
+    }
+
+    /**
+     * Returns the number of computed style requests answered from the cache.
+     * @return the number of cache hits
+     */
+    public long getComputedStylesCacheHits() {
+        return cssPropertiesCache_.getHits();
+    }
+
+    /**
+     * Returns the number of invalidations of the computed styles cache.
+     * @return the number of invalidations
+     */
+    public long getComputedStylesCacheInvalidations() {
+        return cssPropertiesCache_.getInvalidations();
+    }
+
     /**
      * <p>Listens for changes anywhere in the document and evicts cached computed styles whenever something relevant
      * changes. Note that the very lazy way of doing this (completely clearing the cache every time something happens)
@@ -1996,21 +2260,28 @@ public class Window extends EventTarget implements Function, AutoCloseable {
      *
      * <ul>
      *   <li>are actually the same node as the node that changed</li>
-     *   <li>are siblings of the node that changed</li>
      *   <li>are descendants of the node that changed</li>
+     *   <li>are following siblings of the node that changed, if the node was added or removed or if an attribute
+     *   of a node with a computed style changed (the offsets depend on the preceding siblings), or if sibling
+     *   selectors are in use</li>
+     *   <li>are preceding siblings of the node that changed, if the node was added or removed and selectors
+     *   like <tt>:last-child</tt> are in use</li>
+     *   <li>are ancestors of the node that changed, if the size of the node may have changed or if selectors
+     *   like <tt>:empty</tt> are in use</li>
      * </ul>
      *
      * <p>Additionally, whenever a <tt>style</tt> node or a <tt>link</tt> node with <tt>rel=stylesheet</tt> is added or
      * removed, all elements should be removed from the computed style cache.</p>
      */
-    private class DomHtmlAttributeChangeListenerImpl implements DomChangeListener, HtmlAttributeChangeListener {
+    private class DomHtmlAttributeChangeListenerImpl
+            implements DomChangeListener, HtmlAttributeChangeListener, DomChangeBatchListener {
 
         /**
          * {@inheritDoc}
          */
         @Override
         public void nodeAdded(final DomChangeEvent event) {
-            nodeChanged(event.getChangedNode(), null);
+            nodeChanged(event.getChangedNode(), event.getParentNode(), null);
         }
 
         /**
@@ -2018,7 +2289,7 @@ public class Window extends EventTarget implements Function, AutoCloseable {
          */
         @Override
         public void nodeDeleted(final DomChangeEvent event) {
-            nodeChanged(event.getChangedNode(), null);
+            nodeChanged(event.getChangedNode(), event.getParentNode(), null);
         }
 
         /**
@@ -2026,7 +2297,8 @@ public class Window extends EventTarget implements Function, AutoCloseable {
          */
         @Override
         public void attributeAdded(final HtmlAttributeChangeEvent event) {
-            nodeChanged(event.getHtmlElement(), event.getName());
+            final HtmlElement element = event.getHtmlElement();
+            nodeChanged(element, element.getParentNode(), event.getName());
         }
 
         /**
@@ -2034,7 +2306,8 @@ public class Window extends EventTarget implements Function, AutoCloseable {
          */
         @Override
         public void attributeRemoved(final HtmlAttributeChangeEvent event) {
-            nodeChanged(event.getHtmlElement(), event.getName());
+            final HtmlElement element = event.getHtmlElement();
+            nodeChanged(element, element.getParentNode(), event.getName());
         }
 
         /**
@@ -2042,27 +2315,85 @@ public class Window extends EventTarget implements Function, AutoCloseable {
          */
         @Override
         public void attributeReplaced(final HtmlAttributeChangeEvent event) {
-            nodeChanged(event.getHtmlElement(), event.getName());
+            final HtmlElement element = event.getHtmlElement();
+            nodeChanged(element, element.getParentNode(), event.getName());
         }
 
-        private void nodeChanged(final DomNode changed, final String attribName) {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void changesRecorded(final List<EventObject> changes) {
+            if (changes == null) {
+                // too many changes to be worth processing one by one
+                clearComputedStyles();
+                return;
+            }
+            for (final EventObject change : changes) {
+                if (change instanceof DomChangeEvent) {
+                    final DomChangeEvent event = (DomChangeEvent) change;
+                    nodeChanged(event.getChangedNode(), event.getParentNode(), null);
+                }
+                else {
+                    final HtmlElement element = ((HtmlAttributeChangeEvent) change).getHtmlElement();
+                    nodeChanged(element, element.getParentNode(), ((HtmlAttributeChangeEvent) change).getName());
+                }
+            }
+        }
+
+        private void nodeChanged(final DomNode changed, final DomNode parent, final String attribName) {
             // If a stylesheet was changed, all of our calculations could be off; clear the cache.
-            if (changed instanceof HtmlStyle) {
+            if (isStyleSheetNode(changed)) {
                 clearComputedStyles();
                 return;
             }
-            if (changed instanceof HtmlLink) {
-                final String rel = ((HtmlLink) changed).getRelAttribute().toLowerCase(Locale.ROOT);
-                if ("stylesheet".equals(rel)) {
-                    clearComputedStyles();
-                    return;
+            // a whole subtree (e.g. from innerHTML) might have been added or removed at once
+            if (attribName == null && changed.getFirstChild() != null) {
+                for (final HtmlElement descendant : changed.getHtmlElementDescendants()) {
+                    if (isStyleSheetNode(descendant)) {
+                        clearComputedStyles();
+                        return;
+                    }
                 }
             }
 
             // Apparently it wasn't a stylesheet that changed; be semi-smart about what we evict and when.
-            final boolean clearParents = ATTRIBUTES_AFFECTING_PARENT.contains(attribName);
-            cssPropertiesCache_.nodeChanged(changed, clearParents);
+            if (cssPropertiesCache_.isEmpty()) {
+                return;
+            }
+            if (cssPropertiesCache_.getSelectorDependencies() == -1) {
+                cssPropertiesCache_.setSelectorDependencies(getSelectorDependencies());
+            }
+            cssPropertiesCache_.nodeChanged(changed, parent, attribName == null);
+        }
+
+        private boolean isStyleSheetNode(final DomNode node) {
+            if (node instanceof HtmlStyle) {
+                return true;
+            }
+            if (node instanceof HtmlLink) {
+                final String rel = ((HtmlLink) node).getRelAttribute().toLowerCase(Locale.ROOT);
+                return "stylesheet".equals(rel);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Returns the combined {@link CSSStyleSheet#getSelectorDependencies() selector dependencies}
+     * of all style sheets of the document.
+     * @return the selector dependencies or -1 if unknown
+     */
+    private int getSelectorDependencies() {
+        if (!(document_ instanceof HTMLDocument)) {
+            return -1;
+        }
+        final StyleSheetList sheets = ((HTMLDocument) document_).getStyleSheets();
+        int dependencies = 0;
+        for (int i = 0; i < sheets.getLength(); i++) {
+            dependencies |= ((CSSStyleSheet) sheets.item(i)).getSelectorDependencies();
         }
+        return dependencies;
     }
 
     /**
@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2002-2018 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.javascript.host.css;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.gargoylesoftware.css.dom.CSSStyleRuleImpl;
+import com.gargoylesoftware.css.parser.condition.AttributeCondition;
+import com.gargoylesoftware.css.parser.condition.ClassCondition;
+import com.gargoylesoftware.css.parser.condition.Condition;
+import com.gargoylesoftware.css.parser.condition.Condition.ConditionType;
+import com.gargoylesoftware.css.parser.condition.IdCondition;
+import com.gargoylesoftware.css.parser.selector.ChildSelector;
+import com.gargoylesoftware.css.parser.selector.DescendantSelector;
+import com.gargoylesoftware.css.parser.selector.DirectAdjacentSelector;
+import com.gargoylesoftware.css.parser.selector.ElementSelector;
+import com.gargoylesoftware.css.parser.selector.GeneralAdjacentSelector;
+import com.gargoylesoftware.css.parser.selector.Selector;
+import com.gargoylesoftware.css.parser.selector.Selector.SelectorType;
+import com.gargoylesoftware.htmlunit.BrowserVersion;
+import com.gargoylesoftware.htmlunit.WebWindow;
+import com.gargoylesoftware.htmlunit.html.DomElement;
+import com.gargoylesoftware.htmlunit.javascript.host.Element;
+
+/**
+ * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+ *
+ * A document wide index of the style rules of all active style sheets of a {@link StyleSheetList}.
+ * The media queries are evaluated once when building the index and the selectors are bucketed by
+ * the id, class, tag or attribute name of their subject, so that computing the style of an element
+ * only has to check the candidate rules. The rules are applied in document order.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public class CSSCascadeIndex {
+
+    private static final Comparator<Entry> POSITION_COMPARATOR = new Comparator<Entry>() {
+        @Override
+        public int compare(final Entry o1, final Entry o2) {
+            return Integer.compare(o1.position_, o2.position_);
+        }
+    };
+
+    private final BrowserVersion browserVersion_;
+    private final WebWindow webWindow_;
+    private final int innerWidth_;
+    private final int innerHeight_;
+
+    /** The style sheets of the list, in order, and their state when building the index. */
+    private final List<CSSStyleSheet> sheets_ = new ArrayList<>();
+    private final List<Boolean> sheetsUsed_ = new ArrayList<>();
+
+    /** All style sheets (including imported ones) the index is built from and their modification count. */
+    private final Map<CSSStyleSheet, Integer> modificationCounts_ = new IdentityHashMap<>();
+
+    private final Map<String, List<Entry>> idEntries_ = new HashMap<>();
+    private final Map<String, List<Entry>> classEntries_ = new HashMap<>();
+    private final Map<String, List<Entry>> tagEntries_ = new HashMap<>();
+    private final Map<String, List<Entry>> attributeEntries_ = new HashMap<>();
+    private final List<Entry> otherEntries_ = new ArrayList<>();
+    private int size_;
+
+    /**
+     * A selector of a style rule.
+     */
+    private static final class Entry {
+        private final Selector selector_;
+        private final CSSStyleRuleImpl rule_;
+        private final int position_;
+
+        Entry(final Selector selector, final CSSStyleRuleImpl rule, final int position) {
+            selector_ = selector;
+            rule_ = rule;
+            position_ = position;
+        }
+    }
+
+    /**
+     * Builds the index for the current state of the specified list.
+     * @param sheets the style sheets
+     * @param webWindow the window used to evaluate the media queries
+     */
+    public CSSCascadeIndex(final StyleSheetList sheets, final WebWindow webWindow) {
+        browserVersion_ = webWindow.getWebClient().getBrowserVersion();
+        webWindow_ = webWindow;
+        innerWidth_ = webWindow.getInnerWidth();
+        innerHeight_ = webWindow.getInnerHeight();
+
+        for (int i = 0; i < sheets.getLength(); i++) {
+            final CSSStyleSheet sheet = (CSSStyleSheet) sheets.item(i);
+            final boolean used = sheet.isActive() && sheet.isEnabled();
+            sheets_.add(sheet);
+            sheetsUsed_.add(used);
+            if (used) {
+                addSheet(sheet);
+                sheet.index(this);
+            }
+        }
+    }
+
+    /**
+     * Returns whether this index still reflects the specified list, the style sheets in there
+     * and the viewport.
+     * @param sheets the style sheets
+     * @return whether this index is up to date
+     */
+    public boolean isUpToDate(final StyleSheetList sheets) {
+        if (innerWidth_ != webWindow_.getInnerWidth() || innerHeight_ != webWindow_.getInnerHeight()) {
+            return false;
+        }
+
+        final int length = sheets.getLength();
+        if (length != sheets_.size()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            final CSSStyleSheet sheet = (CSSStyleSheet) sheets.item(i);
+            if (sheet != sheets_.get(i)
+                    || sheetsUsed_.get(i).booleanValue() != (sheet.isActive() && sheet.isEnabled())) {
+                return false;
+            }
+        }
+        for (final Map.Entry<CSSStyleSheet, Integer> entry : modificationCounts_.entrySet()) {
+            if (entry.getKey().getModificationCount() != entry.getValue().intValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Registers a style sheet contributing to this index.
+     * @param sheet the sheet
+     */
+    void addSheet(final CSSStyleSheet sheet) {
+        modificationCounts_.put(sheet, sheet.getModificationCount());
+    }
+
+    /**
+     * Adds a selector of a style rule; the rules have to be added in document order.
+     * @param selector the selector
+     * @param rule the rule
+     */
+    void add(final Selector selector, final CSSStyleRuleImpl rule) {
+        final Entry entry = new Entry(selector, rule, size_++);
+
+        final Selector subject = getSubject(selector);
+        if (SelectorType.ELEMENT_NODE_SELECTOR == subject.getSelectorType()) {
+            final ElementSelector es = (ElementSelector) subject;
+            final List<Condition> conditions = es.getConditions();
+            if (conditions != null) {
+                for (final Condition condition : conditions) {
+                    if (ConditionType.ID_CONDITION == condition.getConditionType()) {
+                        final String id = ((IdCondition) condition).getValue();
+                        if (id.indexOf('\\') == -1) {
+                            add(idEntries_, id, entry);
+                            return;
+                        }
+                    }
+                }
+                for (final Condition condition : conditions) {
+                    if (ConditionType.CLASS_CONDITION == condition.getConditionType()) {
+                        final String className = ((ClassCondition) condition).getValue();
+                        if (className.indexOf('\\') == -1) {
+                            add(classEntries_, className, entry);
+                            return;
+                        }
+                    }
+                }
+            }
+
+            final String name = es.getLocalNameLowerCase();
+            if (name != null) {
+                add(tagEntries_, name, entry);
+                return;
+            }
+
+            if (conditions != null) {
+                for (final Condition condition : conditions) {
+                    if (ConditionType.ATTRIBUTE_CONDITION == condition.getConditionType()) {
+                        final String attributeName = ((AttributeCondition) condition).getLocalName();
+                        if (attributeName != null) {
+                            add(attributeEntries_, attributeName.toLowerCase(Locale.ROOT), entry);
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+        otherEntries_.add(entry);
+    }
+
+    private static void add(final Map<String, List<Entry>> map, final String key, final Entry entry) {
+        List<Entry> entries = map.get(key);
+        if (entries == null) {
+            entries = new ArrayList<>();
+            map.put(key, entries);
+        }
+        entries.add(entry);
+    }
+
+    /**
+     * Returns the selector matching the element itself.
+     */
+    private static Selector getSubject(final Selector selector) {
+        switch (selector.getSelectorType()) {
+            case CHILD_SELECTOR:
+                return ((ChildSelector) selector).getSimpleSelector();
+            case DESCENDANT_SELECTOR:
+                return ((DescendantSelector) selector).getSimpleSelector();
+            case DIRECT_ADJACENT_SELECTOR:
+                return ((DirectAdjacentSelector) selector).getSimpleSelector();
+            case GENERAL_ADJACENT_SELECTOR:
+                return ((GeneralAdjacentSelector) selector).getSimpleSelector();
+            default:
+                return selector;
+        }
+    }
+
+    /**
+     * Modifies the specified style object by adding any style rules which apply to the specified
+     * element.
+     *
+     * @param style the style to modify
+     * @param element the element to which style rules must apply in order for them to be added to
+     *        the specified style
+     * @param pseudoElement a string specifying the pseudo-element to match (may be {@code null})
+     */
+    public void modifyIfNecessary(final ComputedCSSStyleDeclaration style, final Element element,
+            final String pseudoElement) {
+        final DomElement e = element.getDomNodeOrDie();
+
+        final List<List<Entry>> buckets = new ArrayList<>();
+        if (!otherEntries_.isEmpty()) {
+            buckets.add(otherEntries_);
+        }
+        addBucket(buckets, tagEntries_, e.getLowercaseName());
+        if (!idEntries_.isEmpty()) {
+            addBucket(buckets, idEntries_, e.getId());
+        }
+        if (!classEntries_.isEmpty()) {
+            final String classes = e.getAttributeDirect("class");
+            final int length = classes.length();
+            int start = -1;
+            for (int i = 0; i <= length; i++) {
+                if (i == length || Character.isWhitespace(classes.charAt(i))) {
+                    if (start != -1) {
+                        addBucket(buckets, classEntries_, classes.substring(start, i));
+                        start = -1;
+                    }
+                }
+                else if (start == -1) {
+                    start = i;
+                }
+            }
+        }
+        if (!attributeEntries_.isEmpty()) {
+            for (final String name : e.getAttributesMap().keySet()) {
+                addBucket(buckets, attributeEntries_, name.toLowerCase(Locale.ROOT));
+            }
+        }
+
+        final List<Entry> candidates;
+        if (buckets.size() == 1) {
+            candidates = buckets.get(0);
+        }
+        else {
+            candidates = new ArrayList<>();
+            for (final List<Entry> bucket : buckets) {
+                candidates.addAll(bucket);
+            }
+            Collections.sort(candidates, POSITION_COMPARATOR);
+        }
+
+        for (final Entry entry : candidates) {
+            if (CSSStyleSheet.selects(browserVersion_, entry.selector_, e, pseudoElement, false)) {
+                style.applyStyleFromSelector(entry.rule_.getStyle(), entry.selector_);
+            }
+        }
+    }
+
+    private static void addBucket(final List<List<Entry>> buckets, final Map<String, List<Entry>> map,
+            final String key) {
+        final List<Entry> bucket = map.get(key);
+        if (bucket != null) {
+            // the same bucket might be found twice, e.g. for class="a a"
+            for (final List<Entry> existing : buckets) {
+                if (existing == bucket) {
+                    return;
+                }
+            }
+            buckets.add(bucket);
+        }
+    }
+}
@@ -35,7 +35,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -118,7 +117,6 @@ import com.gargoylesoftware.htmlunit.javascript.configuration.JsxClass;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxFunction;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxGetter;
-import com.gargoylesoftware.htmlunit.javascript.host.Element;
 import com.gargoylesoftware.htmlunit.javascript.host.html.HTMLDocument;
 import com.gargoylesoftware.htmlunit.javascript.host.html.HTMLElement;
 import com.gargoylesoftware.htmlunit.util.UrlUtils;
@@ -166,6 +164,31 @@ public class CSSStyleSheet extends StyleSheet {
 
     private boolean enabled_ = true;
 
+    /** Incremented whenever the rules of this sheet are modified. */
+    private int modificationCount_;
+
+    /** The modification count for which {@link #selectorDependencies_} was determined. */
+    private int selectorDependenciesCount_ = -1;
+    private int selectorDependencies_;
+
+    /**
+     * Flag returned by {@link #getSelectorDependencies()}: some selectors match depending on the
+     * preceding siblings of an element (e.g. {@code a + b}, {@code a ~ b} or {@code :first-child}).
+     */
+    public static final int DEPENDS_ON_PRECEDING_SIBLINGS = 1;
+
+    /**
+     * Flag returned by {@link #getSelectorDependencies()}: some selectors match depending on the
+     * following siblings of an element (e.g. {@code :last-child} or {@code :only-child}).
+     */
+    public static final int DEPENDS_ON_FOLLOWING_SIBLINGS = 2;
+
+    /**
+     * Flag returned by {@link #getSelectorDependencies()}: some selectors match depending on the
+     * children of an element (e.g. {@code :empty}).
+     */
+    public static final int DEPENDS_ON_CHILDREN = 4;
+
     private static final Set<String> CSS2_PSEUDO_CLASSES = new HashSet<>(Arrays.asList(
             "link", "visited", "hover", "active",
             "focus", "lang", "first-child"));
@@ -228,28 +251,6 @@ public class CSSStyleSheet extends StyleSheet {
         return wrapped_;
     }
 
-    /**
-     * Modifies the specified style object by adding any style rules which apply to the specified
-     * element.
-     *
-     * @param style the style to modify
-     * @param element the element to which style rules must apply in order for them to be added to
-     *        the specified style
-     * @param pseudoElement a string specifying the pseudo-element to match (may be {@code null})
-     */
-    public void modifyIfNecessary(final ComputedCSSStyleDeclaration style, final Element element,
-            final String pseudoElement) {
-
-        final BrowserVersion browser = getBrowserVersion();
-        final DomElement e = element.getDomNodeOrDie();
-        final List<CSSStyleSheetImpl.SelectorEntry> matchingRules =
-                selects(getRuleIndex(), this, browser, e, pseudoElement, false);
-        for (CSSStyleSheetImpl.SelectorEntry entry : matchingRules) {
-            final org.w3c.dom.css.CSSStyleDeclaration dec = entry.getRule().getStyle();
-            style.applyStyleFromSelector(dec, entry.getSelector());
-        }
-    }
-
     /**
      * Loads the stylesheet at the specified link or href.
      * @param element the parent DOM element
@@ -1085,6 +1086,15 @@ public class CSSStyleSheet extends StyleSheet {
 
         // reset our index also
         ((CSSStyleSheetImpl) getWrappedSheet()).resetRuleIndex();
+        modificationCount_++;
+    }
+
+    /**
+     * Returns the modification count of this sheet; changes whenever rules are inserted or deleted.
+     * @return the modification count
+     */
+    int getModificationCount() {
+        return modificationCount_;
     }
 
     private int fixIndex(int index) {
@@ -1504,116 +1514,148 @@ public class CSSStyleSheet extends StyleSheet {
         }
     }
 
-    private CSSStyleSheetImpl.CSSStyleSheetRuleIndex getRuleIndex() {
-        final CSSStyleSheetImpl styleSheet = (CSSStyleSheetImpl) getWrappedSheet();
-        CSSStyleSheetImpl.CSSStyleSheetRuleIndex index = styleSheet.getRuleIndex();
+    /**
+     * Returns which parts of the document, beside the element itself and its ancestors, the selectors
+     * of this sheet (including imported sheets and media rules) depend on.
+     * This is used to invalidate only the required parts of the computed styles cache.
+     * @return a combination of {@link #DEPENDS_ON_PRECEDING_SIBLINGS}, {@link #DEPENDS_ON_FOLLOWING_SIBLINGS}
+     *         and {@link #DEPENDS_ON_CHILDREN}
+     */
+    public int getSelectorDependencies() {
+        if (modificationCount_ != selectorDependenciesCount_) {
+            selectorDependencies_ = selectorDependencies(
+                    (CSSRuleListImpl) getWrappedSheet().getCssRules(), new HashSet<String>());
+            selectorDependenciesCount_ = modificationCount_;
+        }
+        return selectorDependencies_;
+    }
+
+    private int selectorDependencies(final CSSRuleListImpl ruleList, final Set<String> alreadyProcessing) {
+        int dependencies = 0;
+        for (CSSRule rule : ruleList.getRules()) {
+            final short ruleType = rule.getType();
+            if (CSSRule.STYLE_RULE == ruleType) {
+                for (Selector selector : ((CSSStyleRuleImpl) rule).getSelectors()) {
+                    dependencies |= selectorDependencies(selector);
+                }
+            }
+            else if (CSSRule.IMPORT_RULE == ruleType) {
+                final CSSStyleSheet sheet = getImportedSheet((CSSImportRuleImpl) rule);
+                if (alreadyProcessing.add(sheet.getUri())) {
+                    dependencies |= selectorDependencies(
+                            (CSSRuleListImpl) sheet.getWrappedSheet().getCssRules(), alreadyProcessing);
+                }
+            }
+            else if (CSSRule.MEDIA_RULE == ruleType) {
+                dependencies |= selectorDependencies(
+                        (CSSRuleListImpl) ((CSSMediaRuleImpl) rule).getCssRules(), alreadyProcessing);
+            }
+        }
+        return dependencies;
+    }
+
+    private static int selectorDependencies(final Selector selector) {
+        switch (selector.getSelectorType()) {
+            case ELEMENT_NODE_SELECTOR:
+                int dependencies = 0;
+                final List<Condition> conditions = ((ElementSelector) selector).getConditions();
+                if (conditions != null) {
+                    for (Condition condition : conditions) {
+                        if (ConditionType.PSEUDO_CLASS_CONDITION == condition.getConditionType()) {
+                            dependencies |= pseudoClassDependencies(((PseudoClassCondition) condition).getValue());
+                        }
+                    }
+                }
+                return dependencies;
+
+            case CHILD_SELECTOR:
+                final ChildSelector cs = (ChildSelector) selector;
+                return selectorDependencies(cs.getSimpleSelector()) | selectorDependencies(cs.getAncestorSelector());
+
+            case DESCENDANT_SELECTOR:
+                final DescendantSelector ds = (DescendantSelector) selector;
+                return selectorDependencies(ds.getSimpleSelector()) | selectorDependencies(ds.getAncestorSelector());
+
+            case DIRECT_ADJACENT_SELECTOR:
+                final DirectAdjacentSelector das = (DirectAdjacentSelector) selector;
+                return DEPENDS_ON_PRECEDING_SIBLINGS
+                        | selectorDependencies(das.getSimpleSelector()) | selectorDependencies(das.getSelector());
+
+            case GENERAL_ADJACENT_SELECTOR:
+                final GeneralAdjacentSelector gas = (GeneralAdjacentSelector) selector;
+                return DEPENDS_ON_PRECEDING_SIBLINGS
+                        | selectorDependencies(gas.getSimpleSelector()) | selectorDependencies(gas.getSelector());
 
-        if (index == null) {
-            index = new CSSStyleSheetImpl.CSSStyleSheetRuleIndex();
-            final CSSRuleListImpl ruleList = (CSSRuleListImpl) styleSheet.getCssRules();
-            index(index, ruleList, new HashSet<String>());
+            default:
+                return 0;
+        }
+    }
 
-            styleSheet.setRuleIndex(index);
+    private static int pseudoClassDependencies(final String value) {
+        // the value of :not() contains the nested selector as string
+        int dependencies = 0;
+        if (value.contains("first-") || value.contains("nth-child") || value.contains("nth-of-type")
+                || value.contains("only-")) {
+            dependencies |= DEPENDS_ON_PRECEDING_SIBLINGS;
         }
-        return index;
+        if (value.contains("last-") || value.contains("only-")) {
+            dependencies |= DEPENDS_ON_FOLLOWING_SIBLINGS;
+        }
+        if (value.contains("empty")) {
+            dependencies |= DEPENDS_ON_CHILDREN;
+        }
+        return dependencies;
     }
 
-    private void index(final CSSStyleSheetImpl.CSSStyleSheetRuleIndex index, final CSSRuleListImpl ruleList,
-            final Set<String> alreadyProcessing) {
+    /**
+     * Returns the sheet imported by the specified rule, loading it on first use.
+     */
+    private CSSStyleSheet getImportedSheet(final CSSImportRuleImpl importRule) {
+        CSSStyleSheet sheet = imports_.get(importRule);
+        if (sheet == null) {
+            final String url = UrlUtils.resolveUrl(getUri(), importRule.getHref());
+            sheet = loadStylesheet(ownerNode_, null, url);
+            imports_.put(importRule, sheet);
+        }
+        return sheet;
+    }
 
+    /**
+     * Adds the style rules of this sheet, including imported sheets and active media rules, to
+     * the specified document wide index.
+     * @param index the index to fill
+     */
+    void index(final CSSCascadeIndex index) {
+        index(index, (CSSRuleListImpl) getWrappedSheet().getCssRules(), new HashSet<String>());
+    }
+
+    private void index(final CSSCascadeIndex index, final CSSRuleListImpl ruleList,
+            final Set<String> alreadyProcessing) {
         for (CSSRule rule : ruleList.getRules()) {
             final short ruleType = rule.getType();
             if (CSSRule.STYLE_RULE == ruleType) {
                 final CSSStyleRuleImpl styleRule = (CSSStyleRuleImpl) rule;
-                final SelectorList selectors = styleRule.getSelectors();
-                for (Selector selector : selectors) {
-                    final SimpleSelector simpleSel = selector.getSimpleSelector();
-                    if (SelectorType.ELEMENT_NODE_SELECTOR == simpleSel.getSelectorType()) {
-                        final ElementSelector es = (ElementSelector) simpleSel;
-                        boolean wasClass = false;
-                        final List<Condition> conds = es.getConditions();
-                        if (conds != null && conds.size() == 1) {
-                            final Condition c = conds.get(0);
-                            if (ConditionType.CLASS_CONDITION == c.getConditionType()) {
-                                index.addClassSelector(es, ((ClassCondition) c).getValue(), selector, styleRule);
-                                wasClass = true;
-                            }
-                        }
-                        if (!wasClass) {
-                            index.addElementSelector(es, selector, styleRule);
-                        }
-                    }
-                    else {
-                        index.addOtherSelector(selector, styleRule);
-                    }
+                for (Selector selector : styleRule.getSelectors()) {
+                    index.add(selector, styleRule);
                 }
             }
             else if (CSSRule.IMPORT_RULE == ruleType) {
                 final CSSImportRuleImpl importRule = (CSSImportRuleImpl) rule;
-                final MediaList mediaList = importRule.getMedia();
-
-                CSSStyleSheet sheet = imports_.get(importRule);
-                if (sheet == null) {
-                    final String href = importRule.getHref();
-                    final String url = UrlUtils.resolveUrl(getUri(), href);
-                    sheet = loadStylesheet(ownerNode_, null, url);
-                    imports_.put(importRule, sheet);
-                }
-
+                final CSSStyleSheet sheet = getImportedSheet(importRule);
                 if (!alreadyProcessing.contains(sheet.getUri())) {
-                    final CSSRuleList sheetRuleList = sheet.getWrappedSheet().getCssRules();
                     alreadyProcessing.add(sheet.getUri());
-
-                    if (mediaList.getLength() == 0 && index.getMediaList().getLength() == 0) {
-                        index(index, (CSSRuleListImpl) sheetRuleList, alreadyProcessing);
-                    }
-                    else {
-                        index(index.addMedia(mediaList), (CSSRuleListImpl) sheetRuleList, alreadyProcessing);
+                    if (isActive(this, importRule.getMedia())) {
+                        index.addSheet(sheet);
+                        index(index, (CSSRuleListImpl) sheet.getWrappedSheet().getCssRules(), alreadyProcessing);
                     }
                 }
             }
             else if (CSSRule.MEDIA_RULE == ruleType) {
                 final CSSMediaRuleImpl mediaRule = (CSSMediaRuleImpl) rule;
-                final MediaList mediaList = mediaRule.getMedia();
-                if (mediaList.getLength() == 0 && index.getMediaList().getLength() == 0) {
+                if (isActive(this, mediaRule.getMedia())) {
                     index(index, (CSSRuleListImpl) mediaRule.getCssRules(), alreadyProcessing);
                 }
-                else {
-                    index(index.addMedia(mediaList), (CSSRuleListImpl) mediaRule.getCssRules(), alreadyProcessing);
-                }
-            }
-        }
-    }
-
-    private List<CSSStyleSheetImpl.SelectorEntry> selects(
-                            final CSSStyleSheetImpl.CSSStyleSheetRuleIndex index,
-                            final SimpleScriptable scriptable,
-                            final BrowserVersion browserVersion, final DomElement element,
-                            final String pseudoElement, final boolean fromQuerySelectorAll) {
-
-        final List<CSSStyleSheetImpl.SelectorEntry> matchingRules = new ArrayList<>();
-
-        if (CSSStyleSheet.isActive(scriptable, index.getMediaList())) {
-            final String elementName = element.getLowercaseName();
-            final String[] classes = StringUtils.split(element.getAttributeDirect("class"), null, -1);
-            final Iterator<CSSStyleSheetImpl.SelectorEntry> iter =
-                    index.getSelectorEntriesIteratorFor(elementName, classes);
-
-            CSSStyleSheetImpl.SelectorEntry entry = iter.next();
-            while (null != entry) {
-                if (CSSStyleSheet.selects(browserVersion, entry.getSelector(),
-                                            element, pseudoElement, fromQuerySelectorAll)) {
-                    matchingRules.add(entry);
-                }
-                entry = iter.next();
-            }
-
-            for (CSSStyleSheetImpl.CSSStyleSheetRuleIndex child : index.getChildren()) {
-                matchingRules.addAll(selects(child, scriptable, browserVersion,
-                                                    element, pseudoElement, fromQuerySelectorAll));
             }
         }
-
-        return matchingRules;
     }
 }
@@ -87,11 +87,13 @@ import static com.gargoylesoftware.htmlunit.javascript.host.css.StyleAttributes.
 import static com.gargoylesoftware.htmlunit.javascript.host.css.StyleAttributes.Definition.WIDTH;
 import static com.gargoylesoftware.htmlunit.javascript.host.css.StyleAttributes.Definition.WORD_SPACING;
 
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.SortedMap;
-import java.util.TreeMap;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -124,6 +126,7 @@ import com.gargoylesoftware.htmlunit.html.HtmlTextArea;
 import com.gargoylesoftware.htmlunit.html.HtmlTextInput;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxClass;
 import com.gargoylesoftware.htmlunit.javascript.host.Element;
+import com.gargoylesoftware.htmlunit.javascript.host.Window;
 import com.gargoylesoftware.htmlunit.javascript.host.css.StyleAttributes.Definition;
 import com.gargoylesoftware.htmlunit.javascript.host.dom.Text;
 import com.gargoylesoftware.htmlunit.javascript.host.html.HTMLBodyElement;
@@ -195,10 +198,18 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
         WORD_SPACING);
 
     /**
-     * Local modifications maintained here rather than in the element. We use a sorted
-     * map so that results are deterministic and thus easily testable.
+     * Local modifications maintained here rather than in the element. The array is indexed by
+     * {@link StyleAttributes#getAttributeIndex(String)} and allocated on first use; modifications of
+     * attributes without a definition are kept in {@link #otherLocalModifications_}.
      */
-    private final SortedMap<String, StyleElement> localModifications_ = new TreeMap<>();
+    private StyleElement[] localModifications_;
+    private Map<String, StyleElement> otherLocalModifications_;
+
+    /**
+     * Whether the local modifications are shared with other computed styles
+     * (see {@link #shareLocalModifications(ComputedCSSStyleDeclaration)}) and have to be copied before changing them.
+     */
+    private boolean localModificationsShared_;
 
     /** The computed, cached width of the element to which this computed style belongs (no padding, borders, etc). */
     private Integer width_;
@@ -230,6 +241,28 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
     /** The computed, cached top of the element to which this computed style belongs. */
     private Integer top_;
 
+    /**
+     * The computed, cached vertical displacement of the element to which this computed style belongs
+     * caused by its previous siblings.
+     */
+    private Integer flowTop_;
+
+    /**
+     * The computed, cached horizontal displacement of the element to which this computed style belongs
+     * caused by its previous (inline) siblings.
+     */
+    private Integer flowLeft_;
+
+    /** The computed, cached total height of the children of the element to which this computed style belongs. */
+    private Integer contentHeight_;
+
+    /**
+     * The {@link Window#getLayoutGeneration() layout generation} the cached geometry values
+     * (width, height, top...) were calculated for. Changes of the document discard the affected values
+     * directly, see {@link #clearCachedSize()} and {@link #clearCachedPosition()}.
+     */
+    private int layoutGeneration_ = -1;
+
     /**
      * Creates an instance.
      */
@@ -278,7 +311,7 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
     private void applyLocalStyleAttribute(final String name, final String newValue, final String priority,
             final SelectorSpecificity specificity) {
         if (!StyleElement.PRIORITY_IMPORTANT.equals(priority)) {
-            final StyleElement existingElement = localModifications_.get(name);
+            final StyleElement existingElement = getLocalModification(name);
             if (existingElement != null) {
                 if (StyleElement.PRIORITY_IMPORTANT.equals(existingElement.getPriority())) {
                     return; // can't override a !important rule by a normal rule. Ignore it!
@@ -289,7 +322,7 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
             }
         }
         final StyleElement element = new StyleElement(name, newValue, priority, specificity);
-        localModifications_.put(name, element);
+        putLocalModification(name, element);
     }
 
     /**
@@ -302,15 +335,70 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
      */
     public void setDefaultLocalStyleAttribute(final String name, final String newValue) {
         final StyleElement element = new StyleElement(name, newValue, "", SelectorSpecificity.DEFAULT_STYLE_ATTRIBUTE);
-        localModifications_.put(name, element);
+        putLocalModification(name, element);
+    }
+
+    /**
+     * Reuses the local modifications of the specified style instead of applying the style sheets again.
+     * This is only valid if the specified style belongs to an element which has the same style
+     * inputs (parent, tag, attributes) as the element of this style; the map is shared and only copied
+     * if one of the styles is modified later on.
+     *
+     * @param style the computed style to share the local modifications with
+     */
+    public void shareLocalModifications(final ComputedCSSStyleDeclaration style) {
+        localModifications_ = style.localModifications_;
+        otherLocalModifications_ = style.otherLocalModifications_;
+        localModificationsShared_ = true;
+        style.localModificationsShared_ = true;
+    }
+
+    private StyleElement getLocalModification(final String name) {
+        final int index = StyleAttributes.getAttributeIndex(name);
+        if (index != -1) {
+            if (localModifications_ == null) {
+                return null;
+            }
+            return localModifications_[index];
+        }
+        if (otherLocalModifications_ == null) {
+            return null;
+        }
+        return otherLocalModifications_.get(name);
+    }
+
+    private void putLocalModification(final String name, final StyleElement element) {
+        if (localModificationsShared_) {
+            if (localModifications_ != null) {
+                localModifications_ = localModifications_.clone();
+            }
+            if (otherLocalModifications_ != null) {
+                otherLocalModifications_ = new HashMap<>(otherLocalModifications_);
+            }
+            localModificationsShared_ = false;
+        }
+
+        final int index = StyleAttributes.getAttributeIndex(name);
+        if (index != -1) {
+            if (localModifications_ == null) {
+                localModifications_ = new StyleElement[StyleAttributes.getAttributeCount()];
+            }
+            localModifications_[index] = element;
+        }
+        else {
+            if (otherLocalModifications_ == null) {
+                otherLocalModifications_ = new HashMap<>();
+            }
+            otherLocalModifications_.put(name, element);
+        }
     }
 
     @Override
     protected StyleElement getStyleElement(final String name) {
         final StyleElement existent = super.getStyleElement(name);
 
-        if (localModifications_ != null) {
-            final StyleElement localStyleMod = localModifications_.get(name);
+        if (localModifications_ != null || otherLocalModifications_ != null) {
+            final StyleElement localStyleMod = getLocalModification(name);
             if (localStyleMod == null) {
                 return existent;
             }
@@ -1006,6 +1094,7 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
     }
 
     private int getCalculatedWidth() {
+        validateLayout();
         if (width_ != null) {
             return width_.intValue();
         }
@@ -1171,6 +1260,7 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
      * @return the element's calculated height, taking both relevant CSS and the element's children into account
      */
     private int getCalculatedHeight() {
+        validateLayout();
         if (height_ != null) {
             return height_.intValue();
         }
@@ -1200,6 +1290,7 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
      *         elements
      */
     private int getEmptyHeight() {
+        validateLayout();
         if (height2_ != null) {
             return height2_.intValue();
         }
@@ -1293,8 +1384,14 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
         //  - elements with position:static or position:relative (elements that flow and build on each other)
         //  - elements with position:absolute (independent elements)
 
+        validateLayout();
+        if (contentHeight_ != null) {
+            return contentHeight_.intValue();
+        }
+
         final DomNode node = getElement().getDomNodeOrDie();
         if (!node.mayBeDisplayed()) {
+            contentHeight_ = Integer.valueOf(0);
             return 0;
         }
 
@@ -1328,6 +1425,7 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
                 max = h;
             }
         }
+        contentHeight_ = Integer.valueOf(max);
         return max;
     }
 
@@ -1369,6 +1467,7 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
      * @return the computed top (Y coordinate), relative to the node's parent's top edge
      */
     public int getTop(final boolean includeMargin, final boolean includeBorder, final boolean includePadding) {
+        validateLayout();
         int top = 0;
         if (null == top_) {
             final String p = getPositionWithInheritance();
@@ -1377,41 +1476,7 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
             }
             else {
                 // Calculate the vertical displacement caused by *previous* siblings.
-                DomNode prev = getElement().getDomNodeOrDie().getPreviousSibling();
-                boolean prevHadComputedTop = false;
-                while (prev != null && !prevHadComputedTop) {
-                    if (prev instanceof HtmlElement) {
-                        final Element e = prev.getScriptableObject();
-                        final ComputedCSSStyleDeclaration style = e.getWindow().getComputedStyle(e, null);
-
-                        // only previous block elements are counting
-                        final String display = style.getDisplay();
-                        if ("block".equals(display)) {
-                            int prevTop = 0;
-                            if (style.top_ == null) {
-                                final String prevPosition = style.getPositionWithInheritance();
-                                if ("absolute".equals(prevPosition)) {
-                                    prevTop += style.getTopForAbsolutePositionWithInheritance();
-                                }
-                                else {
-                                    if ("relative".equals(prevPosition)) {
-                                        final String t = style.getTopWithInheritance();
-                                        prevTop += pixelValue(t);
-                                    }
-                                }
-                            }
-                            else {
-                                prevHadComputedTop = true;
-                                prevTop += style.top_;
-                            }
-                            prevTop += style.getCalculatedHeight(true, true);
-                            final int margin = pixelValue(style.getMarginTop());
-                            prevTop += margin;
-                            top += prevTop;
-                        }
-                    }
-                    prev = prev.getPreviousSibling();
-                }
+                top = getFlowTop();
                 // If the position is relative, we also need to add the specified "top" displacement.
                 if ("relative".equals(p)) {
                     final String t = getTopWithInheritance();
@@ -1442,6 +1507,61 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
         return top;
     }
 
+    /**
+     * Returns the vertical displacement caused by the previous siblings.
+     * The previous siblings are laid out in one pass, starting at the nearest one with a known displacement,
+     * and their displacements are cached too; therefore asking for the top of all children of an element
+     * is linear rather than quadratic.
+     * @return the vertical displacement caused by the previous siblings
+     */
+    private int getFlowTop() {
+        if (flowTop_ != null) {
+            return flowTop_.intValue();
+        }
+
+        final List<ComputedCSSStyleDeclaration> siblings = new ArrayList<>();
+        DomNode prev = getElement().getDomNodeOrDie().getPreviousSibling();
+        while (prev != null) {
+            if (prev instanceof HtmlElement) {
+                final Element e = prev.getScriptableObject();
+                final ComputedCSSStyleDeclaration style = e.getWindow().getComputedStyle(e, null);
+                style.validateLayout();
+                siblings.add(style);
+                if (style.flowTop_ != null) {
+                    break;
+                }
+            }
+            prev = prev.getPreviousSibling();
+        }
+
+        int top = 0;
+        for (int i = siblings.size() - 1; i >= 0; i--) {
+            final ComputedCSSStyleDeclaration style = siblings.get(i);
+            if (style.flowTop_ == null) {
+                style.flowTop_ = Integer.valueOf(top);
+            }
+            else {
+                top = style.flowTop_.intValue();
+            }
+
+            // only previous block elements are counting
+            if ("block".equals(style.getDisplay())) {
+                final String prevPosition = style.getPositionWithInheritance();
+                if ("absolute".equals(prevPosition)) {
+                    top += style.getTopForAbsolutePositionWithInheritance();
+                }
+                else if ("relative".equals(prevPosition)) {
+                    top += pixelValue(style.getTopWithInheritance());
+                }
+                top += style.getCalculatedHeight(true, true);
+                top += pixelValue(style.getMarginTop());
+            }
+        }
+
+        flowTop_ = Integer.valueOf(top);
+        return top;
+    }
+
     private int getTopForAbsolutePositionWithInheritance() {
         int top = 0;
         final String t = getTopWithInheritance();
@@ -1509,33 +1629,7 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
         }
         else if (STATIC.equals(p)) {
             // We need to calculate the horizontal displacement caused by *previous* siblings.
-            left = 0;
-            DomNode prev = getElement().getDomNodeOrDie().getPreviousSibling();
-            while (prev != null) {
-                if (prev instanceof HtmlTableRow) {
-                    break;
-                }
-
-                final Scriptable prevScriptable = prev.getScriptableObject();
-                if (prevScriptable instanceof HTMLElement) {
-                    final HTMLElement e = (HTMLElement) prevScriptable;
-                    final ComputedCSSStyleDeclaration style = e.getWindow().getComputedStyle(e, null);
-                    final String d = style.getDisplay();
-                    if ("block".equals(d)) {
-                        break;
-                    }
-                    else if (!"none".equals(d)) {
-                        left += style.getCalculatedWidth(true, true);
-                    }
-                }
-                else if (prevScriptable instanceof Text) {
-                    final String content = prev.getTextContent();
-                    if (content != null) {
-                        left += content.trim().length() * getBrowserVersion().getPixesPerChar();
-                    }
-                }
-                prev = prev.getPreviousSibling();
-            }
+            left = getFlowLeft();
         }
         else {
             // Just use the CSS specified value.
@@ -1560,6 +1654,114 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
         return left;
     }
 
+    /**
+     * Returns the horizontal displacement caused by the previous inline siblings.
+     * Like {@link #getFlowTop()}, the previous siblings are laid out in one pass and their displacements are
+     * cached too.
+     * @return the horizontal displacement caused by the previous inline siblings
+     */
+    private int getFlowLeft() {
+        validateLayout();
+        if (flowLeft_ != null) {
+            return flowLeft_.intValue();
+        }
+
+        // the styles of the previous elements, or the text nodes
+        final List<Object> siblings = new ArrayList<>();
+        DomNode prev = getElement().getDomNodeOrDie().getPreviousSibling();
+        while (prev != null) {
+            if (prev instanceof HtmlTableRow) {
+                break;
+            }
+
+            final Scriptable prevScriptable = prev.getScriptableObject();
+            if (prevScriptable instanceof HTMLElement) {
+                final HTMLElement e = (HTMLElement) prevScriptable;
+                final ComputedCSSStyleDeclaration style = e.getWindow().getComputedStyle(e, null);
+                if ("block".equals(style.getDisplay())) {
+                    break;
+                }
+                style.validateLayout();
+                siblings.add(style);
+                if (style.flowLeft_ != null) {
+                    break;
+                }
+            }
+            else if (prevScriptable instanceof Text) {
+                siblings.add(prev);
+            }
+            prev = prev.getPreviousSibling();
+        }
+
+        int left = 0;
+        for (int i = siblings.size() - 1; i >= 0; i--) {
+            final Object sibling = siblings.get(i);
+            if (sibling instanceof ComputedCSSStyleDeclaration) {
+                final ComputedCSSStyleDeclaration style = (ComputedCSSStyleDeclaration) sibling;
+                if (style.flowLeft_ == null) {
+                    style.flowLeft_ = Integer.valueOf(left);
+                }
+                else {
+                    left = style.flowLeft_.intValue();
+                }
+                if (!"none".equals(style.getDisplay())) {
+                    left += style.getCalculatedWidth(true, true);
+                }
+            }
+            else {
+                final String content = ((DomNode) sibling).getTextContent();
+                if (content != null) {
+                    left += content.trim().length() * getBrowserVersion().getPixesPerChar();
+                }
+            }
+        }
+
+        flowLeft_ = Integer.valueOf(left);
+        return left;
+    }
+
+    /**
+     * Discards the cached size (width and height) of the element, because its content has changed.
+     */
+    public void clearCachedSize() {
+        width_ = null;
+        height_ = null;
+        height2_ = null;
+        contentHeight_ = null;
+    }
+
+    /**
+     * Discards the cached position of the element, because one of its previous siblings has changed.
+     */
+    public void clearCachedPosition() {
+        top_ = null;
+        flowTop_ = null;
+        flowLeft_ = null;
+    }
+
+    /**
+     * Discards all cached geometry values (width, height, top...) if the layout of the window
+     * has changed since they were calculated.
+     */
+    private void validateLayout() {
+        final int generation = getElement().getWindow().getLayoutGeneration();
+        if (layoutGeneration_ != generation) {
+            clearCachedSize();
+            clearCachedPosition();
+            layoutGeneration_ = generation;
+        }
+    }
+
+    /**
+     * Returns whether the position and the size of the element are cached.
+     * This method is intended for testing only.
+     * @return whether the position and the size of the element are cached
+     */
+    boolean isLayoutCached() {
+        validateLayout();
+        return top_ != null && height_ != null;
+    }
+
     /**
      * Returns the CSS {@code position} attribute, replacing inherited values with the actual parent values.
      * @return the CSS {@code position} attribute, replacing inherited values with the actual parent values
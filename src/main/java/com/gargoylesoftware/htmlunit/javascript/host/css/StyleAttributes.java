@@ -21,9 +21,11 @@ import static com.gargoylesoftware.htmlunit.javascript.host.css.BrowserConfigura
 import static com.gargoylesoftware.htmlunit.javascript.host.css.BrowserConfiguration.ie;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.gargoylesoftware.htmlunit.BrowserVersion;
 
@@ -37,9 +39,25 @@ import com.gargoylesoftware.htmlunit.BrowserVersion;
 public final class StyleAttributes {
     private static final Map<String, Definition> styles_ = new HashMap<>();
 
+    /** The dense index of every distinct attribute name, see {@link #getAttributeIndex(String)}. */
+    private static final Map<String, Integer> attributeIndexes_ = new HashMap<>();
+
+    /**
+     * The availability of the definitions, as bit sets indexed by the ordinal; the first one contains all
+     * available definitions, the second one only the iteratable ones. The availability only depends
+     * on the nickname and the numeric version (see {@link BrowserConfiguration}), these are used as key
+     * so that custom browser versions don't add entries.
+     */
+    private static final Map<String, BitSet[]> availability_ = new ConcurrentHashMap<>();
+
     static {
         for (final Definition definition : Definition.values()) {
             styles_.put(definition.getPropertyName(), definition);
+
+            final String attributeName = definition.getAttributeName();
+            if (!attributeIndexes_.containsKey(attributeName)) {
+                attributeIndexes_.put(attributeName, attributeIndexes_.size());
+            }
         }
     }
 
@@ -62,7 +80,7 @@ public final class StyleAttributes {
         if (definition == null) {
             return null;
         }
-        if (!definition.isAvailable(browserVersion, false)) {
+        if (!getAvailability(browserVersion)[0].get(definition.ordinal())) {
             return null;
         }
         return definition;
@@ -75,15 +93,57 @@ public final class StyleAttributes {
      */
     public static List<Definition> getDefinitions(final BrowserVersion browserVersion) {
         final List<Definition> list = new ArrayList<>();
-        for (final Definition definition : Definition.values()) {
-            if (definition.isAvailable(browserVersion, true)) {
-                list.add(definition);
-            }
+        final Definition[] definitions = Definition.values();
+        final BitSet iteratable = getAvailability(browserVersion)[1];
+        for (int i = iteratable.nextSetBit(0); i >= 0; i = iteratable.nextSetBit(i + 1)) {
+            list.add(definitions[i]);
         }
 
         return list;
     }
 
+    private static BitSet[] getAvailability(final BrowserVersion browserVersion) {
+        final String key = browserVersion.getNickname() + '/' + browserVersion.getBrowserVersionNumeric();
+        BitSet[] availability = availability_.get(key);
+        if (availability == null) {
+            final BitSet available = new BitSet();
+            final BitSet iteratable = new BitSet();
+            for (final Definition definition : Definition.values()) {
+                if (definition.isAvailable(browserVersion, false)) {
+                    available.set(definition.ordinal());
+                }
+                if (definition.isAvailable(browserVersion, true)) {
+                    iteratable.set(definition.ordinal());
+                }
+            }
+            availability = new BitSet[] {available, iteratable};
+            availability_.put(key, availability);
+        }
+        return availability;
+    }
+
+    /**
+     * Returns a dense index for the given style attribute name (e.g. {@code margin-left}), which is
+     * the same for all definitions sharing this attribute name.
+     * @param attributeName the attribute name
+     * @return the index or {@code -1} if there is no definition for this attribute name
+     */
+    static int getAttributeIndex(final String attributeName) {
+        final Integer index = attributeIndexes_.get(attributeName);
+        if (index == null) {
+            return -1;
+        }
+        return index.intValue();
+    }
+
+    /**
+     * Returns the number of distinct attribute names.
+     * @return the number of attribute names
+     */
+    static int getAttributeCount() {
+        return attributeIndexes_.size();
+    }
+
     /**
      * Holds information about a style attribute (CSS name, property name, browser availability, default computed value.
      * TODO: move all (?) style attribute definitions here.
@@ -66,6 +66,9 @@ public class StyleSheetList extends SimpleScriptable {
      */
     private HTMLCollection nodes_;
 
+    /** The index of the rules of all style sheets, rebuilt when this list or the sheets change. */
+    private CSSCascadeIndex cascadeIndex_;
+
     /**
      * Verifies if the provided node is a link node pointing to a stylesheet.
      *
@@ -189,6 +192,19 @@ public class StyleSheetList extends SimpleScriptable {
         return ((HTMLLinkElement) element).getSheet();
     }
 
+    /**
+     * Returns the document wide index of the style rules of the active style sheets in this list.
+     * The index is rebuilt if the list, one of its sheets or the viewport has changed.
+     *
+     * @return the cascade index
+     */
+    public CSSCascadeIndex getCascadeIndex() {
+        if (cascadeIndex_ == null || !cascadeIndex_.isUpToDate(this)) {
+            cascadeIndex_ = new CSSCascadeIndex(this, getWindow().getWebWindow());
+        }
+        return cascadeIndex_;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -20,13 +20,13 @@ import static com.gargoylesoftware.htmlunit.BrowserVersionFeatures.JS_NODE_LIST_
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.CHROME;
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.List;
 
 import com.gargoylesoftware.htmlunit.BrowserVersion;
-import com.gargoylesoftware.htmlunit.html.DomChangeEvent;
-import com.gargoylesoftware.htmlunit.html.DomChangeListener;
 import com.gargoylesoftware.htmlunit.html.DomElement;
 import com.gargoylesoftware.htmlunit.html.DomNode;
 import com.gargoylesoftware.htmlunit.html.HtmlAttributeChangeEvent;
@@ -68,6 +68,12 @@ public class AbstractList extends SimpleScriptable implements Function {
         RESET
     }
 
+    /**
+     * The references to the collections which have been garbage collected;
+     * their attribute change listeners are removed when the next listener is registered.
+     */
+    private static final ReferenceQueue<AbstractList> COLLECTED_LISTS = new ReferenceQueue<>();
+
     private boolean avoidObjectDetection_;
 
     private boolean attributeChangeSensitive_;
@@ -77,6 +83,12 @@ public class AbstractList extends SimpleScriptable implements Function {
      */
     private List<DomNode> cachedElements_;
 
+    /**
+     * The {@link DomNode#getModificationCount() modification count} of the reference node
+     * the cached elements were computed for.
+     */
+    private int cachedModificationCount_;
+
     private boolean listenerRegistered_;
 
     /**
@@ -128,6 +140,9 @@ public class AbstractList extends SimpleScriptable implements Function {
         attributeChangeSensitive_ = attributeChangeSensitive;
         cachedElements_ = initialElements;
         if (initialElements != null) {
+            if (domNode != null) {
+                cachedModificationCount_ = domNode.getModificationCount();
+            }
             registerListener();
         }
     }
@@ -223,6 +238,13 @@ public class AbstractList extends SimpleScriptable implements Function {
         // a bit strange but we like to avoid sync
         List<DomNode> cachedElements = cachedElements_;
 
+        // nodes added or removed below the reference node invalidate the cache
+        final DomNode domNode = getDomNodeOrNull();
+        final int modificationCount = domNode == null ? 0 : domNode.getModificationCount();
+        if (cachedElements != null && cachedModificationCount_ != modificationCount) {
+            cachedElements = null;
+        }
+
         if (cachedElements == null) {
             if (getParentScope() == null) {
                 cachedElements = new ArrayList<>();
@@ -230,6 +252,7 @@ public class AbstractList extends SimpleScriptable implements Function {
             else {
                 cachedElements = computeElements();
             }
+            cachedModificationCount_ = modificationCount;
             cachedElements_ = cachedElements;
         }
         registerListener();
@@ -239,13 +262,18 @@ public class AbstractList extends SimpleScriptable implements Function {
         return cachedElements;
     }
 
+    /**
+     * Registers a listener for attribute changes if the collection depends on attributes;
+     * added or removed nodes are detected using the {@link DomNode#getModificationCount() modification count}
+     * of the reference node.
+     */
     private void registerListener() {
         if (!listenerRegistered_) {
             final DomNode domNode = getDomNodeOrNull();
             if (domNode != null) {
-                final DomHtmlAttributeChangeListenerImpl listener = new DomHtmlAttributeChangeListenerImpl(this);
-                domNode.addDomChangeListener(listener);
                 if (attributeChangeSensitive_) {
+                    removeCollectedListeners();
+                    final HtmlAttributeChangeListenerImpl listener = new HtmlAttributeChangeListenerImpl(this, domNode);
                     if (domNode instanceof HtmlElement) {
                         ((HtmlElement) domNode).addHtmlAttributeChangeListener(listener);
                     }
@@ -258,6 +286,17 @@ public class AbstractList extends SimpleScriptable implements Function {
         }
     }
 
+    /**
+     * Removes the attribute change listeners of the collections which have been garbage collected.
+     */
+    private static void removeCollectedListeners() {
+        Reference<? extends AbstractList> reference = COLLECTED_LISTS.poll();
+        while (reference != null) {
+            ((NodeListReference) reference).removeListener();
+            reference = COLLECTED_LISTS.poll();
+        }
+    }
+
     /**
      * Returns the elements whose associated host objects are available through this collection.
      * @return the elements whose associated host objects are available through this collection
@@ -558,31 +597,41 @@ public class AbstractList extends SimpleScriptable implements Function {
         }
     }
 
-    private static final class DomHtmlAttributeChangeListenerImpl
-                                    implements DomChangeListener, HtmlAttributeChangeListener {
-
-        private transient WeakReference<AbstractList> nodeList_;
+    /**
+     * A weak reference to a collection, knowing how to remove the attribute change listener
+     * of the collection once it has been garbage collected.
+     */
+    private static final class NodeListReference extends WeakReference<AbstractList> {
 
-        private DomHtmlAttributeChangeListenerImpl(final AbstractList nodeList) {
-            super();
+        private final HtmlAttributeChangeListener listener_;
+        private final WeakReference<DomNode> domNode_;
 
-            nodeList_ = new WeakReference<>(nodeList);
+        private NodeListReference(final AbstractList nodeList, final HtmlAttributeChangeListener listener,
+                final DomNode domNode) {
+            super(nodeList, COLLECTED_LISTS);
+            listener_ = listener;
+            domNode_ = new WeakReference<>(domNode);
         }
 
-        /**
-         * {@inheritDoc}
-         */
-        @Override
-        public void nodeAdded(final DomChangeEvent event) {
-            clearCache();
+        private void removeListener() {
+            final DomNode domNode = domNode_.get();
+            if (domNode instanceof HtmlElement) {
+                ((HtmlElement) domNode).removeHtmlAttributeChangeListener(listener_);
+            }
+            else if (domNode instanceof HtmlPage) {
+                ((HtmlPage) domNode).removeHtmlAttributeChangeListener(listener_);
+            }
         }
+    }
 
-        /**
-         * {@inheritDoc}
-         */
-        @Override
-        public void nodeDeleted(final DomChangeEvent event) {
-            clearCache();
+    private static final class HtmlAttributeChangeListenerImpl implements HtmlAttributeChangeListener {
+
+        private transient WeakReference<AbstractList> nodeList_;
+
+        private HtmlAttributeChangeListenerImpl(final AbstractList nodeList, final DomNode domNode) {
+            super();
+
+            nodeList_ = new NodeListReference(nodeList, this, domNode);
         }
 
         /**
@@ -49,6 +49,7 @@ import java.io.IOException;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
@@ -767,7 +768,12 @@ public class Document extends Node {
      */
     @JsxFunction
     public HTMLCollection getElementsByTagName(final String tagName) {
-        final HTMLCollection collection;
+        final String key = "tagName " + tagName.toLowerCase(Locale.ROOT);
+        HTMLCollection collection = getLiveCollection(key);
+        if (collection != null) {
+            return collection;
+        }
+
         if ("*".equals(tagName)) {
             collection = new HTMLCollection(getDomNodeOrDie(), false) {
                 @Override
@@ -777,7 +783,17 @@ public class Document extends Node {
             };
         }
         else {
-            collection = new HTMLCollection(getDomNodeOrDie(), false) {
+            final DomNode domNode = getDomNodeOrDie();
+            collection = new HTMLCollection(domNode, false) {
+                @Override
+                protected Iterable<DomNode> getCandidates() {
+                    if (domNode instanceof HtmlPage) {
+                        final String tagNameLC = tagName.toLowerCase(Locale.ROOT);
+                        return new ArrayList<DomNode>(((HtmlPage) domNode).getIndexedElementsByTagName(tagNameLC));
+                    }
+                    return super.getCandidates();
+                }
+
                 @Override
                 protected boolean isMatching(final DomNode node) {
                     return tagName.equalsIgnoreCase(node.getNodeName());
@@ -785,6 +801,7 @@ public class Document extends Node {
             };
         }
 
+        putLiveCollection(key, collection);
         return collection;
     }
 
@@ -797,12 +814,18 @@ public class Document extends Node {
      */
     @JsxFunction
     public Object getElementsByTagNameNS(final Object namespaceURI, final String localName) {
-        return new HTMLCollection(getDomNodeOrDie(), false) {
-            @Override
-            protected boolean isMatching(final DomNode node) {
-                return localName.equals(node.getLocalName());
-            }
-        };
+        final String key = "tagNameNS " + localName;
+        HTMLCollection collection = getLiveCollection(key);
+        if (collection == null) {
+            collection = new HTMLCollection(getDomNodeOrDie(), false) {
+                @Override
+                protected boolean isMatching(final DomNode node) {
+                    return localName.equals(node.getLocalName());
+                }
+            };
+            putLiveCollection(key, collection);
+        }
+        return collection;
     }
 
     /**
@@ -14,6 +14,9 @@
  */
 package com.gargoylesoftware.htmlunit.javascript.host.dom;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.gargoylesoftware.htmlunit.html.CharacterDataChangeEvent;
 import com.gargoylesoftware.htmlunit.html.CharacterDataChangeListener;
 import com.gargoylesoftware.htmlunit.html.HtmlAttributeChangeEvent;
@@ -33,7 +36,6 @@ import net.sourceforge.htmlunit.corejs.javascript.Function;
 import net.sourceforge.htmlunit.corejs.javascript.NativeArray;
 import net.sourceforge.htmlunit.corejs.javascript.NativeObject;
 import net.sourceforge.htmlunit.corejs.javascript.ScriptRuntime;
-import net.sourceforge.htmlunit.corejs.javascript.Scriptable;
 import net.sourceforge.htmlunit.corejs.javascript.ScriptableObject;
 import net.sourceforge.htmlunit.corejs.javascript.TopLevel;
 
@@ -58,6 +60,10 @@ public class MutationObserver extends SimpleScriptable implements HtmlAttributeC
     private boolean characterDataOldValue_;
     private boolean subtree_;
 
+    /** The records not yet delivered, {@code null} if none. */
+    private List<MutationRecord> records_;
+    private boolean deliveryScheduled_;
+
     /**
      * Creates an instance.
      */
@@ -120,6 +126,9 @@ public class MutationObserver extends SimpleScriptable implements HtmlAttributeC
         if (characterData_) {
             node_.getDomNodeOrDie().removeCharacterDataChangeListener(this);
         }
+        records_ = null;
+        // a delivery still pending finds no records
+        deliveryScheduled_ = false;
     }
 
     /**
@@ -128,7 +137,16 @@ public class MutationObserver extends SimpleScriptable implements HtmlAttributeC
      */
     @JsxFunction
     public NativeArray takeRecords() {
-        return new NativeArray(0);
+        final NativeArray array;
+        if (records_ == null) {
+            array = new NativeArray(0);
+        }
+        else {
+            array = new NativeArray(records_.toArray());
+            records_ = null;
+        }
+        ScriptRuntime.setBuiltinProtoAndParent(array, getParentScope(), TopLevel.Builtins.Array);
+        return array;
     }
 
     /**
@@ -138,29 +156,11 @@ public class MutationObserver extends SimpleScriptable implements HtmlAttributeC
     public void characterDataChanged(final CharacterDataChangeEvent event) {
         final ScriptableObject target = event.getCharacterData().getScriptableObject();
         if (subtree_ || target == node_) {
-            final MutationRecord mutationRecord = new MutationRecord();
-            final Scriptable scope = getParentScope();
-            mutationRecord.setParentScope(scope);
-            mutationRecord.setPrototype(getPrototype(mutationRecord.getClass()));
-
-            mutationRecord.setType("characterData");
-            mutationRecord.setTarget(target);
+            final MutationRecord mutationRecord = newRecord("characterData", target);
             if (characterDataOldValue_) {
                 mutationRecord.setOldValue(event.getOldValue());
             }
-
-            final Window window = getWindow();
-            final HtmlPage owningPage = (HtmlPage) window.getDocument().getPage();
-            final JavaScriptEngine jsEngine =
-                    (JavaScriptEngine) window.getWebWindow().getWebClient().getJavaScriptEngine();
-            jsEngine.addPostponedAction(new PostponedAction(owningPage) {
-                @Override
-                public void execute() throws Exception {
-                    final NativeArray array = new NativeArray(new Object[] {mutationRecord});
-                    ScriptRuntime.setBuiltinProtoAndParent(array, scope, TopLevel.Builtins.Array);
-                    jsEngine.callFunction(owningPage, function_, scope, MutationObserver.this, new Object[] {array});
-                }
-            });
+            enqueue(mutationRecord);
         }
     }
 
@@ -187,32 +187,68 @@ public class MutationObserver extends SimpleScriptable implements HtmlAttributeC
         if (subtree_ || target == node_.getDomNodeOrDie()) {
             final String attributeName = event.getName();
             if (attributeFilter_ == null || attributeFilter_.contains(attributeName)) {
-                final MutationRecord mutationRecord = new MutationRecord();
-                final Scriptable scope = getParentScope();
-                mutationRecord.setParentScope(scope);
-                mutationRecord.setPrototype(getPrototype(mutationRecord.getClass()));
-
+                final MutationRecord mutationRecord = newRecord("attributes", target.getScriptableObject());
                 mutationRecord.setAttributeName(attributeName);
-                mutationRecord.setType("attributes");
-                mutationRecord.setTarget(target.getScriptableObject());
                 if (attributeOldValue_) {
                     mutationRecord.setOldValue(event.getValue());
                 }
+                enqueue(mutationRecord);
+            }
+        }
+    }
+
+    private MutationRecord newRecord(final String type, final ScriptableObject target) {
+        final MutationRecord mutationRecord = new MutationRecord();
+        mutationRecord.setParentScope(getParentScope());
+        mutationRecord.setPrototype(getPrototype(MutationRecord.class));
+        mutationRecord.setType(type);
+        mutationRecord.setTarget(target);
+        return mutationRecord;
+    }
 
-                final Window window = getWindow();
-                final HtmlPage owningPage = (HtmlPage) window.getDocument().getPage();
-                final JavaScriptEngine jsEngine =
-                        (JavaScriptEngine) window.getWebWindow().getWebClient().getJavaScriptEngine();
-                jsEngine.addPostponedAction(new PostponedAction(owningPage) {
-                    @Override
-                    public void execute() throws Exception {
-                        final NativeArray array = new NativeArray(new Object[] {mutationRecord});
-                        ScriptRuntime.setBuiltinProtoAndParent(array, scope, TopLevel.Builtins.Array);
-                        jsEngine.callFunction(owningPage, function_, scope,
+    /**
+     * Adds a record to the queue. The queued records are delivered together to the callback
+     * once the current script has finished.
+     */
+    private void enqueue(final MutationRecord mutationRecord) {
+        if (records_ == null) {
+            records_ = new ArrayList<>();
+        }
+        records_.add(mutationRecord);
+
+        if (!deliveryScheduled_) {
+            scheduleDelivery();
+        }
+    }
+
+    /**
+     * Delivers the queued records to the callback once the current script has finished.
+     */
+    private void scheduleDelivery() {
+        deliveryScheduled_ = true;
+
+        final Window window = getWindow();
+        final HtmlPage owningPage = (HtmlPage) window.getDocument().getPage();
+        final JavaScriptEngine jsEngine =
+                (JavaScriptEngine) window.getWebWindow().getWebClient().getJavaScriptEngine();
+        jsEngine.addPostponedAction(new PostponedAction(owningPage) {
+            @Override
+            public void execute() throws Exception {
+                try {
+                    if (records_ != null) {
+                        final NativeArray array = takeRecords();
+                        jsEngine.callFunction(owningPage, function_, getParentScope(),
                                                 MutationObserver.this, new Object[] {array});
                     }
-                });
+                }
+                finally {
+                    deliveryScheduled_ = false;
+                    // the records queued by the callback
+                    if (records_ != null) {
+                        scheduleDelivery();
+                    }
+                }
             }
-        }
+        });
     }
 }
@@ -21,9 +21,12 @@ import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBr
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF;
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.IE;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import com.gargoylesoftware.htmlunit.SgmlPage;
 import com.gargoylesoftware.htmlunit.html.DomDocumentFragment;
@@ -146,6 +149,12 @@ public class Node extends EventTarget {
     /** "Live" child nodes collection; has to be a member to have equality (==) working. */
     private NodeList childNodes_;
 
+    /**
+     * "Live" collections of the descendants, shared per filter to have equality (==) working
+     * and held weakly as they are cheap to recreate.
+     */
+    private transient Map<String, WeakReference<HTMLCollection>> liveCollections_;
+
     /**
      * Creates an instance.
      */
@@ -514,6 +523,36 @@ public class Node extends EventTarget {
         return childNodes_;
     }
 
+    /**
+     * Returns the live collection registered for the specified key by
+     * {@link #putLiveCollection(String, HTMLCollection)}, if it is still in use.
+     * @param key the key describing the filter of the collection
+     * @return the collection or {@code null}
+     */
+    protected HTMLCollection getLiveCollection(final String key) {
+        if (liveCollections_ == null) {
+            return null;
+        }
+        final WeakReference<HTMLCollection> reference = liveCollections_.get(key);
+        if (reference == null) {
+            return null;
+        }
+        return reference.get();
+    }
+
+    /**
+     * Registers a live collection of this node's descendants to be shared by all requests
+     * using the same filter.
+     * @param key the key describing the filter of the collection
+     * @param collection the collection
+     */
+    protected void putLiveCollection(final String key, final HTMLCollection collection) {
+        if (liveCollections_ == null) {
+            liveCollections_ = new HashMap<>();
+        }
+        liveCollections_.put(key, new WeakReference<>(collection));
+    }
+
     /**
      * Returns this node's parent node.
      * @return this node's parent node
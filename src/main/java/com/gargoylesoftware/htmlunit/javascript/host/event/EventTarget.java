@@ -26,6 +26,7 @@ import java.util.List;
 import org.apache.commons.lang3.StringUtils;
 
 import com.gargoylesoftware.htmlunit.ScriptResult;
+import com.gargoylesoftware.htmlunit.SgmlPage;
 import com.gargoylesoftware.htmlunit.html.DomElement;
 import com.gargoylesoftware.htmlunit.html.DomNode;
 import com.gargoylesoftware.htmlunit.html.HtmlElement;
@@ -123,8 +124,10 @@ public class EventTarget extends SimpleScriptable {
             final DomNode ourParentNode = (ourNode != null) ? ourNode.getParentNode() : null;
 
             // Determine the propagation path which is fixed here and not affected by
-            // DOM tree modification from intermediate listeners (tested in Chrome)
-            final List<EventTarget> propagationPath = new ArrayList<>();
+            // DOM tree modification from intermediate listeners (tested in Chrome).
+            // It holds EventTargets and, for the parents, DomNodes: the JavaScript object of a parent
+            // is only looked up when its listeners are due, see getEventListenersContainer()
+            final List<Object> propagationPath = new ArrayList<>();
 
             // We're added to the propagation path first
             propagationPath.add(this);
@@ -132,7 +135,7 @@ public class EventTarget extends SimpleScriptable {
             // Then add all our parents if we have any (pure JS object such as XMLHttpRequest
             // and MessagePort, etc. will not have any parents)
             for (DomNode parent = ourParentNode; parent != null; parent = parent.getParentNode()) {
-                propagationPath.add(parent.getScriptableObject());
+                propagationPath.add(parent);
             }
 
             // The load event has some unnatural behavior that we need to handle specially
@@ -143,19 +146,33 @@ public class EventTarget extends SimpleScriptable {
             }
             else {
                 // Add Window if the the propagation path reached Document
-                if (propagationPath.get(propagationPath.size() - 1) instanceof Document) {
+                final Object last = propagationPath.get(propagationPath.size() - 1);
+                if (last instanceof SgmlPage || last instanceof Document) {
                     propagationPath.add(window);
                 }
             }
 
+            // Whether the entries may have listeners, determined once for all phases; the entries
+            // without are checked again only once listeners have been run, which might have added some
+            final String type = event.getType();
+            final int size = propagationPath.size();
+            final boolean[] mayHaveListeners = new boolean[size];
+            boolean anyListeners = false;
+            for (int i = 0; i < size; i++) {
+                mayHaveListeners[i] = mayHaveListeners(propagationPath.get(i), type);
+                anyListeners |= mayHaveListeners[i];
+            }
+            boolean listenersRun = false;
+
             // capturing phase
             event.setEventPhase(Event.CAPTURING_PHASE);
 
-            for (int i = propagationPath.size() - 1; i >= 1; i--) {
-                final EventTarget jsNode = propagationPath.get(i);
-                final EventListenersContainer elc = jsNode.eventListenersContainer_;
+            for (int i = size - 1; anyListeners && i >= 1; i--) {
+                final EventListenersContainer elc =
+                        getEventListenersContainer(propagationPath, mayHaveListeners, i, type, listenersRun);
                 if (elc != null) {
                     elc.executeCapturingListeners(event, new Object[] {event});
+                    listenersRun = true;
                     if (event.isPropagationStopped()) {
                         return new ScriptResult(null);
                     }
@@ -165,13 +182,14 @@ public class EventTarget extends SimpleScriptable {
             // at target phase
             event.setEventPhase(Event.AT_TARGET);
 
-            if (!propagationPath.isEmpty()) {
+            if (anyListeners) {
                 // Note: This element is not always the same as event.getTarget():
                 // e.g. the 'load' event targets Document but "at target" is on Window.
-                final EventTarget jsNode = propagationPath.get(0);
-                final EventListenersContainer elc = jsNode.eventListenersContainer_;
+                final EventListenersContainer elc =
+                        getEventListenersContainer(propagationPath, mayHaveListeners, 0, type, listenersRun);
                 if (elc != null) {
                     elc.executeAtTargetListeners(event, new Object[] {event});
+                    listenersRun = true;
                     if (event.isPropagationStopped()) {
                         return new ScriptResult(null);
                     }
@@ -184,11 +202,12 @@ public class EventTarget extends SimpleScriptable {
                 // eventPhase = 3 (tested in Chrome)
                 event.setEventPhase(Event.BUBBLING_PHASE);
 
-                for (int i = 1, size = propagationPath.size(); i < size; i++) {
-                    final EventTarget jsNode = propagationPath.get(i);
-                    final EventListenersContainer elc = jsNode.eventListenersContainer_;
+                for (int i = 1; anyListeners && i < size; i++) {
+                    final EventListenersContainer elc =
+                            getEventListenersContainer(propagationPath, mayHaveListeners, i, type, listenersRun);
                     if (elc != null) {
                         elc.executeBubblingListeners(event, new Object[] {event});
+                        listenersRun = true;
                         if (event.isPropagationStopped()) {
                             return new ScriptResult(null);
                         }
@@ -227,6 +246,72 @@ public class EventTarget extends SimpleScriptable {
         return new ScriptResult(null);
     }
 
+    /**
+     * Returns the listeners of an entry of the propagation path. The JavaScript object of a node is
+     * only created if it may have listeners. An entry that had none when the event was fired is checked
+     * again if listeners have been run meanwhile: they may have created the JavaScript object of the node
+     * (and added listeners) or added an event handler attribute.
+     * @param propagationPath the propagation path
+     * @param mayHaveListeners whether the entries of the path may have listeners, updated by this method
+     * @param index the index of the entry
+     * @param type the event type
+     * @param recheck whether listeners have been run since the entries were checked
+     */
+    private static EventListenersContainer getEventListenersContainer(final List<Object> propagationPath,
+            final boolean[] mayHaveListeners, final int index, final String type, final boolean recheck) {
+        final Object pathEntry = propagationPath.get(index);
+        if (!mayHaveListeners[index]) {
+            if (!recheck || !mayHaveListeners(pathEntry, type)) {
+                return null;
+            }
+            mayHaveListeners[index] = true;
+        }
+        if (pathEntry instanceof EventTarget) {
+            return ((EventTarget) pathEntry).eventListenersContainer_;
+        }
+        return ((EventTarget) ((DomNode) pathEntry).getScriptableObject()).eventListenersContainer_;
+    }
+
+    /**
+     * Returns whether an entry of the propagation path (an {@link EventTarget} or a {@link DomNode})
+     * may have listeners for the specified event type. Listeners can only be registered on existing
+     * JavaScript objects, the event handler attributes (like "onclick") are only converted into listeners
+     * when the JavaScript object gets created.
+     */
+    private static boolean mayHaveListeners(final Object pathEntry, final String type) {
+        if (pathEntry instanceof EventTarget) {
+            return hasListeners((EventTarget) pathEntry, type);
+        }
+        final DomNode node = (DomNode) pathEntry;
+        if (node.hasScriptableObject()) {
+            return hasListeners((EventTarget) node.getScriptableObject(), type);
+        }
+        if (node instanceof SgmlPage) {
+            return true;
+        }
+        if (node instanceof DomElement && type != null) {
+            final DomElement element = (DomElement) node;
+            if (element.hasAttributes()) {
+                final int length = type.length() + 2;
+                for (final String name : element.getAttributesMap().keySet()) {
+                    if (name.length() == length && name.regionMatches(true, 0, "on", 0, 2)
+                            && name.regionMatches(true, 2, type, 0, type.length())) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the specified JavaScript object has listeners for the specified event type.
+     */
+    private static boolean hasListeners(final EventTarget target, final String type) {
+        final EventListenersContainer container = target.eventListenersContainer_;
+        return container != null && (type == null || container.hasEventListeners(type));
+    }
+
     /**
      * Returns {@code true} if there are any event handlers for the specified event.
      * @param eventName the event name (e.g. "onclick")
@@ -733,8 +733,14 @@ public class HTMLDocument extends Document {
             return HTMLCollection.emptyCollection(getWindow().getDomNodeOrDie());
         }
 
+        final String key = "name " + elementName;
+        HTMLCollection collection = getLiveCollection(key);
+        if (collection != null) {
+            return collection;
+        }
+
         final HtmlPage page = getPage();
-        return new HTMLCollection(page, true) {
+        collection = new HTMLCollection(page, true) {
             @Override
             protected List<DomNode> computeElements() {
                 return new ArrayList<>(page.getElementsByName(elementName));
@@ -748,6 +754,9 @@ public class HTMLDocument extends Document {
                 return EffectOnCache.NONE;
             }
         };
+
+        putLiveCollection(key, collection);
+        return collection;
     }
 
     /**
@@ -259,7 +259,13 @@ public class XMLDocument extends Document {
             return HTMLCollection.emptyCollection(getWindow().getDomNodeOrDie());
         }
 
-        final HTMLCollection collection = new HTMLCollection(getDomNodeOrDie(), false) {
+        final String key = "tagName " + tagName;
+        HTMLCollection collection = getLiveCollection(key);
+        if (collection != null) {
+            return collection;
+        }
+
+        collection = new HTMLCollection(getDomNodeOrDie(), false) {
             @Override
             protected boolean isMatching(final DomNode node) {
                 final String nodeName;
@@ -274,6 +280,7 @@ public class XMLDocument extends Document {
             }
         };
 
+        putLiveCollection(key, collection);
         return collection;
     }
 
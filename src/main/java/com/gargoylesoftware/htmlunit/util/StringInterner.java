@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2002-2018 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+ *
+ * A bounded pool of canonical strings shared by all pages, used for the tag names, the attribute names
+ * and the common attribute values.
+ * Once the pool is full, a new string replaces one that has not been used recently: the entries are
+ * arranged in a clock, and the hand looking for an entry to replace gives a second chance to the ones
+ * used since it passed them last time.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public final class StringInterner {
+
+    private static final StringInterner NAMES = new StringInterner(4096, 64);
+    private static final StringInterner VALUES = new StringInterner(16384, 256);
+
+    private final ConcurrentMap<String, Entry> pool_;
+
+    /** The entries in the order of the clock; guarded by itself, like {@link #size_} and {@link #hand_}. */
+    private final Entry[] clock_;
+    private int size_;
+    private int hand_;
+
+    private final int maxLength_;
+
+    /**
+     * A pooled string.
+     */
+    private static final class Entry {
+        private final String value_;
+
+        /** Whether the entry has been used since the hand of the clock passed it; races are harmless. */
+        private boolean referenced_;
+
+        Entry(final String value) {
+            value_ = value;
+        }
+    }
+
+    /**
+     * Creates a new pool.
+     * @param maxSize the maximum number of strings stored
+     * @param maxLength the maximum length of the strings stored
+     */
+    public StringInterner(final int maxSize, final int maxLength) {
+        pool_ = new ConcurrentHashMap<>();
+        clock_ = new Entry[Math.max(0, maxSize)];
+        maxLength_ = maxLength;
+    }
+
+    /**
+     * Returns the canonical representation of the specified string.
+     * @param s the string (may be {@code null})
+     * @return the pooled string, or {@code s} if it is too long to be pooled
+     */
+    public String intern(final String s) {
+        if (s == null || s.length() > maxLength_) {
+            return s;
+        }
+        final Entry entry = pool_.get(s);
+        if (entry != null) {
+            if (!entry.referenced_) {
+                entry.referenced_ = true;
+            }
+            return entry.value_;
+        }
+        return add(s);
+    }
+
+    /**
+     * Adds the specified string to the pool, replacing an entry not used recently if the pool is full.
+     * @param s the string
+     * @return the pooled string
+     */
+    private String add(final String s) {
+        if (clock_.length == 0) {
+            return s;
+        }
+        synchronized (clock_) {
+            final Entry existing = pool_.get(s);
+            if (existing != null) {
+                return existing.value_;
+            }
+
+            final Entry entry = new Entry(s);
+            if (size_ < clock_.length) {
+                clock_[size_++] = entry;
+            }
+            else {
+                Entry victim = clock_[hand_];
+                while (victim.referenced_) {
+                    victim.referenced_ = false;
+                    hand_ = (hand_ + 1) % clock_.length;
+                    victim = clock_[hand_];
+                }
+                pool_.remove(victim.value_);
+                clock_[hand_] = entry;
+                hand_ = (hand_ + 1) % clock_.length;
+            }
+            pool_.put(s, entry);
+            return s;
+        }
+    }
+
+    /**
+     * Returns the number of strings in this pool.
+     * @return the size
+     */
+    public int size() {
+        return pool_.size();
+    }
+
+    /**
+     * Returns the canonical representation of a tag or attribute name.
+     * @param name the name (may be {@code null})
+     * @return the pooled name
+     */
+    public static String internName(final String name) {
+        return NAMES.intern(name);
+    }
+
+    /**
+     * Returns the canonical representation of an attribute value.
+     * @param value the value (may be {@code null})
+     * @return the pooled value
+     */
+    public static String internValue(final String value) {
+        return VALUES.intern(value);
+    }
+}
@@ -22,6 +22,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PrintWriter;
 import java.io.Writer;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
@@ -30,6 +31,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.Servlet;
 import javax.servlet.ServletException;
@@ -474,6 +477,126 @@ public class HttpWebConnectionTest extends WebServerTestCase {
         }
     }
 
+    /**
+     * The servlet blocks in the middle of the body until the script of the first part has been executed.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void incrementalHtmlParsing() throws Exception {
+        final Map<String, Class<? extends Servlet>> servlets = new HashMap<>();
+        servlets.put("/incremental", IncrementalHtmlParsingServlet.class);
+        startWebServer("./", null, servlets);
+        IncrementalHtmlParsingServlet.reset();
+
+        final WebClient client = getWebClient();
+        client.getOptions().setIncrementalHtmlParsing(true);
+        final List<String> collectedAlerts = new ArrayList<>();
+        client.setAlertHandler(new AlertHandler() {
+            @Override
+            public void handleAlert(final Page page, final String message) {
+                final boolean complete = IncrementalHtmlParsingServlet.BODY_COMPLETE_;
+                collectedAlerts.add(message + (complete ? " complete" : " pending"));
+                IncrementalHtmlParsingServlet.FIRST_PART_PARSED_.countDown();
+            }
+        });
+
+        final HtmlPage page = client.getPage(URL_FIRST + "incremental");
+        assertEquals(new String[] {"1 pending", "1001 complete"}, collectedAlerts);
+        assertEquals(1001, page.getElementsByTagName("p").size());
+
+        final String content = page.getWebResponse().getContentAsString();
+        assertTrue(content.startsWith("<html>"));
+        assertTrue(content.endsWith("</html>"));
+        assertEquals(content, page.getWebResponse().getContentAsString());
+    }
+
+    /**
+     * When the parsing fails, the connection is aborted instead of reading the rest of the body.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void incrementalHtmlParsingAborted() throws Exception {
+        final Map<String, Class<? extends Servlet>> servlets = new HashMap<>();
+        servlets.put("/incremental", IncrementalHtmlParsingServlet.class);
+        startWebServer("./", null, servlets);
+        IncrementalHtmlParsingServlet.reset();
+
+        final WebClient client = getWebClient();
+        client.getOptions().setIncrementalHtmlParsing(true);
+        client.setAlertHandler(new AlertHandler() {
+            @Override
+            public void handleAlert(final Page page, final String message) {
+                IncrementalHtmlParsingServlet.FIRST_PART_PARSED_.countDown();
+                throw new IllegalStateException("stop parsing");
+            }
+        });
+
+        try {
+            client.getPage(URL_FIRST + "incremental?size=100000");
+            fail("ScriptException expected");
+        }
+        catch (final ScriptException e) {
+            // expected
+        }
+
+        assertTrue(IncrementalHtmlParsingServlet.DONE_.await(20, TimeUnit.SECONDS));
+        assertTrue(IncrementalHtmlParsingServlet.ABORTED_);
+    }
+
+    /**
+     * Servlet for {@link #incrementalHtmlParsing()} and {@link #incrementalHtmlParsingAborted()}.
+     */
+    public static class IncrementalHtmlParsingServlet extends HttpServlet {
+        private static volatile CountDownLatch FIRST_PART_PARSED_;
+        private static volatile CountDownLatch DONE_;
+        private static volatile boolean BODY_COMPLETE_;
+        private static volatile boolean ABORTED_;
+
+        static void reset() {
+            FIRST_PART_PARSED_ = new CountDownLatch(1);
+            DONE_ = new CountDownLatch(1);
+            BODY_COMPLETE_ = false;
+            ABORTED_ = false;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void doGet(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+            try {
+                response.setContentType("text/html;charset=UTF-8");
+                final PrintWriter writer = response.getWriter();
+                writer.write("<html><body>\n<p>first</p>\n"
+                        + "<script>alert(document.getElementsByTagName('p').length);</script>\n");
+                writer.flush();
+
+                // the rest of the body is only sent once the client has run the first script
+                FIRST_PART_PARSED_.await(20, TimeUnit.SECONDS);
+
+                final String size = request.getParameter("size");
+                final int count = size == null ? 1000 : Integer.parseInt(size);
+                for (int i = 0; i < count; i++) {
+                    writer.write("<p>paragraph " + i + "</p>\n");
+                    // checkError() flushes the writer
+                    if (i % 1000 == 0 && writer.checkError()) {
+                        ABORTED_ = true;
+                        return;
+                    }
+                }
+                BODY_COMPLETE_ = true;
+                writer.write("<script>alert(document.getElementsByTagName('p').length);</script>\n"
+                        + "</body></html>");
+            }
+            catch (final InterruptedException e) {
+                throw new IOException(e);
+            }
+            finally {
+                DONE_.countDown();
+            }
+        }
+    }
+
     /**
      * @throws Exception if an error occurs
      */
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2002-2018 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit;
+
+import static org.junit.Assert.fail;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.w3c.dom.DOMException;
+
+import com.gargoylesoftware.htmlunit.html.DomElement;
+import com.gargoylesoftware.htmlunit.html.DomNode;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+
+/**
+ * Tests for {@link StaticPageCreator}.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+@RunWith(BrowserRunner.class)
+public class StaticPageCreatorTest extends SimpleWebTestCase {
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void staticPage() throws Exception {
+        final String html = "<html><head>\n"
+            + "<link rel='stylesheet' href='style.css'>\n"
+            + "<script>alert('script'); document.title = 'changed';</script>\n"
+            + "<title>static</title>\n"
+            + "</head>\n"
+            + "<body onload='alert(\"onload\")'>\n"
+            + "<noscript><p id='noscript'>no script</p></noscript>\n"
+            + "<div id='d' class='c'>hello <b>world</b></div>\n"
+            + "<iframe src='frame.html'></iframe>\n"
+            + "</body></html>";
+
+        final WebClient client = getWebClientWithMockWebConnection();
+        client.setPageCreator(new StaticPageCreator());
+        getMockWebConnection().setResponse(new URL(URL_FIRST, "style.css"), "div { color: red }");
+        getMockWebConnection().setResponse(new URL(URL_FIRST, "frame.html"),
+                "<html><body><script>alert('frame')</script></body></html>");
+
+        final List<String> collectedAlerts = new ArrayList<>();
+        final HtmlPage page = loadPage(client, html, collectedAlerts);
+
+        assertTrue(page.isStatic());
+        assertTrue(collectedAlerts.isEmpty());
+        assertEquals(1, getMockWebConnection().getRequestCount());
+        assertEquals("static", page.getTitleText());
+        assertTrue(page.getFrames().isEmpty());
+
+        assertEquals("no script", page.getHtmlElementById("noscript").asText());
+        assertEquals("hello world", page.querySelector("div.c").asText());
+        assertEquals("world", page.<DomElement>getFirstByXPath("//div[@id='d']/b").asText());
+
+        final DomElement div = page.getHtmlElementById("d");
+        try {
+            div.setAttribute("class", "changed");
+            fail("DOMException expected");
+        }
+        catch (final DOMException e) {
+            assertEquals(DOMException.NO_MODIFICATION_ALLOWED_ERR, e.code);
+        }
+        try {
+            div.appendChild(page.createElement("p"));
+            fail("DOMException expected");
+        }
+        catch (final DOMException e) {
+            assertEquals(DOMException.NO_MODIFICATION_ALLOWED_ERR, e.code);
+        }
+        try {
+            div.remove();
+            fail("DOMException expected");
+        }
+        catch (final DOMException e) {
+            assertEquals(DOMException.NO_MODIFICATION_ALLOWED_ERR, e.code);
+        }
+        assertEquals("c", div.getAttribute("class"));
+
+        // detached copies can be modified
+        final DomElement clone = (DomElement) div.cloneNode(true);
+        clone.setAttribute("class", "changed");
+        clone.appendChild(page.createElement("p"));
+        assertEquals("c", div.getAttribute("class"));
+    }
+
+    /**
+     * A static page has the same content as a regular page with JavaScript disabled.
+     * The speed of both is measured by {@link com.gargoylesoftware.htmlunit.benchmark.StaticPageBenchmark}.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void sameContentAsRegularPage() throws Exception {
+        final StringBuilder html = new StringBuilder("<html><head><title>list</title>\n"
+                + "<script>document.title = 'changed';</script></head><body>\n");
+        for (int i = 0; i < 500; i++) {
+            html.append("<div class='item' id='i").append(i).append("'><a href='p").append(i).append(".html'>item ")
+                .append(i).append("</a><ul><li>").append(i).append("</li></ul></div>\n");
+        }
+        html.append("</body></html>");
+
+        final WebClient client = getWebClientWithMockWebConnection();
+        client.getOptions().setJavaScriptEnabled(false);
+        client.getOptions().setHistorySizeLimit(0);
+        getMockWebConnection().setDefaultResponse(html.toString());
+
+        final HtmlPage regular = client.getPage(URL_FIRST);
+
+        client.setPageCreator(new StaticPageCreator());
+        final HtmlPage page = client.getPage(URL_FIRST);
+
+        assertTrue(page.isStatic());
+        assertFalse(regular.isStatic());
+        assertEquals(regular.asText(), page.asText());
+        assertEquals(500, page.querySelectorAll("div.item").size());
+        assertEquals("p499.html", page.getHtmlElementById("i499").getFirstElementChild().getAttribute("href"));
+        for (final DomNode node : page.getDescendants()) {
+            assertFalse(node.hasScriptableObject());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2002-2018 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.benchmark;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+
+import com.gargoylesoftware.htmlunit.Page;
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.WebClientOptions;
+import com.gargoylesoftware.htmlunit.html.DomElement;
+import com.gargoylesoftware.htmlunit.html.HTMLParser;
+import com.gargoylesoftware.htmlunit.html.HtmlElement;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+
+/**
+ * Measures how fast the markup of the library pages is parsed as snippets (like <tt>innerHTML</tt> does),
+ * with and without the {@link WebClientOptions#setFragmentCacheSize(int) fragment cache}.
+ * This is not a unit test and is not run with the tests.
+ *
+ * <p>Every element in the body of a page found in {@code src/test/resources/libraries} gives a snippet.
+ * The snippets of a page are parsed {@value #ROUNDS} times in a row into the same element of a new page,
+ * as a page rendering the same templates again and again would do. After a warm up run the number of
+ * snippets parsed per second is printed for both settings.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public final class FragmentCacheBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    private FragmentCacheBenchmark() {
+    }
+
+    /**
+     * Main method.
+     * @param args optionally the directory containing the pages, {@code src/test/resources/libraries} by default
+     * @throws Exception if an error occurs
+     */
+    public static void main(final String[] args) throws Exception {
+        final File root = new File(args.length > 0 ? args[0] : "src/test/resources/libraries");
+        final List<List<String>> pages = new ArrayList<>();
+        int count = 0;
+        try (WebClient webClient = new WebClient()) {
+            webClient.getOptions().setJavaScriptEnabled(false);
+            webClient.getOptions().setCssEnabled(false);
+            for (final File file : FileUtils.listFiles(root, new String[] {"html", "htm"}, true)) {
+                final Page page = webClient.getPage(file.toURI().toURL());
+                if (page instanceof HtmlPage && ((HtmlPage) page).getBody() != null) {
+                    final List<String> snippets = getSnippets(((HtmlPage) page).getBody());
+                    pages.add(snippets);
+                    count += snippets.size();
+                }
+            }
+        }
+
+        measure(pages, false);
+        measure(pages, true);
+        final long withoutCache = measure(pages, false);
+        final long withCache = measure(pages, true);
+
+        final long parsed = (long) count * ROUNDS;
+        System.out.println(pages.size() + " pages, " + count + " snippets, " + ROUNDS + " rounds");
+        System.out.println("without cache: " + parsed * 1_000_000_000L / withoutCache + " snippets/s");
+        System.out.println("with cache:    " + parsed * 1_000_000_000L / withCache + " snippets/s");
+    }
+
+    private static List<String> getSnippets(final HtmlElement body) {
+        final List<String> snippets = new ArrayList<>();
+        for (final DomElement element : body.getDomElementDescendants()) {
+            snippets.add(element.asXml());
+        }
+        return snippets;
+    }
+
+    /**
+     * Parses the snippets of all pages.
+     * @return the time needed in nanoseconds
+     */
+    private static long measure(final List<List<String>> pages, final boolean cache) throws Exception {
+        long time = 0;
+        try (WebClient webClient = new WebClient()) {
+            webClient.getOptions().setJavaScriptEnabled(false);
+            webClient.getOptions().setCssEnabled(false);
+            for (final List<String> snippets : pages) {
+                webClient.getOptions().setFragmentCacheSize(cache ? snippets.size() : 0);
+                final HtmlPage page = webClient.getPage(WebClient.URL_ABOUT_BLANK);
+                final DomElement target = page.createElement("div");
+                page.getDocumentElement().appendChild(target);
+
+                final long start = System.nanoTime();
+                for (int i = 0; i < ROUNDS; i++) {
+                    for (final String snippet : snippets) {
+                        target.removeAllChildren();
+                        HTMLParser.parseFragment(target, snippet);
+                    }
+                }
+                time += System.nanoTime() - start;
+            }
+        }
+        return time;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2002-2018 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.benchmark;
+
+import java.net.URL;
+
+import com.gargoylesoftware.htmlunit.MockWebConnection;
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+import com.gargoylesoftware.htmlunit.javascript.host.dom.MutationObserver;
+
+/**
+ * Measures how many records per second are queued and delivered by a {@link MutationObserver}.
+ * This is not a unit test and is not run with the tests.
+ *
+ * <p>The page changes an observed attribute {@value #RECORDS} times in one script, the records are
+ * delivered to the callback once the script has finished. The page is loaded by a
+ * {@link MockWebConnection} and the load is measured as a whole, so the time of the loop itself
+ * is included. After a warm up run the records per second are printed.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public final class MutationObserverBenchmark {
+
+    private static final int RECORDS = 100_000;
+    private static final int RUNS = 10;
+
+    private MutationObserverBenchmark() {
+    }
+
+    /**
+     * Main method.
+     * @param args program arguments
+     * @throws Exception if an error occurs
+     */
+    public static void main(final String[] args) throws Exception {
+        final String html
+            = "<html><head><title>0</title><script>\n"
+            + "function test() {\n"
+            + "  var div = document.getElementById('myDiv');\n"
+            + "  var observer = new MutationObserver(function(mutations) {\n"
+            + "    document.title = mutations.length;\n"
+            + "  });\n"
+            + "  observer.observe(div, { attributes: true, attributeOldValue: true });\n"
+            + "  for (var i = 0; i < " + RECORDS + "; i++) {\n"
+            + "    div.setAttribute('title', 'value' + i);\n"
+            + "  }\n"
+            + "}\n"
+            + "</script></head>\n"
+            + "<body onload='test()'>\n"
+            + "  <div id='myDiv' title='x'>old</div>\n"
+            + "</body></html>";
+
+        measure(html);
+        final long nanos = measure(html);
+
+        System.out.println(RUNS + " runs of " + RECORDS + " records");
+        System.out.println(RUNS * RECORDS * 1_000_000_000L / nanos + " records/s");
+    }
+
+    /**
+     * Loads the page {@value #RUNS} times.
+     * @return the time needed in nanoseconds
+     */
+    private static long measure(final String html) throws Exception {
+        try (WebClient webClient = new WebClient()) {
+            webClient.getOptions().setHistorySizeLimit(0);
+            final MockWebConnection connection = new MockWebConnection();
+            connection.setDefaultResponse(html);
+            webClient.setWebConnection(connection);
+
+            final URL url = new URL("http://localhost/observer.html");
+            final long start = System.nanoTime();
+            for (int i = 0; i < RUNS; i++) {
+                final HtmlPage page = webClient.getPage(url);
+                if (!Integer.toString(RECORDS).equals(page.getTitleText())) {
+                    throw new IllegalStateException("Records not delivered: " + page.getTitleText());
+                }
+            }
+            return System.nanoTime() - start;
+        }
+    }
+}
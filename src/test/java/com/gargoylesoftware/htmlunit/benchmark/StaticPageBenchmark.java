@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2002-2018 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.benchmark;
+
+import java.net.URL;
+
+import com.gargoylesoftware.htmlunit.DefaultPageCreator;
+import com.gargoylesoftware.htmlunit.MockWebConnection;
+import com.gargoylesoftware.htmlunit.PageCreator;
+import com.gargoylesoftware.htmlunit.StaticPageCreator;
+import com.gargoylesoftware.htmlunit.WebClient;
+
+/**
+ * Measures how many pages per second are loaded as {@link StaticPageCreator static pages} and as regular
+ * pages with JavaScript disabled. This is not a unit test and is not run with the tests.
+ *
+ * <p>The page is a list of {@value #ITEMS} items served by a {@link MockWebConnection}, so only
+ * the parsing and the building of the DOM are measured. After a warm up run the pages per second
+ * are printed for both modes.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public final class StaticPageBenchmark {
+
+    private static final int ITEMS = 500;
+    private static final int PAGES = 500;
+
+    private StaticPageBenchmark() {
+    }
+
+    /**
+     * Main method.
+     * @param args program arguments
+     * @throws Exception if an error occurs
+     */
+    public static void main(final String[] args) throws Exception {
+        final StringBuilder html = new StringBuilder("<html><head><title>list</title>\n"
+                + "<script>document.title = 'changed';</script></head><body>\n");
+        for (int i = 0; i < ITEMS; i++) {
+            html.append("<div class='item' id='i").append(i).append("'><a href='p").append(i).append(".html'>item ")
+                .append(i).append("</a><ul><li>").append(i).append("</li></ul></div>\n");
+        }
+        html.append("</body></html>");
+
+        measure(html.toString(), new DefaultPageCreator());
+        measure(html.toString(), new StaticPageCreator());
+        final long regular = measure(html.toString(), new DefaultPageCreator());
+        final long staticPages = measure(html.toString(), new StaticPageCreator());
+
+        System.out.println(PAGES + " pages of " + ITEMS + " items");
+        System.out.println("regular, JavaScript disabled: " + PAGES * 1_000_000_000L / regular + " pages/s");
+        System.out.println("static:                       " + PAGES * 1_000_000_000L / staticPages + " pages/s");
+    }
+
+    /**
+     * Loads the page {@value #PAGES} times.
+     * @return the time needed in nanoseconds
+     */
+    private static long measure(final String html, final PageCreator pageCreator) throws Exception {
+        try (WebClient webClient = new WebClient()) {
+            webClient.getOptions().setJavaScriptEnabled(false);
+            webClient.getOptions().setHistorySizeLimit(0);
+            webClient.setPageCreator(pageCreator);
+            final MockWebConnection connection = new MockWebConnection();
+            connection.setDefaultResponse(html);
+            webClient.setWebConnection(connection);
+
+            final URL url = new URL("http://localhost/list.html");
+            final long start = System.nanoTime();
+            for (int i = 0; i < PAGES; i++) {
+                webClient.getPage(url);
+            }
+            return System.nanoTime() - start;
+        }
+    }
+}
@@ -14,11 +14,19 @@
  */
 package com.gargoylesoftware.htmlunit.html;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.commons.lang3.StringUtils;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.xml.sax.helpers.AttributesImpl;
@@ -27,6 +35,7 @@ import com.gargoylesoftware.htmlunit.BrowserRunner;
 import com.gargoylesoftware.htmlunit.BrowserRunner.Alerts;
 import com.gargoylesoftware.htmlunit.ElementNotFoundException;
 import com.gargoylesoftware.htmlunit.SimpleWebTestCase;
+import com.gargoylesoftware.htmlunit.StaticPageCreator;
 import com.gargoylesoftware.htmlunit.WebClient;
 import com.gargoylesoftware.htmlunit.html.DomNode.DescendantElementsIterator;
 import com.gargoylesoftware.htmlunit.xml.XmlPage;
@@ -525,6 +534,44 @@ public class DomNodeTest extends SimpleWebTestCase {
         assertEquals(expectedValues, listenerImpl.getCollectedValues());
     }
 
+    /**
+     * A listener registered by the user gets one event per parsed node.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void domChangeListenerTestImpl_innerHTML() throws Exception {
+        final String htmlContent
+            = "<html><head><title>foo</title>\n"
+            + "<script>\n"
+            + "  function clickMe() {\n"
+            + "    var p1 = document.getElementById('p1');\n"
+            + "    p1.innerHTML = '<div><span id=\"s1\">a</span><span>b</span></div><b>c</b>';\n"
+            + "    alert(document.getElementById('s1').tagName);\n"
+            + "    alert(p1.getElementsByTagName('span').length);\n"
+            + "  }\n"
+            + "</script>\n"
+            + "</head>\n"
+            + "<body>\n"
+            + "<p id='p1' title='myTitle'></p>\n"
+            + "<input id='myButton' type='button' onclick='clickMe()'>\n"
+            + "</body></html>";
+
+        final List<String> collectedAlerts = new ArrayList<>();
+        final HtmlPage page = loadPage(htmlContent, collectedAlerts);
+        final HtmlElement p1 = page.getHtmlElementById("p1");
+        final DomChangeListenerTestImpl listenerImpl = new DomChangeListenerTestImpl();
+        p1.addDomChangeListener(listenerImpl);
+        final HtmlButtonInput myButton = page.getHtmlElementById("myButton");
+
+        myButton.click();
+        final String[] expectedValues = {"nodeAdded: p,div", "nodeAdded: div,span", "nodeAdded: span,#text",
+            "nodeAdded: div,span", "nodeAdded: span,#text", "nodeAdded: p,b", "nodeAdded: b,#text"};
+        assertEquals(expectedValues, listenerImpl.getCollectedValues());
+        final String[] expectedAlerts = {"SPAN", "2"};
+        assertEquals(expectedAlerts, collectedAlerts);
+        assertEquals("s1", page.getHtmlElementById("s1").getId());
+    }
+
     /**
      * @throws Exception if the test fails
      */
@@ -820,4 +867,224 @@ public class DomNodeTest extends SimpleWebTestCase {
         assertTrue(elem1.isDisplayed());
         assertTrue(elem2.isDisplayed());
     }
+
+    /**
+     * Rarely used state lives in a side object allocated on demand; this protects the per-element footprint.
+     * The fields declared by all classes from {@link HtmlElement} up to {@link DomNode} are summed up,
+     * counting references with four bytes as with compressed references.
+     */
+    @Test
+    public void instanceFieldsSize() {
+        int size = 0;
+        for (Class<?> c = HtmlElement.class; c != Object.class; c = c.getSuperclass()) {
+            for (final Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    size += getFieldSize(field.getType());
+                }
+            }
+        }
+        assertTrue("fields of HtmlElement take " + size + " bytes", size <= 88);
+    }
+
+    private static int getFieldSize(final Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return 4;
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void sourcePositions() throws Exception {
+        final String html = "<html><head>\n"
+            + "<script>var x = 1;</script>\n"
+            + "</head><body>\n"
+            + "<div id='d'>text</div>\n"
+            + "</body></html>";
+
+        HtmlPage page = loadPage(html);
+        DomElement div = page.getElementById("d");
+        assertEquals(4, div.getStartLineNumber());
+        assertEquals(4, div.getEndLineNumber());
+        DomElement script = page.getElementsByTagName("script").get(0);
+        assertEquals(2, script.getStartLineNumber());
+
+        final WebClient client = getWebClientWithMockWebConnection();
+        client.getOptions().setRecordSourcePositions(false);
+        page = loadPage(client, html, null);
+        div = page.getElementById("d");
+        assertEquals(-1, div.getStartLineNumber());
+        assertEquals(-1, div.getStartColumnNumber());
+        assertEquals(-1, div.getEndLineNumber());
+        assertEquals(-1, div.getEndColumnNumber());
+        script = page.getElementsByTagName("script").get(0);
+        assertEquals(2, script.getStartLineNumber());
+    }
+
+    /**
+     * Elements are completed when their end tag is parsed, also if no source positions are recorded.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void completedWithoutSourcePositions() throws Exception {
+        final String html = "<html><head>\n"
+            + "<link rel='stylesheet' href='style.css'>\n"
+            + "</head><body>\n"
+            + "<select id='s1' size='3'><option>a</option><option>b</option></select>\n"
+            + "<select id='s2'><option>x</option><option>y</option></select>\n"
+            + "</body></html>";
+
+        final WebClient client = getWebClientWithMockWebConnection();
+        client.getOptions().setRecordSourcePositions(false);
+        getMockWebConnection().setResponse(new URL(URL_FIRST, "style.css"), "div { color: red }", "text/css");
+
+        HtmlPage page = loadPage(client, html, null);
+        assertEquals(2, getMockWebConnection().getRequestCount());
+        assertSelects(page);
+
+        // static pages don't load style sheets
+        client.setPageCreator(new StaticPageCreator());
+        page = loadPage(client, html, null);
+        assertTrue(page.isStatic());
+        assertEquals(3, getMockWebConnection().getRequestCount());
+        assertSelects(page);
+    }
+
+    private static void assertSelects(final HtmlPage page) {
+        final HtmlSelect s1 = page.getHtmlElementById("s1");
+        assertEquals("3", s1.getSizeAttribute());
+        assertTrue(s1.getSelectedOptions().isEmpty());
+
+        final HtmlSelect s2 = page.getHtmlElementById("s2");
+        assertEquals(1, s2.getSelectedOptions().size());
+        assertEquals("x", s2.getSelectedOptions().get(0).getText());
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void extras() throws Exception {
+        final String html = "<html><body><div id='d'>text</div></body></html>";
+        final HtmlPage page = loadPage(html);
+        final DomElement div = page.getElementById("d");
+
+        assertNull(div.getUserData("key"));
+        assertNull(div.setUserData("key", "value", null));
+        assertEquals("value", div.getUserData("key"));
+
+        assertEquals(DomNode.READY_STATE_LOADING, div.getReadyState());
+        div.setReadyState(DomNode.READY_STATE_COMPLETE);
+        assertEquals(DomNode.READY_STATE_COMPLETE, div.getReadyState());
+
+        final List<String> events = new ArrayList<>();
+        final DomChangeListener listener = new DomChangeListener() {
+            @Override
+            public void nodeAdded(final DomChangeEvent event) {
+                events.add("added");
+            }
+
+            @Override
+            public void nodeDeleted(final DomChangeEvent event) {
+                events.add("deleted");
+            }
+        };
+        div.addDomChangeListener(listener);
+
+        final DomElement clone = (DomElement) div.cloneNode(true);
+        assertEquals("value", clone.getUserData("key"));
+        assertEquals(DomNode.READY_STATE_COMPLETE, clone.getReadyState());
+
+        // the clone doesn't share the collections
+        clone.setUserData("key", "other", null);
+        clone.removeDomChangeListener(listener);
+        assertEquals("value", div.getUserData("key"));
+
+        div.appendChild(page.createElement("p"));
+        clone.appendChild(page.createElement("p"));
+        assertEquals(new String[] {"added"}, events);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void asXmlWriter() throws Exception {
+        final String html = "<html><head><title>foo</title></head>\n"
+            + "<body><div id='d' class='a&amp;b'>text <b>\u00e4</b><!-- comment --></div></body></html>";
+        final HtmlPage page = loadPage(html);
+
+        final StringWriter writer = new StringWriter();
+        page.asXml(writer);
+        assertEquals(page.asXml(), writer.toString());
+
+        final DomElement div = page.getElementById("d");
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        div.asXml(out, UTF_8);
+        assertEquals(div.asXml(), new String(out.toByteArray(), UTF_8));
+    }
+
+    /**
+     * The XML is written node by node and not collected into a single string first.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void asXmlWriterInParts() throws Exception {
+        final HtmlPage page = loadPage("<html><head></head><body></body></html>");
+        final HtmlElement body = page.getBody();
+        for (int i = 0; i < 1_000; i++) {
+            final DomElement div = page.createElement("div");
+            div.setAttribute("class", "row");
+            div.appendChild(page.createTextNode(StringUtils.repeat("some text ", 20) + i));
+            body.appendChild(div);
+        }
+
+        final StringBuilder xml = new StringBuilder();
+        final int[] maxWrite = new int[1];
+        final boolean[] flushed = new boolean[1];
+        final Writer writer = new Writer() {
+            @Override
+            public void write(final char[] cbuf, final int off, final int len) {
+                xml.append(cbuf, off, len);
+                maxWrite[0] = Math.max(maxWrite[0], len);
+                flushed[0] = false;
+            }
+
+            @Override
+            public void write(final String str, final int off, final int len) {
+                xml.append(str, off, off + len);
+                maxWrite[0] = Math.max(maxWrite[0], len);
+                flushed[0] = false;
+            }
+
+            @Override
+            public void flush() {
+                flushed[0] = true;
+            }
+
+            @Override
+            public void close() {
+                fail("must not be closed");
+            }
+        };
+
+        page.asXml(writer);
+
+        assertEquals(page.asXml(), xml.toString());
+        assertTrue("not flushed", flushed[0]);
+        // no write is larger than a single text node
+        assertTrue("too large write: " + maxWrite[0], maxWrite[0] < 1_000);
+        assertTrue(xml.length() > 200_000);
+    }
 }
@@ -59,6 +59,36 @@ public class HTMLParser4Test extends WebDriverTestCase {
         loadPageWithAlerts2(html);
     }
 
+    /**
+     * Parsing snippets several times, also while the page itself is parsed.
+     * @throws Exception failure
+     */
+    @Test
+    @Alerts({"2", "1 2", "2 P y"})
+    public void innerHTML_repeated() throws Exception {
+        final String html = HtmlPageTest.STANDARDS_MODE_PREFIX_
+            + "<html><body>\n"
+            + "<div id='d1'></div>\n"
+            + "<script>\n"
+            + "  var d1 = document.getElementById('d1');\n"
+            + "  d1.innerHTML = '<span>a</span><span>b</span>';\n"
+            + "  alert(d1.childNodes.length);\n"
+            + "</script>\n"
+            + "<ul id='u1'></ul>\n"
+            + "<script>\n"
+            + "  var u1 = document.getElementById('u1');\n"
+            + "  for (var i = 0; i < 3; i++) {\n"
+            + "    u1.innerHTML = '<li>' + i + '</li>';\n"
+            + "  }\n"
+            + "  alert(u1.childNodes.length + ' ' + u1.firstChild.innerHTML);\n"
+            + "  d1.innerHTML = '<p>x</p><p>y</p>';\n"
+            + "  alert(d1.childNodes.length + ' ' + d1.lastChild.tagName + ' ' + d1.lastChild.innerHTML);\n"
+            + "</script>\n"
+            + "</body></html>";
+
+        loadPageWithAlerts2(html);
+    }
+
     /**
      * Test for the condition when there is a <tt>&lt;form&gt;</tt> inside of a <tt>&lt;table&gt;</tt> and before
      * a <tt>&lt;tr&gt;</tt>.
@@ -15,11 +15,16 @@
 package com.gargoylesoftware.htmlunit.html;
 
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import com.gargoylesoftware.htmlunit.BrowserRunner;
+import com.gargoylesoftware.htmlunit.BrowserRunner.Alerts;
+import com.gargoylesoftware.htmlunit.Page;
 import com.gargoylesoftware.htmlunit.SimpleWebTestCase;
 import com.gargoylesoftware.htmlunit.StringWebResponse;
 import com.gargoylesoftware.htmlunit.WebClient;
@@ -148,4 +153,148 @@ public class HTMLParserTest extends SimpleWebTestCase {
         final DomElement col = page.getElementsByTagName("col").get(0);
         assertEquals(col.getParentNode().getNodeName(), HtmlTableColumnGroup.TAG_NAME);
     }
+
+    /**
+     * @throws Exception failure
+     */
+    @Test
+    @Alerts({"t t", "changed t", "2", "d2", "t"})
+    public void fragmentCache() throws Exception {
+        final String html = "<html><head>\n"
+            + "<script>\n"
+            + "  function test() {\n"
+            + "    var markup = '<span class=\"a\" title=\"t\">x</span>';\n"
+            + "    var d1 = document.getElementById('d1');\n"
+            + "    var d2 = document.getElementById('d2');\n"
+            + "    d1.innerHTML = markup;\n"
+            + "    d2.innerHTML = markup;\n"
+            + "    alert(d1.firstChild.title + ' ' + d2.firstChild.title);\n"
+            + "    d1.firstChild.getAttributeNode('title').value = 'changed';\n"
+            + "    alert(d1.firstChild.title + ' ' + d2.firstChild.title);\n"
+            + "    alert(document.getElementsByClassName('a').length);\n"
+            + "    d2.innerHTML = '<i id=\"s2\"></i>';\n"
+            + "    d1.innerHTML = '<i id=\"s2\"></i>';\n"
+            + "    alert(document.getElementById('s2').parentNode.id);\n"
+            + "    d1.innerHTML = markup;\n"
+            + "    alert(d1.firstChild.title);\n"
+            + "  }\n"
+            + "</script></head>\n"
+            + "<body onload='test()'>\n"
+            + "  <div id='d1'></div>\n"
+            + "  <div id='d2'></div>\n"
+            + "</body></html>";
+
+        getWebClientWithMockWebConnection().getOptions().setFragmentCacheSize(10);
+        loadPageWithAlerts(html);
+    }
+
+    /**
+     * Parses a few snippets a few times with the fragment cache enabled.
+     * The speed of the cache is measured by {@link com.gargoylesoftware.htmlunit.benchmark.FragmentCacheBenchmark}.
+     * @throws Exception failure
+     */
+    @Test
+    public void fragmentCacheManySnippets() throws Exception {
+        final String[] snippets = new String[10];
+        for (int i = 0; i < snippets.length - 1; i++) {
+            snippets[i] = "<div class='row'><span id='s" + i + "'>text " + i + "</span><b>bold</b></div>";
+        }
+        snippets[snippets.length - 1] = "<p>x</p><script>var executed = true;</script>";
+
+        getWebClientWithMockWebConnection().getOptions().setFragmentCacheSize(snippets.length);
+        final HtmlPage page = loadPage("<html><head></head><body><div id='target'></div></body></html>");
+        final HtmlElement target = page.getHtmlElementById("target");
+
+        for (int i = 0; i < 3 * snippets.length; i++) {
+            target.removeAllChildren();
+            HTMLParser.parseFragment(target, snippets[i % snippets.length]);
+        }
+
+        final Map<List<String>, DomDocumentFragment> cache = page.getFragmentCache();
+        assertEquals(snippets.length, cache.size());
+        int notCacheable = 0;
+        for (final DomDocumentFragment template : cache.values()) {
+            if (template == null) {
+                notCacheable++;
+            }
+        }
+        assertEquals(1, notCacheable);
+
+        assertEquals(2, target.getChildElementCount());
+        assertEquals("undefined", page.executeJavaScript("typeof executed").getJavaScriptResult());
+
+        target.removeAllChildren();
+        HTMLParser.parseFragment(target, snippets[3]);
+        assertEquals("text 3", page.getHtmlElementById("s3").asText());
+        assertEquals(1, page.getElementsByTagName("b").size());
+    }
+
+    /**
+     * @throws Exception failure
+     */
+    @Test
+    public void extractStaticHtml() throws Exception {
+        final StringBuilder html = new StringBuilder("<html><head><title>list</title>\n"
+                + "<script>alert('never')</script></head><body>\n");
+        for (int i = 0; i < 1000; i++) {
+            html.append("<div class='item'><a href='p").append(i).append(".html'>item ").append(i)
+                .append("</a><!-- c --><ul><li>").append(i).append("</li></ul></div>\n<p>filler</p>\n");
+        }
+        html.append("</body></html>");
+
+        final WebClient webClient = getWebClient();
+        final Page previousPage = webClient.getCurrentWindow().getEnclosedPage();
+        final List<String> links = new ArrayList<>();
+        final List<String> items = new ArrayList<>();
+        final int[] maxNodes = new int[1];
+        final HtmlPage[] page = new HtmlPage[1];
+
+        final ExtractionHandler linkHandler = new ExtractionHandler() {
+            @Override
+            public boolean matches(final DomElement element) {
+                return element instanceof HtmlAnchor;
+            }
+
+            @Override
+            public void elementParsed(final DomElement element) {
+                links.add(element.getAttribute("href") + " " + element.asText());
+            }
+        };
+        final ExtractionHandler itemHandler = new ExtractionHandler() {
+            @Override
+            public boolean matches(final DomElement element) {
+                return "item".equals(element.getAttribute("class"));
+            }
+
+            @Override
+            public void elementParsed(final DomElement element) {
+                items.add(element.asText());
+                page[0] = (HtmlPage) element.getPage();
+                int count = 0;
+                for (final DomNode node : element.getPage().getDescendants()) {
+                    count++;
+                }
+                maxNodes[0] = Math.max(maxNodes[0], count);
+            }
+        };
+
+        final WebResponse webResponse = new StringWebResponse(html.toString(), URL_FIRST);
+        HTMLParser.extractStaticHtml(webResponse, webClient.getCurrentWindow(), linkHandler, itemHandler);
+
+        assertEquals(1000, links.size());
+        assertEquals("p0.html item 0", links.get(0));
+        assertEquals("p999.html item 999", links.get(999));
+        assertEquals(1000, items.size());
+        assertEquals("item 7\n7", items.get(7));
+
+        // the previous items have been discarded
+        assertTrue("nodes: " + maxNodes[0], maxNodes[0] < 20);
+        assertSame(previousPage, webClient.getCurrentWindow().getEnclosedPage());
+
+        // the skeleton of the page is kept
+        assertEquals("html", page[0].getDocumentElement().getNodeName());
+        assertNotNull(page[0].getHead());
+        assertNotNull(page[0].getBody());
+        assertNull(page[0].getBody().getFirstElementChild());
+    }
 }
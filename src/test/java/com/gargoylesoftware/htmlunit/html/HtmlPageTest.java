@@ -1915,4 +1915,54 @@ public class HtmlPageTest extends SimpleWebTestCase {
         page.addAutoCloseable(null);
         page.cleanUp();
     }
+
+    /**
+     * The tag and class indexes are maintained in document order when elements
+     * are prepended or removed from the start.
+     * @exception Exception If the test fails
+     */
+    @Test
+    public void indexesPrependAndRemoveFirst() throws Exception {
+        final String html = "<html><body>\n"
+            + "<span id='s0' class='item'></span><div id='d'><span id='s1' class='item'></span></div>\n"
+            + "</body></html>";
+        final HtmlPage page = loadPage(html);
+        final HtmlElement body = page.getBody();
+        final HtmlElement div = page.getHtmlElementById("d");
+        final List<DomElement> spans = page.getIndexedElementsByTagName("span");
+        final List<DomElement> items = page.getIndexedElementsByClassName("item");
+        assertEquals("s0,s1", ids(spans));
+        assertEquals("s0,s1", ids(items));
+
+        // prepend loops, at the start of the document and in the middle of the lists
+        for (int i = 2; i < 5; i++) {
+            final DomElement span = page.createElement("span");
+            span.setAttribute("id", "s" + i);
+            span.setAttribute("class", "item");
+            body.insertBefore(span, body.getFirstChild());
+
+            final DomElement inDiv = page.createElement("span");
+            inDiv.setAttribute("id", "t" + i);
+            inDiv.setAttribute("class", "item");
+            div.insertBefore(inDiv, div.getFirstChild());
+        }
+        assertEquals("s4,s3,s2,s0,t4,t3,t2,s1", ids(spans));
+        assertEquals("s4,s3,s2,s0,t4,t3,t2,s1", ids(items));
+
+        // remove first loop
+        for (int i = 0; i < 3; i++) {
+            body.getFirstElementChild().remove();
+            div.getFirstElementChild().remove();
+        }
+        assertEquals("s0,s1", ids(spans));
+        assertEquals("s0,s1", ids(items));
+    }
+
+    private static String ids(final List<DomElement> elements) {
+        final List<String> ids = new ArrayList<>();
+        for (final DomElement element : elements) {
+            ids.add(element.getId());
+        }
+        return String.join(",", ids);
+    }
 }
@@ -742,4 +742,80 @@ public class HtmlSelectTest extends SimpleWebTestCase {
         final HtmlSelect select2 = (HtmlSelect) page2.getElementById("main");
         assertEquals("option 2", select2.getSelectedOptions().get(0).getText());
     }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void optionIndex() throws Exception {
+        final String html = "<html><body><form>\n"
+            + "<select id='s' multiple>\n"
+            + "  <option value='a'>A</option>\n"
+            + "  <optgroup label='g'><option>B</option><option value='c' selected>C</option></optgroup>\n"
+            + "  <option value='a'>second A</option>\n"
+            + "</select>\n"
+            + "</form></body></html>";
+        final HtmlPage page = loadPage(html);
+        final HtmlSelect select = page.getHtmlElementById("s");
+
+        assertEquals(4, select.getOptionSize());
+        assertEquals("B", select.getOption(1).getText());
+        assertEquals("A", select.getOptionByValue("a").getText());
+        assertEquals("c", select.getOptionByText("C").getValueAttribute());
+        assertEquals(2, select.getSelectedIndex());
+
+        // value and text changes
+        select.getOption(0).setValueAttribute("x");
+        assertEquals("second A", select.getOptionByValue("a").getText());
+        ((DomText) select.getOption(1).getFirstChild()).setData("b2");
+        assertEquals("b2", select.getOptionByValue("b2").getText());
+        assertEquals(select.getOption(1), select.getOptionByText("b2"));
+
+        // selection changes
+        select.getOption(3).setSelected(true);
+        assertEquals(2, select.getSelectedOptions().size());
+        select.setSelectedAttribute(select.getOption(0), true, false, false, false, true);
+        assertEquals(new String[] {"A"}, texts(select.getSelectedOptions()));
+
+        // structural changes
+        select.removeOption(0);
+        assertEquals(3, select.getOptionSize());
+        assertEquals(-1, select.getSelectedIndex());
+        final HtmlOption option = (HtmlOption) page.createElement("option");
+        option.setText("new");
+        select.appendOption(option);
+        assertEquals(option, select.getOptionByText("new"));
+        assertEquals(3, select.getOptions().indexOf(option));
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void largeSelect() throws Exception {
+        final StringBuilder html = new StringBuilder("<html><body><form><select id='s'>\n");
+        for (int i = 0; i < 5000; i++) {
+            html.append("<option value='v").append(i).append("'>text ").append(i).append("</option>\n");
+        }
+        html.append("</select></form></body></html>");
+        final HtmlPage page = loadPage(html.toString());
+        final HtmlSelect select = page.getHtmlElementById("s");
+
+        final long start = System.currentTimeMillis();
+        for (int i = 0; i < 5000; i++) {
+            select.setSelectedAttribute("v" + i, true);
+            assertEquals(i, select.getSelectedIndex());
+            assertEquals("text " + i, select.getSelectedOptions().get(0).getText());
+            assertSame(select.getOption(i), select.getOptionByText("text " + i));
+        }
+        assertTrue(System.currentTimeMillis() - start < 10000);
+    }
+
+    private static List<String> texts(final List<HtmlOption> options) {
+        final List<String> texts = new ArrayList<>();
+        for (final HtmlOption option : options) {
+            texts.add(option.getText());
+        }
+        return texts;
+    }
 }
@@ -17,11 +17,17 @@ package com.gargoylesoftware.htmlunit.html;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
 import org.junit.Test;
 
+import com.gargoylesoftware.htmlunit.MockWebConnection;
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.WebTestCase;
+
 /**
  * Tests for {@link HtmlSerializer}.
  *
@@ -132,4 +138,85 @@ public class HtmlSerializerTest {
         assertEquals("\uFEFF", serializer.cleanUp("\uFEFF"));
         assertEquals("\u200B", serializer.cleanUp("\u200B"));
     }
+
+    /**
+     * Test {@link HtmlSerializer#flush(StringBuilder, Appendable, boolean)}.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void flushInParts() throws Exception {
+        final HtmlSerializer serializer = new HtmlSerializer();
+
+        final String[] parts = {"  a", " ", HtmlSerializer.AS_TEXT_BLOCK_SEPARATOR, "b c",
+            HtmlSerializer.AS_TEXT_NEW_LINE, HtmlSerializer.AS_TEXT_BLOCK_SEPARATOR, " ",
+            HtmlSerializer.AS_TEXT_BLOCK_SEPARATOR, "d",
+            HtmlSerializer.AS_TEXT_BLANK, HtmlSerializer.AS_TEXT_BLANK, "e", HtmlSerializer.AS_TEXT_TAB, "f  ",
+            HtmlSerializer.AS_TEXT_NEW_LINE, "g", (char) 160 + "h", HtmlSerializer.AS_TEXT_BLOCK_SEPARATOR, " "};
+
+        final StringBuilder text = new StringBuilder();
+        final StringBuilder builder = new StringBuilder();
+        final StringBuilder output = new StringBuilder();
+        for (final String part : parts) {
+            text.append(part);
+            builder.append(part);
+            serializer.flush(builder, output, false);
+        }
+        serializer.flush(builder, output, true);
+
+        assertEquals(serializer.cleanUp(text.toString()), output.toString());
+        assertEquals(0, builder.length());
+    }
+
+    /**
+     * Streams the text of a page that is written in many parts.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void asTextAppendable() throws Exception {
+        final StringBuilder html = new StringBuilder("<html><head><title>foo</title></head><body>\n");
+        for (int i = 0; i < 2_000; i++) {
+            html.append("<p>para ").append(i).append("  <b>bold</b>\n  <i>italic</i> text&nbsp;x<br>\n")
+                .append("<span> a </span><span>b</span>  <span>\tc </span></p>\n")
+                .append("<div>\n  <table><tr><td> 1 </td><td>2</td></tr></table>\n</div>")
+                .append("<pre>  pre\ttext\n  </pre><ul><li> item </li><li>item</li></ul>\n");
+        }
+        html.append("</body></html>");
+
+        try (WebClient webClient = new WebClient()) {
+            final MockWebConnection connection = new MockWebConnection();
+            connection.setDefaultResponse(html.toString());
+            webClient.setWebConnection(connection);
+            final HtmlPage page = webClient.getPage(WebTestCase.URL_FIRST);
+
+            final StringBuilder text = new StringBuilder();
+            final List<Integer> parts = new ArrayList<>();
+            final Appendable output = new Appendable() {
+                @Override
+                public Appendable append(final CharSequence csq) {
+                    parts.add(csq.length());
+                    text.append(csq);
+                    return this;
+                }
+
+                @Override
+                public Appendable append(final CharSequence csq, final int start, final int end) {
+                    return append(csq.subSequence(start, end));
+                }
+
+                @Override
+                public Appendable append(final char c) {
+                    text.append(c);
+                    return this;
+                }
+            };
+            final HtmlSerializer serializer = new HtmlSerializer();
+            serializer.asText(page, output);
+
+            assertEquals(serializer.asText(page), text.toString());
+            assertTrue(parts.size() > 10);
+            for (final int length : parts) {
+                assertTrue("part of " + length + " chars", length < 2 * 8 * 1024);
+            }
+        }
+    }
 }
@@ -543,4 +543,87 @@ public class HtmlTableTest extends SimpleWebTestCase {
         final HtmlPage page = loadPage(html);
         assertTrue(page.asXml().contains("</table>"));
     }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void gridRowsAndColumns() throws Exception {
+        final String html = "<html><body><table id='t'>\n"
+            + "<tr><td rowspan='2'>a</td><td colspan='2'>b</td></tr>\n"
+            + "<tr><td>c</td></tr>\n"
+            + "<tr><td>d</td><td>e</td><td>f</td></tr>\n"
+            + "</table></body></html>";
+        final HtmlPage page = loadPage(html);
+        final HtmlTable table = page.getHtmlElementById("t");
+
+        assertEquals(3, table.getColumnCount());
+        final List<HtmlTableCell> row1 = table.getCellsOfRow(1);
+        assertEquals(3, row1.size());
+        assertEquals("a", row1.get(0).asText());
+        assertEquals("c", row1.get(1).asText());
+        assertNull(row1.get(2));
+        assertTrue(table.getCellsOfRow(3).isEmpty());
+
+        final List<HtmlTableCell> column0 = table.getCellsOfColumn(0);
+        assertEquals(3, column0.size());
+        assertSame(column0.get(0), column0.get(1));
+        assertEquals("d", column0.get(2).asText());
+        assertTrue(table.getCellsOfColumn(3).isEmpty());
+
+        final List<String> rows = new ArrayList<>();
+        table.exportRows(texts -> rows.add(String.join("|", texts)));
+        assertEquals(new String[] {"a|b|b", "a|c|", "d|e|f"}, rows);
+
+        // changes invalidate the grid
+        table.getCellAt(0, 0).removeAttribute("rowspan");
+        assertEquals("c", table.getCellAt(1, 0).asText());
+        table.getCellAt(1, 0).setAttribute("colspan", "3");
+        assertEquals("c", table.getCellAt(1, 2).asText());
+        table.getRow(2).remove();
+        assertNull(table.getCellAt(2, 0));
+        assertEquals(2, table.getCellsOfColumn(0).size());
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void getCellAtLargeTable() throws Exception {
+        final StringBuilder html = new StringBuilder("<html><body><table id='t'>\n");
+        for (int i = 0; i < 1000; i++) {
+            html.append("<tr>");
+            for (int j = 0; j < 20; j++) {
+                if (i % 10 == 0 && j == 0) {
+                    html.append("<td rowspan='2'>");
+                }
+                else if (i % 10 == 1 && j == 19) {
+                    continue;
+                }
+                else {
+                    html.append("<td>");
+                }
+                html.append(i).append('-').append(j).append("</td>");
+            }
+            html.append("</tr>\n");
+        }
+        html.append("</table></body></html>");
+        final HtmlPage page = loadPage(html.toString());
+        final HtmlTable table = page.getHtmlElementById("t");
+
+        final long start = System.currentTimeMillis();
+        int count = 0;
+        for (int i = 0; i < 1000; i++) {
+            for (int j = 0; j < 20; j++) {
+                if (table.getCellAt(i, j) != null) {
+                    count++;
+                }
+            }
+        }
+        assertEquals(20000, count);
+        assertEquals("10-0", table.getCellAt(11, 0).asText());
+        assertEquals("11-18", table.getCellAt(11, 19).asText());
+        assertTrue(System.currentTimeMillis() - start < 5000);
+    }
 }
+
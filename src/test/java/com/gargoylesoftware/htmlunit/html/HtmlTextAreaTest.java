@@ -14,6 +14,9 @@
  */
 package com.gargoylesoftware.htmlunit.html;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
@@ -339,4 +342,33 @@ public class HtmlTextAreaTest extends SimpleWebTestCase {
 
         assertEquals("0815", input.getTextContent());
     }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void fill() throws Exception {
+        final String html = "<html><head></head><body>\n"
+            + "<textarea id='t' onkeypress='alert(\"keypress\")'"
+            + " oninput='alert(\"input \" + this.value)' onchange='alert(\"change \" + this.value)'>"
+            + "old</textarea>\n"
+            + "<textarea id='r' readonly onchange='alert(\"change\")'></textarea>\n"
+            + "</body></html>";
+        final List<String> collectedAlerts = new ArrayList<>();
+        final HtmlPage page = loadPage(html, collectedAlerts);
+
+        final HtmlTextArea t = page.getHtmlElementById("t");
+        t.focus();
+        assertSame(page, t.fill("line1\nline2"));
+        t.blur();
+        assertEquals("line1\nline2", t.getText());
+        assertEquals(new String[] {"input line1\nline2", "change line1\nline2"}, collectedAlerts);
+
+        collectedAlerts.clear();
+        t.fill("line1\nline2");
+        final HtmlTextArea r = page.getHtmlElementById("r");
+        r.fill("abc");
+        assertEquals("", r.getText());
+        assertEquals(0, collectedAlerts.size());
+    }
 }
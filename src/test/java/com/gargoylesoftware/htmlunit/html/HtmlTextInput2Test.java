@@ -14,6 +14,8 @@
  */
 package com.gargoylesoftware.htmlunit.html;
 
+import static org.junit.Assert.fail;
+
 import java.util.LinkedList;
 import java.util.List;
 
@@ -407,4 +409,60 @@ public class HtmlTextInput2Test extends SimpleWebTestCase {
 
         assertEquals("0815", input.getValueAttribute());
     }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void fill() throws Exception {
+        final String html = "<html><head></head><body>\n"
+            + "<input id='t' maxlength='5' onkeydown='alert(\"keydown\")' onkeyup='alert(\"keyup\")'"
+            + " oninput='alert(\"input \" + this.value)' onchange='alert(\"change \" + this.value)'>\n"
+            + "<input id='r' readonly onchange='alert(\"change\")'>\n"
+            + "<input id='d' disabled onchange='alert(\"change\")'>\n"
+            + "<input id='n' maxlength='-1'>\n"
+            + "<input id='c' type='checkbox'>\n"
+            + "</body></html>";
+        final List<String> collectedAlerts = new LinkedList<>();
+        final HtmlPage page = loadPage(html, collectedAlerts);
+
+        final HtmlTextInput t = page.getHtmlElementById("t");
+        assertSame(page, t.fill("abcdefgh"));
+        assertEquals("abcde", t.getValueAttribute());
+        assertEquals(new String[] {"input abcde", "change abcde"}, collectedAlerts);
+
+        // same value
+        collectedAlerts.clear();
+        t.fill("abcde");
+        assertEquals(0, collectedAlerts.size());
+
+        // no second change event when losing the focus
+        t.focus();
+        t.fill("xy");
+        t.blur();
+        assertEquals(new String[] {"input xy", "change xy"}, collectedAlerts);
+
+        collectedAlerts.clear();
+        final HtmlTextInput r = page.getHtmlElementById("r");
+        r.fill("abc");
+        assertEquals("", r.getValueAttribute());
+        final HtmlTextInput d = page.getHtmlElementById("d");
+        d.fill("abc");
+        assertEquals("", d.getValueAttribute());
+        assertEquals(0, collectedAlerts.size());
+
+        // a negative maxlength is ignored
+        final HtmlTextInput n = page.getHtmlElementById("n");
+        n.fill("abc");
+        assertEquals("abc", n.getValueAttribute());
+
+        final HtmlCheckBoxInput c = page.getHtmlElementById("c");
+        try {
+            c.fill("abc");
+            fail("IllegalStateException expected");
+        }
+        catch (final IllegalStateException e) {
+            // expected
+        }
+    }
 }
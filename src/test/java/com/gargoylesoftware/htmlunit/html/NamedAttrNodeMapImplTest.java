@@ -18,6 +18,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -186,4 +187,62 @@ public class NamedAttrNodeMapImplTest {
         assertEquals("Key2", entry.getKey());
         assertEquals("attr2", entry.getValue().getNodeName());
     }
+
+    /**
+     * The attribute nodes are created on demand only.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void lazyAttributeNodes() throws Exception {
+        final DomElement dom = new HtmlBreak("", null, null);
+
+        final NamedAttrNodeMapImpl map = new NamedAttrNodeMapImpl(dom, true);
+        map.putValue("id", "myId");
+        map.putValue("class", "");
+        assertEquals(2, map.size());
+        assertNull(map.getCreatedAttrAt(0));
+        assertEquals("myId", map.getValue("id"));
+        assertSame(DomElement.ATTRIBUTE_VALUE_EMPTY, map.getValueDirect("class"));
+        assertSame(DomElement.ATTRIBUTE_NOT_DEFINED, map.getValueDirect("title"));
+
+        final DomAttr attr = map.get("id");
+        assertEquals("id", attr.getName());
+        assertEquals("myId", attr.getValue());
+        assertSame(dom, attr.getOwnerElement());
+        assertSame(attr, map.getCreatedAttrAt(0));
+        assertSame(attr, map.item(0));
+        assertNull(map.getCreatedAttrAt(1));
+
+        map.putValue("id", "other");
+        assertEquals("other", map.getValue("id"));
+        assertNull(map.getCreatedAttrAt(0));
+    }
+
+    /**
+     * Removing keeps the order of the remaining attributes.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void removePreservesOrder() throws Exception {
+        final DomElement dom = new HtmlBreak("", null, null);
+
+        final NamedAttrNodeMapImpl map = new NamedAttrNodeMapImpl(dom, true);
+        map.putValue("a", "1");
+        map.putValue("b", "2");
+        map.putValue("c", "3");
+        map.putValue("d", "4");
+
+        assertEquals("2", map.remove("b").getValue());
+        assertNull(map.remove("b"));
+        final Iterator<String> keys = map.keySet().iterator();
+        keys.next();
+        keys.next();
+        keys.remove();
+
+        assertEquals(2, map.getLength());
+        assertEquals("a", map.getNameAt(0));
+        assertEquals("d", map.getNameAt(1));
+        assertEquals("4", map.getValueAt(1));
+        assertNull(map.item(2));
+    }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2002-2018 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.html;
+
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.gargoylesoftware.css.parser.CSSException;
+import com.gargoylesoftware.htmlunit.BrowserRunner;
+import com.gargoylesoftware.htmlunit.SimpleWebTestCase;
+
+/**
+ * Tests for {@link QueryBatch}.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+@RunWith(BrowserRunner.class)
+public class QueryBatchTest extends SimpleWebTestCase {
+
+    private static final String HTML = "<html><body>\n"
+            + "<div id='main' class='box a'>\n"
+            + "  <p class='a a'>one</p>\n"
+            + "  <p id='second'>two <span class='b'>x</span></p>\n"
+            + "  <ul><li>1</li><li class='b a'>2</li><li>3</li></ul>\n"
+            + "</div>\n"
+            + "<div class='box'><a href='#'>link</a><p title='t'>three</p></div>\n"
+            + "</body></html>";
+
+    private static final String[] SELECTORS = {
+        "p", ".a", "#second", "div > p", "li + li", "li ~ li", "*", "[title]",
+        "p, .b, #main", "div .a", "li:first-child", ".box.a", "#unknown", "ul li.b.a", "p:not(.a)"
+    };
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void sameResultsAsSingleQueries() throws Exception {
+        final HtmlPage page = loadPage(HTML);
+
+        final QueryBatch batch = new QueryBatch();
+        for (final String selectors : SELECTORS) {
+            batch.addSelectors(selectors);
+        }
+        final int xpath = batch.addXPath("//li");
+        assertEquals(SELECTORS.length + 1, batch.size());
+
+        for (final DomNode root : new DomNode[] {page, page.getHtmlElementById("main")}) {
+            final List<List<?>> results = root.query(batch);
+            assertEquals(batch.size(), results.size());
+            for (int i = 0; i < SELECTORS.length; i++) {
+                assertEquals(SELECTORS[i], root.querySelectorAll(SELECTORS[i]), results.get(i));
+            }
+            assertEquals(root.getByXPath("//li"), results.get(xpath));
+        }
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void reuse() throws Exception {
+        final QueryBatch batch = new QueryBatch();
+        batch.addSelectors("p");
+        batch.addXPath("count(//p)");
+
+        final List<List<?>> results1 = loadPage(HTML).query(batch);
+        assertEquals(3, results1.get(0).size());
+        assertEquals(3.0, results1.get(1).get(0));
+
+        final List<List<?>> results2 = loadPage("<html><body><p>x</p></body></html>").query(batch);
+        assertEquals(1, results2.get(0).size());
+        assertEquals(1.0, results2.get(1).get(0));
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void invalidSelectors() throws Exception {
+        final QueryBatch batch = new QueryBatch();
+        try {
+            batch.addSelectors("p[");
+            fail("CSSException expected");
+        }
+        catch (final CSSException e) {
+            // expected
+        }
+        assertEquals(0, batch.size());
+    }
+}
@@ -1578,4 +1578,47 @@ public class WindowTest extends SimpleWebTestCase {
         final HtmlPage page = loadPageWithAlerts(html);
         assertEquals("hello", page.getTitleText());
     }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void mutationJournal() throws Exception {
+        getWebClient().getOptions().setMutationJournalEnabled(true);
+        final String html = "<html><head><style>.hidden { display: none }</style>\n"
+            + "<script>\n"
+            + "  function test() {\n"
+            + "    var d = document.getElementById('d');\n"
+            + "    alert(getComputedStyle(d, null).display);\n"
+            + "    for (var i = 0; i < 1000; i++) {\n"
+            + "      d.className = i % 2 ? 'hidden' : '';\n"
+            + "    }\n"
+            + "    alert(getComputedStyle(d, null).display);\n"
+            + "    d.className = '';\n"
+            + "    alert(getComputedStyle(d, null).display);\n"
+            + "  }\n"
+            + "</script></head><body onload='test()'><div id='d'></div></body></html>";
+        final List<String> collectedAlerts = new ArrayList<>();
+        final HtmlPage page = loadPage(html, collectedAlerts);
+        assertEquals(new String[] {"block", "none", "block"}, collectedAlerts);
+
+        final List<Integer> batches = new ArrayList<>();
+        page.addDomChangeBatchListener(changes -> batches.add(changes == null ? -1 : changes.size()));
+
+        // notified once the script has finished
+        page.executeJavaScript("var d = document.getElementById('d');"
+                + "for (var i = 0; i < 10; i++) { d.title = i; }");
+        assertEquals(Arrays.asList(10), batches);
+
+        page.executeJavaScript("for (var i = 0; i < 1000; i++) { d.title = i; }");
+        assertEquals(Arrays.asList(10, -1), batches);
+
+        // changes done from Java are notified when flushing
+        page.getHtmlElementById("d").setAttribute("title", "java");
+        assertEquals(2, batches.size());
+        page.flushMutationJournal();
+        assertEquals(Arrays.asList(10, -1, 1), batches);
+        page.flushMutationJournal();
+        assertEquals(3, batches.size());
+    }
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2002-2018 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.javascript.host.css;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.gargoylesoftware.htmlunit.BrowserRunner;
+import com.gargoylesoftware.htmlunit.SimpleWebTestCase;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+import com.gargoylesoftware.htmlunit.javascript.host.html.HTMLDocument;
+
+/**
+ * Tests for {@link CSSCascadeIndex}.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+@RunWith(BrowserRunner.class)
+public class CSSCascadeIndexTest extends SimpleWebTestCase {
+
+    private static final String DISPLAY_FUNCTION = "<script>\n"
+            + "  function display(id) {\n"
+            + "    alert(window.getComputedStyle(document.getElementById(id), null).display);\n"
+            + "  }\n"
+            + "</script>\n";
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void buckets() throws Exception {
+        final String html = "<html><head>\n"
+            + "<style>\n"
+            + "  #byId { display: inline }\n"
+            + "  .c { display: table }\n"
+            + "  span { display: list-item }\n"
+            + "  [data-x] { display: inline-block }\n"
+            + "  :empty { display: table-cell }\n"
+            + "  .e { display: table-row }\n"
+            + "  .f { display: none }\n"
+            + "</style>\n"
+            + DISPLAY_FUNCTION
+            + "</head><body>\n"
+            + "<div id='byId'>x</div>\n"
+            + "<div id='byClass' class='c'>x</div>\n"
+            + "<span id='byTag'>x</span>\n"
+            + "<div id='byAttribute' data-x='1'>x</div>\n"
+            + "<div id='other'></div>\n"
+            + "<span id='classBeatsTag' class='c'>x</span>\n"
+            + "<div id='documentOrder' class='f e'>x</div>\n"
+            + "<div id='none'>x</div>\n"
+            + "</body></html>";
+        final List<String> collectedAlerts = new ArrayList<>();
+        final HtmlPage page = loadPage(html, collectedAlerts);
+        for (final String id : new String[] {"byId", "byClass", "byTag", "byAttribute", "other",
+            "classBeatsTag", "documentOrder", "none"}) {
+            page.executeJavaScript("display('" + id + "')");
+        }
+        assertEquals(new String[] {"inline", "table", "list-item", "inline-block", "table-cell",
+            "table", "none", "block"}, collectedAlerts);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void mediaChangesOnResize() throws Exception {
+        final String html = "<html><head>\n"
+            + "<style>\n"
+            + "  @media (max-width: 600px) { div { display: none } }\n"
+            + "</style>\n"
+            + DISPLAY_FUNCTION
+            + "</head><body>\n"
+            + "<div id='d1'>x</div><div id='d2'>x</div>\n"
+            + "</body></html>";
+        final List<String> collectedAlerts = new ArrayList<>();
+        final HtmlPage page = loadPage(html, collectedAlerts);
+        final StyleSheetList sheets = ((HTMLDocument) page.getScriptableObject()).getStyleSheets();
+
+        page.getEnclosingWindow().setInnerWidth(1000);
+        page.executeJavaScript("display('d1')");
+        final CSSCascadeIndex index = sheets.getCascadeIndex();
+        assertSame(index, sheets.getCascadeIndex());
+
+        page.getEnclosingWindow().setInnerWidth(500);
+        assertNotSame(index, sheets.getCascadeIndex());
+        page.executeJavaScript("display('d2')");
+
+        assertEquals(new String[] {"block", "none"}, collectedAlerts);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void styleSheetAddedAndRemoved() throws Exception {
+        final String html = "<html><head>\n"
+            + DISPLAY_FUNCTION
+            + "</head><body>\n"
+            + "<div id='d'>x</div>\n"
+            + "</body></html>";
+        final List<String> collectedAlerts = new ArrayList<>();
+        final HtmlPage page = loadPage(html, collectedAlerts);
+        final StyleSheetList sheets = ((HTMLDocument) page.getScriptableObject()).getStyleSheets();
+
+        page.executeJavaScript("display('d')");
+        final CSSCascadeIndex index = sheets.getCascadeIndex();
+
+        page.executeJavaScript("var style = document.createElement('style');\n"
+                + "style.id = 's';\n"
+                + "style.appendChild(document.createTextNode('div { display: none }'));\n"
+                + "document.head.appendChild(style);\n"
+                + "display('d');");
+        final CSSCascadeIndex indexWithSheet = sheets.getCascadeIndex();
+        assertNotSame(index, indexWithSheet);
+
+        page.executeJavaScript("document.head.removeChild(document.getElementById('s'));\n"
+                + "display('d');");
+        assertNotSame(indexWithSheet, sheets.getCascadeIndex());
+
+        assertEquals(new String[] {"block", "none", "block"}, collectedAlerts);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2002-2018 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.javascript.host.css;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.gargoylesoftware.htmlunit.BrowserRunner;
+import com.gargoylesoftware.htmlunit.SimpleWebTestCase;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+import com.gargoylesoftware.htmlunit.javascript.host.Window;
+
+/**
+ * Unit tests for {@link ComputedCSSStyleDeclaration}.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+@RunWith(BrowserRunner.class)
+public class ComputedCSSStyleDeclaration2Test extends SimpleWebTestCase {
+
+    /**
+     * A mutation only discards the geometry depending on the changed node.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void layoutKeptForUnrelatedMutation() throws Exception {
+        final String html = "<html><head>\n"
+            + "<script>\n"
+            + "  function measure() {\n"
+            + "    var ids = ['before', 'list', 'after'];\n"
+            + "    for (var i = 0; i < ids.length; i++) {\n"
+            + "      var e = document.getElementById(ids[i]);\n"
+            + "      e.offsetTop + e.offsetHeight;\n"
+            + "    }\n"
+            + "  }\n"
+            + "</script>\n"
+            + "</head><body>\n"
+            + "<div id='before' style='height: 10px'></div>\n"
+            + "<div id='list'><div>x</div></div>\n"
+            + "<div id='after' style='height: 10px'></div>\n"
+            + "</body></html>";
+        final HtmlPage page = loadPage(html);
+        final Window window = page.getEnclosingWindow().getScriptableObject();
+        page.executeJavaScript("measure()");
+
+        final ComputedCSSStyleDeclaration before = window.getComputedStyle(
+                page.getHtmlElementById("before").getScriptableObject(), null);
+        final ComputedCSSStyleDeclaration list = window.getComputedStyle(
+                page.getHtmlElementById("list").getScriptableObject(), null);
+        final ComputedCSSStyleDeclaration after = window.getComputedStyle(
+                page.getHtmlElementById("after").getScriptableObject(), null);
+        assertTrue(before.isLayoutCached());
+        assertTrue(list.isLayoutCached());
+        assertTrue(after.isLayoutCached());
+
+        page.executeJavaScript("document.getElementById('list').appendChild(document.createElement('div'))");
+        assertTrue(before.isLayoutCached());
+        assertFalse(list.isLayoutCached());
+        assertFalse(after.isLayoutCached());
+    }
+}
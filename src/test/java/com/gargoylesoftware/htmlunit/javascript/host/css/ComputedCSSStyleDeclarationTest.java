@@ -2241,4 +2241,60 @@ public class ComputedCSSStyleDeclarationTest extends WebDriverTestCase {
             + "</body></html>";
         loadPageWithAlerts2(html);
     }
+
+    /**
+     * @throws Exception if an error occurs
+     */
+    @Test
+    @Alerts({"rgb(0, 0, 255)", "rgb(0, 128, 0)", "rgb(255, 0, 0)", "rgb(0, 0, 255)", "rgb(0, 0, 255)"})
+    public void cacheInvalidationSiblingSelectors() throws Exception {
+        final String html = "<html><head>\n"
+            + "<style>\n"
+            + "  li { color: rgb(0, 128, 0) }\n"
+            + "  li:last-child { color: rgb(0, 0, 255) }\n"
+            + "  li + li { background-color: rgb(255, 0, 0) }\n"
+            + "</style>\n"
+            + "</head><body>\n"
+            + "<ul id='u'><li id='a'>a</li></ul>\n"
+            + "<script>\n"
+            + "  var a = document.getElementById('a');\n"
+            + "  alert(window.getComputedStyle(a, null).color);\n"
+            + "  var b = document.createElement('li');\n"
+            + "  document.getElementById('u').appendChild(b);\n"
+            + "  alert(window.getComputedStyle(a, null).color);\n"
+            + "  alert(window.getComputedStyle(b, null).backgroundColor);\n"
+            + "  alert(window.getComputedStyle(b, null).color);\n"
+            + "  b.parentNode.removeChild(b);\n"
+            + "  alert(window.getComputedStyle(a, null).color);\n"
+            + "</script>\n"
+            + "</body></html>";
+        loadPageWithAlerts2(html);
+    }
+
+    /**
+     * @throws Exception if an error occurs
+     */
+    @Test
+    @Alerts({"rgb(255, 0, 0)", "rgb(255, 0, 0)", "rgb(0, 0, 255)", "rgb(255, 0, 0)", "rgb(0, 0, 255)"})
+    public void styleSharingSiblings() throws Exception {
+        final String html = "<html><head>\n"
+            + "<style>\n"
+            + "  .a { color: rgb(255, 0, 0) }\n"
+            + "  .b { color: rgb(0, 0, 255) }\n"
+            + "</style>\n"
+            + "</head><body>\n"
+            + "<div><span class='a'>1</span><span class='a'>2</span></div>\n"
+            + "<script>\n"
+            + "  var spans = document.getElementsByTagName('span');\n"
+            + "  alert(window.getComputedStyle(spans[0], null).color);\n"
+            + "  alert(window.getComputedStyle(spans[1], null).color);\n"
+            + "  spans[1].className = 'b';\n"
+            + "  alert(window.getComputedStyle(spans[1], null).color);\n"
+            + "  alert(window.getComputedStyle(spans[0], null).color);\n"
+            + "  spans[0].className = 'b';\n"
+            + "  alert(window.getComputedStyle(spans[0], null).color);\n"
+            + "</script>\n"
+            + "</body></html>";
+        loadPageWithAlerts2(html);
+    }
 }
@@ -14,6 +14,10 @@
  */
 package com.gargoylesoftware.htmlunit.javascript.host.css;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
@@ -28,6 +32,7 @@ import java.util.stream.Stream;
 
 import org.junit.Test;
 
+import com.gargoylesoftware.htmlunit.BrowserVersion;
 import com.gargoylesoftware.htmlunit.javascript.host.css.StyleAttributes.Definition;
 
 /**
@@ -108,4 +113,31 @@ public class StyleAttributesTest {
         }
     }
 
+    /**
+     * Test the dense attribute index.
+     */
+    @Test
+    public void attributeIndex() {
+        for (final Definition definition : StyleAttributes.Definition.values()) {
+            final int index = StyleAttributes.getAttributeIndex(definition.getAttributeName());
+            if (index < 0 || index >= StyleAttributes.getAttributeCount()) {
+                fail("StyleAttributes: invalid index " + index + " for '" + definition.getAttributeName() + "'");
+            }
+        }
+        assertEquals(StyleAttributes.getAttributeIndex("z-index"),
+                StyleAttributes.getAttributeIndex(Definition.Z_INDEX.getAttributeName()));
+        assertNotEquals(StyleAttributes.getAttributeIndex("margin-left"), StyleAttributes.getAttributeIndex("margin"));
+        assertEquals(-1, StyleAttributes.getAttributeIndex("unknown-attribute"));
+    }
+
+    /**
+     * Test the availability per browser.
+     */
+    @Test
+    public void definitionAvailability() {
+        assertSame(Definition.ACCELERATOR,
+                StyleAttributes.getDefinition("accelerator", BrowserVersion.INTERNET_EXPLORER));
+        assertNull(StyleAttributes.getDefinition("accelerator", BrowserVersion.CHROME));
+        assertNull(StyleAttributes.getDefinition("accelerator", null));
+    }
 }
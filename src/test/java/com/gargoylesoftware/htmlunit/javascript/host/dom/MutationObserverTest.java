@@ -436,4 +436,85 @@ public class MutationObserverTest extends WebDriverTestCase {
         final WebDriver driver = loadPage2(html);
         assertTitle(driver, getExpectedAlerts()[0]);
     }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"done", "3", "x b"})
+    public void recordsDeliveredTogether() throws Exception {
+        final String html
+            = "<html><head><script>\n"
+            + "function test() {\n"
+            + "  var div = document.getElementById('myDiv');\n"
+            + "  var observer = new MutationObserver(function(mutations) {\n"
+            + "    alert(mutations.length);\n"
+            + "    alert(mutations[0].oldValue + ' ' + mutations[2].oldValue);\n"
+            + "  });\n"
+            + "  observer.observe(div, { attributes: true, attributeOldValue: true });\n"
+            + "  div.setAttribute('title', 'a');\n"
+            + "  div.setAttribute('title', 'b');\n"
+            + "  div.setAttribute('title', 'c');\n"
+            + "  alert('done');\n"
+            + "}\n"
+            + "</script></head>\n"
+            + "<body onload='test()'>\n"
+            + "  <div id='myDiv' title='x'>old</div>\n"
+            + "</body></html>";
+        loadPageWithAlerts2(html);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"2", "title", "callback 1"})
+    public void takeRecords() throws Exception {
+        final String html
+            = "<html><head><script>\n"
+            + "function test() {\n"
+            + "  var div = document.getElementById('myDiv');\n"
+            + "  var observer = new MutationObserver(function(mutations) {\n"
+            + "    alert('callback ' + mutations.length);\n"
+            + "  });\n"
+            + "  observer.observe(div, { attributes: true });\n"
+            + "  div.setAttribute('title', 'a');\n"
+            + "  div.setAttribute('title', 'b');\n"
+            + "  var records = observer.takeRecords();\n"
+            + "  alert(records.length);\n"
+            + "  alert(records[1].attributeName);\n"
+            + "  div.setAttribute('title', 'c');\n"
+            + "}\n"
+            + "</script></head>\n"
+            + "<body onload='test()'>\n"
+            + "  <div id='myDiv' title='x'>old</div>\n"
+            + "</body></html>";
+        loadPageWithAlerts2(html);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts("callback 1 b")
+    public void disconnectAndObserveAgain() throws Exception {
+        final String html
+            = "<html><head><script>\n"
+            + "function test() {\n"
+            + "  var div = document.getElementById('myDiv');\n"
+            + "  var observer = new MutationObserver(function(mutations) {\n"
+            + "    alert('callback ' + mutations.length + ' ' + div.title);\n"
+            + "  });\n"
+            + "  observer.observe(div, { attributes: true });\n"
+            + "  div.setAttribute('title', 'a');\n"
+            + "  observer.disconnect();\n"
+            + "  observer.observe(div, { attributes: true });\n"
+            + "  div.setAttribute('title', 'b');\n"
+            + "}\n"
+            + "</script></head>\n"
+            + "<body onload='test()'>\n"
+            + "  <div id='myDiv' title='x'>old</div>\n"
+            + "</body></html>";
+        loadPageWithAlerts2(html);
+    }
 }
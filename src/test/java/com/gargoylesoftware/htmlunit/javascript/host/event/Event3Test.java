@@ -27,8 +27,10 @@ import com.gargoylesoftware.htmlunit.CollectingAlertHandler;
 import com.gargoylesoftware.htmlunit.MockWebConnection;
 import com.gargoylesoftware.htmlunit.SimpleWebTestCase;
 import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.html.DomNode;
 import com.gargoylesoftware.htmlunit.html.HtmlAnchor;
 import com.gargoylesoftware.htmlunit.html.HtmlButton;
+import com.gargoylesoftware.htmlunit.html.HtmlElement;
 import com.gargoylesoftware.htmlunit.html.HtmlPage;
 import com.gargoylesoftware.htmlunit.html.Keyboard;
 
@@ -265,4 +267,57 @@ public class Event3Test extends SimpleWebTestCase {
         }
     }
 
+    /**
+     * Firing an event must not create the JavaScript objects of ancestors without listeners.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void fireEventSkipsAncestorsWithoutListeners() throws Exception {
+        final String html
+            = "<html><head></head><body>\n"
+            + "  <div id='outer' onclick='alert(\"outer\")'>\n"
+            + "    <div>\n"
+            + "      <span id='inner'>inner</span>\n"
+            + "    </div>\n"
+            + "  </div>\n"
+            + "</body></html>";
+
+        final List<String> collectedAlerts = new ArrayList<>();
+        final HtmlPage page = loadPage(html, collectedAlerts);
+        final HtmlElement inner = page.getHtmlElementById("inner");
+        final DomNode middle = inner.getParentNode();
+
+        inner.fireEvent(MouseEvent.TYPE_CLICK);
+        assertEquals(new String[] {"outer"}, collectedAlerts);
+        assertFalse(middle.hasScriptableObject());
+        assertTrue(page.getHtmlElementById("outer").hasScriptableObject());
+    }
+
+    /**
+     * Ancestors skipped while building the propagation path may get listeners during the dispatch.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void fireEventListenersAddedToAncestorsDuringDispatch() throws Exception {
+        final String html
+            = "<html><head></head><body>\n"
+            + "  <div id='outer'>\n"
+            + "    <div id='middle'>\n"
+            + "      <span id='inner'>inner</span>\n"
+            + "    </div>\n"
+            + "  </div>\n"
+            + "<script>\n"
+            + "  document.getElementById('inner').addEventListener('click', function() {\n"
+            + "    this.parentNode.setAttribute('onclick', 'alert(\"middle\")');\n"
+            + "    this.parentNode.parentNode.addEventListener('click', function() { alert('outer'); });\n"
+            + "  });\n"
+            + "</script>\n"
+            + "</body></html>";
+
+        final List<String> collectedAlerts = new ArrayList<>();
+        final HtmlPage page = loadPage(html, collectedAlerts);
+
+        page.getHtmlElementById("inner").fireEvent(MouseEvent.TYPE_CLICK);
+        assertEquals(new String[] {"middle", "outer"}, collectedAlerts);
+    }
 }
@@ -17,7 +17,9 @@ package com.gargoylesoftware.htmlunit.javascript.host.html;
 import static com.gargoylesoftware.htmlunit.javascript.host.xml.XMLDocumentTest.LOAD_XML_DOCUMENT_FROM_FILE_FUNCTION;
 import static com.gargoylesoftware.htmlunit.javascript.host.xml.XMLDocumentTest.callLoadXMLDocumentFromFile;
 
+import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import org.junit.Test;
@@ -29,6 +31,8 @@ import com.gargoylesoftware.htmlunit.CollectingAlertHandler;
 import com.gargoylesoftware.htmlunit.MockWebConnection;
 import com.gargoylesoftware.htmlunit.SimpleWebTestCase;
 import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.html.HtmlElement;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
 
 /**
  * Tests for {@link HTMLCollection}.
@@ -68,4 +72,41 @@ public class HTMLCollection2Test extends SimpleWebTestCase {
         client.getPage(URL_FIRST);
         assertEquals(getExpectedAlerts(), collectedAlerts);
     }
+
+    /**
+     * Repeated calls with the same filter share the collection and do not add attribute change listeners.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void sharedCollectionsDoNotAddListeners() throws Exception {
+        final String html = "<html><head><script>\n"
+            + "  var collections = [];\n"
+            + "  function collect() {\n"
+            + "    collections.push(document.getElementsByClassName('a'));\n"
+            + "    collections.push(document.getElementsByName('n'));\n"
+            + "    for (var i = 0; i < collections.length; i++) {\n"
+            + "      collections[i].length;\n"
+            + "    }\n"
+            + "  }\n"
+            + "</script></head><body><input class='a' name='n'></body></html>";
+        final HtmlPage page = loadPage(html);
+        final HtmlElement documentElement = page.getDocumentElement();
+
+        page.executeJavaScript("collect()");
+        final int pageListeners = countAttributeListeners(page, HtmlPage.class);
+        final int elementListeners = countAttributeListeners(documentElement, HtmlElement.class);
+
+        for (int i = 0; i < 10; i++) {
+            page.executeJavaScript("collect()");
+        }
+        assertEquals(pageListeners, countAttributeListeners(page, HtmlPage.class));
+        assertEquals(elementListeners, countAttributeListeners(documentElement, HtmlElement.class));
+    }
+
+    private static int countAttributeListeners(final Object node, final Class<?> declaringClass) throws Exception {
+        final Field field = declaringClass.getDeclaredField("attributeListeners_");
+        field.setAccessible(true);
+        final Collection<?> listeners = (Collection<?>) field.get(node);
+        return listeners == null ? 0 : listeners.size();
+    }
 }
@@ -144,6 +144,54 @@ public class HTMLDocumentTest extends WebDriverTestCase {
         loadPageWithAlerts2(html);
     }
 
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"a,c", "a,c", "3", "a,b,c", "a,b,c", "4", "b,c", "b,c", "3", "b,d", "b,d"})
+    public void getElementsByClassNameAfterModifications() throws Exception {
+        final String html
+            = "<html><head><script>\n"
+            + "function ids(list) {\n"
+            + "  var res = [];\n"
+            + "  for (var i = 0; i < list.length; i++) {\n"
+            + "    res.push(list[i].id);\n"
+            + "  }\n"
+            + "  return res.join(',');\n"
+            + "}\n"
+            + "function doTest() {\n"
+            + "  var items = document.getElementsByClassName('item');\n"
+            + "  alert(ids(items));\n"
+            + "  alert(ids(document.querySelectorAll('.item')));\n"
+            + "  alert(document.getElementsByTagName('span').length);\n"
+
+            + "  var b = document.createElement('span');\n"
+            + "  b.id = 'b';\n"
+            + "  b.className = 'item';\n"
+            + "  document.body.insertBefore(b, document.getElementById('c'));\n"
+            + "  alert(ids(items));\n"
+            + "  alert(ids(document.querySelectorAll('.item')));\n"
+            + "  alert(document.getElementsByTagName('span').length);\n"
+
+            + "  document.body.removeChild(document.getElementById('a'));\n"
+            + "  alert(ids(items));\n"
+            + "  alert(ids(document.querySelectorAll('.item')));\n"
+            + "  alert(document.getElementsByTagName('span').length);\n"
+
+            + "  document.getElementById('c').className = 'other';\n"
+            + "  document.getElementById('d').setAttribute('class', 'x item');\n"
+            + "  alert(ids(items));\n"
+            + "  alert(ids(document.querySelectorAll('.item')));\n"
+            + "}\n"
+            + "</script></head><body onload='doTest()'>\n"
+            + "<span id='a' class='item'></span>\n"
+            + "<span id='c' class='item'></span>\n"
+            + "<span id='d'></span>\n"
+            + "</body></html>";
+
+        loadPageWithAlerts2(html);
+    }
+
     /**
      * @throws Exception if the test fails
      */
@@ -259,6 +259,84 @@ public class HTMLElement2Test extends WebDriverTestCase {
         loadPageWithAlerts2(html);
     }
 
+    /**
+     * @throws Exception if an error occurs
+     */
+    @Test
+    @Alerts({"40", "20", "0", "60", "40", "0"})
+    public void offsetTop_Siblings() throws Exception {
+        final String html =
+              "<html>\n"
+            + "  <head>\n"
+            + "    <script>\n"
+            + "      function test() {\n"
+            + "        for (var i = 3; i > 0; i--) {\n"
+            + "          alert(document.getElementById('d' + i).offsetTop);\n"
+            + "        }\n"
+            + "        var div = document.createElement('div');\n"
+            + "        div.style.height = '20px';\n"
+            + "        document.body.insertBefore(div, document.getElementById('d2'));\n"
+            + "        for (var i = 3; i > 0; i--) {\n"
+            + "          alert(document.getElementById('d' + i).offsetTop);\n"
+            + "        }\n"
+            + "      }\n"
+            + "    </script>\n"
+            + "  </head>\n"
+            + "  <body onload='test()' style='padding: 0px; margin: 0px; border: 0px;'>\n"
+            + "    <div id='d1' style='height: 20px; padding: 0px; margin: 0px; border: 0px;'></div>\n"
+            + "    <div id='d2' style='height: 20px; padding: 0px; margin: 0px; border: 0px;'></div>\n"
+            + "    <div id='d3' style='height: 20px; padding: 0px; margin: 0px; border: 0px;'></div>\n"
+            + "  </body>\n"
+            + "</html>";
+        loadPageWithAlerts2(html);
+    }
+
+    /**
+     * @throws Exception if an error occurs
+     */
+    @Test
+    @Alerts({"40", "20", "20", "0"})
+    public void offsetTop_SiblingHidden() throws Exception {
+        offsetTop_SiblingChanged("[hidden] { display: none }", "d1.hidden = true;");
+    }
+
+    /**
+     * @throws Exception if an error occurs
+     */
+    @Test
+    @Alerts({"40", "20", "20", "0"})
+    public void offsetTop_SiblingAttributeSelector() throws Exception {
+        offsetTop_SiblingChanged("div[data-state='closed'] { display: none }",
+                "d1.setAttribute('data-state', 'closed');");
+    }
+
+    private void offsetTop_SiblingChanged(final String css, final String change) throws Exception {
+        final String html =
+              "<html>\n"
+            + "  <head>\n"
+            + "    <style>" + css + "</style>\n"
+            + "    <script>\n"
+            + "      function test() {\n"
+            + "        var d1 = document.getElementById('d1');\n"
+            + "        for (var i = 3; i > 1; i--) {\n"
+            + "          alert(document.getElementById('d' + i).offsetTop);\n"
+            + "        }\n"
+            + "        " + change + "\n"
+            + "        for (var i = 3; i > 1; i--) {\n"
+            + "          alert(document.getElementById('d' + i).offsetTop);\n"
+            + "        }\n"
+            + "      }\n"
+            + "    </script>\n"
+            + "  </head>\n"
+            + "  <body onload='test()' style='padding: 0px; margin: 0px; border: 0px;'>\n"
+            + "    <div id='d1' style='height: 20px; padding: 0px; margin: 0px; border: 0px;'></div>\n"
+            + "    <div id='d2' style='height: 20px; padding: 0px; margin: 0px; border: 0px;'></div>\n"
+            + "    <div id='d3' style='height: 20px; padding: 0px; margin: 0px; border: 0px;'></div>\n"
+            + "  </body>\n"
+            + "</html>";
+        loadPageWithAlerts2(html);
+    }
+
     /**
      * @throws Exception if an error occurs
      */
@@ -724,6 +724,55 @@ public class HTMLElementTest extends WebDriverTestCase {
         loadPageWithAlerts2(html);
     }
 
+    /**
+     * @throws Exception if an error occurs
+     */
+    @Test
+    @Alerts({"true", "true", "1", "1", "3", "2", "2", "1"})
+    public void getElementsByTagNameSharedAndLive() throws Exception {
+        final String html =
+              "<html><body><div id='d'><p>a</p></div><script>\n"
+            + "var div = document.getElementById('d');\n"
+            + "var all = document.getElementsByTagName('p');\n"
+            + "var inDiv = div.getElementsByTagName('p');\n"
+            + "alert(all === document.getElementsByTagName('p'));\n"
+            + "alert(inDiv === div.getElementsByTagName('p'));\n"
+            + "alert(all.length);\n"
+            + "alert(inDiv.length);\n"
+            + "div.appendChild(document.createElement('p'));\n"
+            + "document.body.appendChild(document.createElement('p'));\n"
+            + "alert(all.length);\n"
+            + "alert(inDiv.length);\n"
+            + "div.removeChild(div.firstChild);\n"
+            + "alert(all.length);\n"
+            + "alert(inDiv.length);\n"
+            + "</script></body></html>";
+        loadPageWithAlerts2(html);
+    }
+
+    /**
+     * @throws Exception if an error occurs
+     */
+    @Test
+    @Alerts({"true", "true", "1", "1", "0", "0"})
+    public void getElementsByClassNameAndNameShared() throws Exception {
+        final String html =
+              "<html><body><input id='i' class='a' name='n'><script>\n"
+            + "var byClass = document.getElementsByClassName('a');\n"
+            + "var byName = document.getElementsByName('n');\n"
+            + "alert(byClass === document.getElementsByClassName('a'));\n"
+            + "alert(byName === document.getElementsByName('n'));\n"
+            + "alert(byClass.length);\n"
+            + "alert(byName.length);\n"
+            + "var input = document.getElementById('i');\n"
+            + "input.className = 'b';\n"
+            + "input.name = 'm';\n"
+            + "alert(byClass.length);\n"
+            + "alert(byName.length);\n"
+            + "</script></body></html>";
+        loadPageWithAlerts2(html);
+    }
+
     /**
      * Test getting the class for the element.
      * @throws Exception if the test fails
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2002-2018 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.util;
+
+import org.junit.Test;
+
+import com.gargoylesoftware.htmlunit.SimpleWebTestCase;
+import com.gargoylesoftware.htmlunit.html.HtmlDivision;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+
+/**
+ * Tests for {@link StringInterner}.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public class StringInternerTest extends SimpleWebTestCase {
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void intern() throws Exception {
+        final StringInterner interner = new StringInterner(2, 5);
+        assertNull(interner.intern(null));
+
+        final String abc = new String("abc");
+        assertSame(abc, interner.intern(abc));
+        assertSame(abc, interner.intern(new String("abc")));
+
+        // too long
+        final String tooLong = new String("abcdef");
+        assertSame(tooLong, interner.intern(tooLong));
+
+        final String de = new String("de");
+        assertSame(de, interner.intern(de));
+        assertEquals(2, interner.size());
+
+        // full, "de" has not been used since it was added and is replaced
+        final String fg = new String("fg");
+        assertSame(fg, interner.intern(fg));
+        assertSame(fg, interner.intern(new String("fg")));
+        assertSame(abc, interner.intern(new String("abc")));
+        assertEquals(2, interner.size());
+
+        final String de2 = new String("de");
+        assertSame(de2, interner.intern(de2));
+        assertSame(de2, interner.intern(new String("de")));
+        assertEquals(2, interner.size());
+    }
+
+    /**
+     * Uses a private pool, the shared one depends on what was parsed before.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void sharedByPages() throws Exception {
+        final String html = "<html><body><div id='d' class='main'></div></body></html>";
+        final HtmlPage page1 = loadPage(html);
+        final HtmlPage page2 = loadPage(html);
+
+        final HtmlDivision div1 = page1.getHtmlElementById("d");
+        final HtmlDivision div2 = page2.getHtmlElementById("d");
+        final StringInterner interner = new StringInterner(16, 64);
+        final String class1 = interner.intern(new String(div1.getAttribute("class")));
+        final String class2 = interner.intern(new String(div2.getAttribute("class")));
+        assertEquals("main", class1);
+        assertSame(class1, class2);
+        assertSame(interner.intern(div1.getLowercaseName()), interner.intern(new String(div2.getLowercaseName())));
+        assertEquals(2, interner.size());
+    }
+}